@@ -0,0 +1,135 @@
+package com.locallend.locallend.config;
+
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Backfills the display snapshot (item name and image, borrower and owner
+ * names) on bookings saved before it existed. Runs on a background thread so
+ * it never delays startup; until it completes, booking feeds look the names
+ * up and the other booking endpoints return them empty.
+ */
+@Component
+public class BookingSnapshotInitializer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(BookingSnapshotInitializer.class);
+    private static final int BATCH_SIZE = 500;
+    private final MongoTemplate mongoTemplate;
+
+    public BookingSnapshotInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread initializer = new Thread(this::initialize, "booking-snapshot-initializer");
+        initializer.setDaemon(true);
+        initializer.start();
+    }
+
+    private void initialize() {
+        try {
+            long updated = backfill();
+            if (updated > 0) {
+                log.info("[BookingSnapshot] Backfilled snapshots for {} bookings", updated);
+            }
+        } catch (Exception e) {
+            log.warn("[BookingSnapshot] Could not backfill booking snapshots: {}", e.getMessage());
+        }
+    }
+
+    private long backfill() {
+        Query missing = new Query(new Criteria().orOperator(
+                Criteria.where("item_name").exists(false),
+                Criteria.where("borrower_name").exists(false),
+                Criteria.where("owner_name").exists(false)));
+        missing.fields().include("item_id").include("borrower_id").include("owner_id");
+
+        long updated = 0;
+        try (Stream<Document> bookings = mongoTemplate.stream(missing, Document.class,
+                mongoTemplate.getCollectionName(Booking.class))) {
+            Iterator<Document> it = bookings.iterator();
+            while (it.hasNext()) {
+                List<Document> batch = new ArrayList<>(BATCH_SIZE);
+                while (it.hasNext() && batch.size() < BATCH_SIZE) {
+                    batch.add(it.next());
+                }
+                updated += backfill(batch);
+            }
+        }
+        return updated;
+    }
+
+    private long backfill(List<Document> batch) {
+        Set<String> itemIds = new HashSet<>();
+        Set<String> userIds = new HashSet<>();
+        for (Document booking : batch) {
+            addIfPresent(itemIds, booking.getString("item_id"));
+            addIfPresent(userIds, booking.getString("borrower_id"));
+            addIfPresent(userIds, booking.getString("owner_id"));
+        }
+
+        // One projected query per collection for the whole batch
+        Map<String, Item> items = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            Query query = new Query(Criteria.where("_id").in(itemIds));
+            query.fields().include("name").include("images");
+            mongoTemplate.find(query, Item.class).forEach(item -> items.put(item.getId(), item));
+        }
+        Map<String, String> userNames = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            Query query = new Query(Criteria.where("_id").in(userIds));
+            query.fields().include("name");
+            mongoTemplate.find(query, User.class).forEach(user -> userNames.put(user.getId(), user.getName()));
+        }
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+        int writes = 0;
+        for (Document booking : batch) {
+            Update update = new Update();
+            Item item = items.get(booking.getString("item_id"));
+            if (item != null) {
+                update.set("item_name", item.getName()).set("item_image_url", Booking.firstImage(item));
+            }
+            String borrowerName = userNames.get(booking.getString("borrower_id"));
+            if (borrowerName != null) {
+                update.set("borrower_name", borrowerName);
+            }
+            String ownerName = userNames.get(booking.getString("owner_id"));
+            if (ownerName != null) {
+                update.set("owner_name", ownerName);
+            }
+            if (!update.getUpdateObject().isEmpty()) {
+                ops.updateOne(Query.query(Criteria.where("_id").is(booking.get("_id"))), update);
+                writes++;
+            }
+        }
+        return writes > 0 ? ops.execute().getModifiedCount() : 0;
+    }
+
+    private static void addIfPresent(Set<String> ids, String id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+}
@@ -6,6 +6,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Configuration class for Cloudinary integration.
  * Initializes Cloudinary instance with credentials from application.properties.
@@ -22,6 +29,12 @@ public class CloudinaryConfig {
     @Value("${cloudinary.api-secret}")
     private String apiSecret;
 
+    @Value("${cloudinary.upload.concurrency:4}")
+    private int uploadConcurrency;
+
+    @Value("${cloudinary.upload.queue-capacity:100}")
+    private int uploadQueueCapacity;
+
     /**
      * Creates and configures a Cloudinary bean.
      * @return Configured Cloudinary instance
@@ -35,4 +48,28 @@ public class CloudinaryConfig {
                 "secure", true
         ));
     }
+
+    /**
+     * Bounded executor for concurrent image uploads.
+     * When the queue is full the submitting request thread runs the upload itself,
+     * which throttles callers instead of rejecting images.
+     * @return Upload executor (shut down with the context)
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageUploadExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "image-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                uploadConcurrency, uploadConcurrency,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(uploadQueueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
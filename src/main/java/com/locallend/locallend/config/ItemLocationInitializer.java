@@ -0,0 +1,83 @@
+package com.locallend.locallend.config;
+
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.util.DbRefUtils;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Prepares the items collection for nearby search at startup: ensures the
+ * compound 2dsphere index on the item location and copies owners' locations
+ * onto items that do not have one yet. Runs on a background thread so it
+ * never delays startup; until the backfill completes, such items are simply
+ * not found by nearby search.
+ */
+@Component
+public class ItemLocationInitializer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ItemLocationInitializer.class);
+    private static final int BATCH_SIZE = 500;
+    private final MongoTemplate mongoTemplate;
+
+    public ItemLocationInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread initializer = new Thread(this::initialize, "item-location-initializer");
+        initializer.setDaemon(true);
+        initializer.start();
+    }
+
+    private void initialize() {
+        try {
+            mongoTemplate.indexOps(Item.class).createIndex(new CompoundIndexDefinition(
+                    new Document("location", "2dsphere").append("is_active", 1).append("status", 1))
+                    .named("location_active_status_idx"));
+
+            long updated = backfill();
+            if (updated > 0) {
+                log.info("[ItemLocation] Backfilled locations for {} items", updated);
+            }
+        } catch (Exception e) {
+            log.warn("[ItemLocation] Could not prepare item locations: {}", e.getMessage());
+        }
+    }
+
+    private long backfill() {
+        Query owners = new Query(Criteria.where("location").exists(true).and("item_count").gt(0));
+        owners.fields().include("location");
+
+        long updated = 0;
+        try (Stream<User> users = mongoTemplate.stream(owners, User.class)) {
+            Iterator<User> it = users.iterator();
+            while (it.hasNext()) {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Item.class);
+                int batch = 0;
+                while (it.hasNext() && batch < BATCH_SIZE) {
+                    User user = it.next();
+                    Object ownerRef = DbRefUtils.refId(user.getId());
+                    ops.updateMulti(Query.query(Criteria.where("owner.$id").is(ownerRef).and("location").exists(false)),
+                            Update.update("location", user.getLocation()));
+                    batch++;
+                }
+                updated += ops.execute().getModifiedCount();
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,74 @@
+package com.locallend.locallend.config;
+
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.service.ItemRatingAggregateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Prepares the items collection for rating sorts and filters at startup:
+ * backfills the rating aggregates of items saved before they existed (the
+ * index on the average rating is ensured by MongoIndexInitializer). Runs on a background thread so it never
+ * delays startup; items not backfilled yet get their aggregates built on
+ * their next rating change or statistics read.
+ */
+@Component
+public class ItemRatingAggregatesInitializer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ItemRatingAggregatesInitializer.class);
+    private static final int BATCH_SIZE = 500;
+    private final MongoTemplate mongoTemplate;
+    private final ItemRatingAggregateService itemRatingAggregateService;
+
+    public ItemRatingAggregatesInitializer(MongoTemplate mongoTemplate,
+                                           ItemRatingAggregateService itemRatingAggregateService) {
+        this.mongoTemplate = mongoTemplate;
+        this.itemRatingAggregateService = itemRatingAggregateService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread initializer = new Thread(this::initialize, "item-rating-aggregates-initializer");
+        initializer.setDaemon(true);
+        initializer.start();
+    }
+
+    private void initialize() {
+        try {
+            int updated = backfill();
+            if (updated > 0) {
+                log.info("[ItemRatings] Backfilled rating aggregates for {} items", updated);
+            }
+        } catch (Exception e) {
+            log.warn("[ItemRatings] Could not prepare item rating aggregates: {}", e.getMessage());
+        }
+    }
+
+    private int backfill() {
+        Query query = new Query(Criteria.where("rating_count").exists(false));
+        query.fields().include("_id");
+
+        int updated = 0;
+        try (Stream<Item> items = mongoTemplate.stream(query, Item.class)) {
+            Iterator<Item> it = items.iterator();
+            while (it.hasNext()) {
+                List<String> batch = new ArrayList<>(BATCH_SIZE);
+                while (it.hasNext() && batch.size() < BATCH_SIZE) {
+                    batch.add(it.next().getId());
+                }
+                updated += itemRatingAggregateService.rebuild(batch);
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,90 @@
+package com.locallend.locallend.config;
+
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.service.ItemSearchIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Builds the in-memory item search index at startup by streaming the active
+ * items (name and description only) through a Mongo cursor.
+ * The build runs on a background thread so it never delays startup; until it
+ * completes (or if the database is unreachable) item search falls back to the
+ * repository query. A failed build is retried after the retry delay.
+ *
+ * Once built, the index is rebuilt periodically. This picks up items changed
+ * through other application nodes, which this node's index never sees.
+ */
+@Component
+public class ItemSearchIndexInitializer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndexInitializer.class);
+    private final MongoTemplate mongoTemplate;
+    private final ItemSearchIndex itemSearchIndex;
+    private final long rebuildIntervalMs;
+    private final long retryDelayMs;
+    private final ScheduledExecutorService builder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-search-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ItemSearchIndexInitializer(MongoTemplate mongoTemplate, ItemSearchIndex itemSearchIndex,
+                                      @Value("${app.item-search.rebuild-interval-ms:600000}") long rebuildIntervalMs,
+                                      @Value("${app.item-search.retry-delay-ms:30000}") long retryDelayMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.itemSearchIndex = itemSearchIndex;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        builder.execute(this::buildAndReschedule);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    private void buildAndReschedule() {
+        boolean built = buildIndex();
+        long delay = built ? rebuildIntervalMs : retryDelayMs;
+        if (delay > 0 && !builder.isShutdown()) {
+            builder.schedule(this::buildAndReschedule, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean buildIndex() {
+        Query query = new Query(Criteria.where("is_active").is(true));
+        query.fields().include("name").include("description").include("is_active");
+
+        long start = System.currentTimeMillis();
+        try (Stream<Item> items = mongoTemplate.stream(query, Item.class)) {
+            int indexed = itemSearchIndex.rebuild(items);
+            log.info("[SearchIndex] Indexed {} active items in {} ms", indexed, System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            if (itemSearchIndex.isReady()) {
+                log.warn("[SearchIndex] Rebuild failed, keeping the current index: {}", e.getMessage());
+            } else {
+                log.warn("[SearchIndex] Could not build item search index, falling back to database search"
+                        + " and retrying in {} ms: {}", retryDelayMs, e.getMessage());
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.locallend.locallend.config;
+
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.ImageDeletion;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.JobLease;
+import com.locallend.locallend.model.Rating;
+import com.locallend.locallend.model.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ensures the compound indexes behind the repository and listing queries, and
+ * those of the image deletion outbox, at startup (index auto-creation is off,
+ * so the model annotations only document them). Indexes that belong to a
+ * backfill are ensured by that feature's own initializer. Runs on a background thread so it never delays startup; each
+ * index is ensured on its own, so one failure (e.g. duplicate values under a
+ * unique index) does not hold back the others.
+ *
+ * Keyset listings sort on (field, _id), so their indexes end in _id; an index
+ * without it would still leave a blocking sort.
+ */
+@Component
+public class MongoIndexInitializer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private static final Map<Class<?>, List<CompoundIndexDefinition>> INDEXES = Map.of(
+            Item.class, List.of(
+                    index("owner_active_created_idx", new Document("owner.$id", 1).append("is_active", 1)
+                            .append("created_at", -1).append("_id", -1)),
+                    index("category_active_created_idx", new Document("category.$id", 1).append("is_active", 1)
+                            .append("created_at", -1).append("_id", -1)),
+                    index("active_status_name_idx", new Document("is_active", 1).append("status", 1)
+                            .append("name", 1).append("_id", 1)),
+                    index("active_status_created_idx", new Document("is_active", 1).append("status", 1)
+                            .append("created_at", -1).append("_id", -1)),
+                    index("active_status_rating_id_idx", new Document("is_active", 1).append("status", 1)
+                            .append("average_rating", -1).append("_id", -1)),
+                    index("active_status_deposit_idx", new Document("is_active", 1).append("status", 1)
+                            .append("deposit", 1).append("_id", 1))),
+            Booking.class, List.of(
+                    index("borrower_status_created_idx", new Document("borrower_id", 1).append("status", 1)
+                            .append("created_date", -1).append("_id", -1)),
+                    index("owner_status_created_idx", new Document("owner_id", 1).append("status", 1)
+                            .append("created_date", -1).append("_id", -1)),
+                    index("item_status_start_idx", new Document("item_id", 1).append("status", 1)
+                            .append("start_date", 1)),
+                    index("status_end_idx", new Document("status", 1).append("end_date", 1))),
+            Rating.class, List.of(
+                    index("rater_created_idx", new Document("rater_id", 1).append("created_date", -1)),
+                    index("ratee_created_idx", new Document("ratee_id", 1).append("created_date", -1)),
+                    index("item_created_idx", new Document("item_id", 1).append("created_date", -1)),
+                    index("booking_idx", new Document("booking_id", 1))),
+            User.class, List.of(
+                    (CompoundIndexDefinition) index("username_unique_idx", new Document("username", 1)).unique(),
+                    (CompoundIndexDefinition) index("email_unique_idx", new Document("email", 1)).unique(),
+                    index("active_trust_score_idx", new Document("is_active", 1).append("trust_score", -1))),
+            ImageDeletion.class, List.of(
+                    // enqueue upserts on public_id; only a unique index makes concurrent enqueues dedupe
+                    (CompoundIndexDefinition) index("public_id_unique_idx", new Document("public_id", 1)).unique(),
+                    index("due_idx", new Document("failed", 1).append("next_attempt_at", 1)),
+                    (CompoundIndexDefinition) index("claimed_by_idx", new Document("claimed_by", 1)).sparse()),
+            JobLease.class, List.of(
+                    // One lease per item ever booked; expired leases are as good as absent
+                    (CompoundIndexDefinition) index("expires_ttl_idx", new Document("expires_at", 1))
+                            .expire(Duration.ofDays(1))));
+
+    // Replaced by an index above that has the same key prefix
+    private static final Map<Class<?>, List<String>> SUPERSEDED = Map.of(
+            Item.class, List.of("active_status_rating_idx"));
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread initializer = new Thread(this::initialize, "mongo-index-initializer");
+        initializer.setDaemon(true);
+        initializer.start();
+    }
+
+    private void initialize() {
+        try {
+            int failed = ensureIndexes();
+            if (failed == 0) {
+                log.info("[MongoIndex] Query indexes are in place");
+            }
+        } catch (Exception e) {
+            log.warn("[MongoIndex] Could not ensure query indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Create any missing index and drop superseded ones. Idempotent.
+     * @return Number of indexes that could not be ensured
+     * @throws DataAccessResourceFailureException If the database is unreachable
+     */
+    public synchronized int ensureIndexes() {
+        int failed = 0;
+        for (Map.Entry<Class<?>, List<CompoundIndexDefinition>> entry : INDEXES.entrySet()) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entry.getKey());
+            for (CompoundIndexDefinition definition : entry.getValue()) {
+                try {
+                    indexOps.createIndex(definition);
+                } catch (DataAccessResourceFailureException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failed++;
+                    log.warn("[MongoIndex] Could not ensure index {} on {}: {}",
+                            definition.getIndexOptions().get("name"), entry.getKey().getSimpleName(), e.getMessage());
+                }
+            }
+        }
+        if (failed > 0) {
+            return failed; // Keep the old indexes until their replacements exist
+        }
+        for (Map.Entry<Class<?>, List<String>> entry : SUPERSEDED.entrySet()) {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(entry.getKey());
+                for (IndexInfo info : indexOps.getIndexInfo()) {
+                    if (entry.getValue().contains(info.getName())) {
+                        indexOps.dropIndex(info.getName());
+                        log.info("[MongoIndex] Dropped superseded index {} on {}",
+                                info.getName(), entry.getKey().getSimpleName());
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("[MongoIndex] Could not drop superseded indexes on {}: {}",
+                        entry.getKey().getSimpleName(), e.getMessage());
+            }
+        }
+        return failed;
+    }
+
+    private static CompoundIndexDefinition index(String name, Document keys) {
+        return (CompoundIndexDefinition) new CompoundIndexDefinition(keys).named(name);
+    }
+}
@@ -0,0 +1,42 @@
+package com.locallend.locallend.config;
+
+import com.locallend.locallend.monitoring.MongoQueryBudgetFilter;
+import com.locallend.locallend.monitoring.MongoQueryTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-request Mongo query accounting: registers the command listener with
+ * the Mongo client and the budget filter ahead of every other filter, so the
+ * queries made by authentication are counted too.
+ */
+@Configuration
+public class MongoQueryBudgetConfig {
+
+    @Bean
+    public MongoQueryTracker mongoQueryTracker() {
+        return new MongoQueryTracker();
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoQueryTrackerCustomizer(MongoQueryTracker mongoQueryTracker) {
+        return builder -> builder.addCommandListener(mongoQueryTracker);
+    }
+
+    @Bean
+    public FilterRegistrationBean<MongoQueryBudgetFilter> mongoQueryBudgetFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.mongo.query-budget.max-commands:25}") long maxCommands,
+            @Value("${app.mongo.query-budget.max-time-ms:500}") long maxTimeMillis,
+            @Value("${app.mongo.query-budget.headers:true}") boolean headersEnabled) {
+        FilterRegistrationBean<MongoQueryBudgetFilter> registration = new FilterRegistrationBean<>(
+                new MongoQueryBudgetFilter(meterRegistry, maxCommands, maxTimeMillis, headersEnabled));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,50 @@
+package com.locallend.locallend.config;
+
+import com.locallend.locallend.monitoring.QueryPlanAuditor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Audits the query plans of every repository method at startup when
+ * app.query-plan-audit.enabled is set, after ensuring the query indexes.
+ * With app.query-plan-audit.fail-on-violation the application refuses to start
+ * if a query runs without an index, which lets a pipeline fail on it.
+ */
+@Component
+@ConditionalOnProperty(name = "app.query-plan-audit.enabled", havingValue = "true")
+public class QueryPlanAuditRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanAuditRunner.class);
+    private final QueryPlanAuditor auditor;
+    private final MongoIndexInitializer mongoIndexInitializer;
+    private final boolean failOnViolation;
+
+    public QueryPlanAuditRunner(ListableBeanFactory beanFactory, MongoTemplate mongoTemplate,
+                                MongoIndexInitializer mongoIndexInitializer,
+                                @Value("${app.query-plan-audit.fail-on-violation:false}") boolean failOnViolation) {
+        this.auditor = new QueryPlanAuditor(beanFactory, mongoTemplate);
+        this.mongoIndexInitializer = mongoIndexInitializer;
+        this.failOnViolation = failOnViolation;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        mongoIndexInitializer.ensureIndexes();
+        QueryPlanAuditor.Report report = auditor.audit();
+        if (!report.hasViolations()) {
+            log.info("[QueryPlanAudit] {}", report);
+            return;
+        }
+        log.warn("[QueryPlanAudit] {}", report);
+        if (failOnViolation) {
+            throw new IllegalStateException("Query plan audit found " + report.getViolations().size()
+                    + " repository queries without a supporting index");
+        }
+    }
+}
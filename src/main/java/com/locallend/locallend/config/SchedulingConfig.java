@@ -0,0 +1,12 @@
+package com.locallend.locallend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. draining the image deletion outbox).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -3,6 +3,7 @@ package com.locallend.locallend.config;
 import com.locallend.locallend.security.JwtAuthenticationFilter;
 import com.locallend.locallend.security.JwtTokenProvider;
 import com.locallend.locallend.security.MongoUserDetailsService;
+import com.locallend.locallend.security.PrincipalCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -26,11 +27,14 @@ public class SecurityConfig {
 
     private final MongoUserDetailsService userDetailsService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final PrincipalCache principalCache;
 
     public SecurityConfig(MongoUserDetailsService userDetailsService, 
-                          JwtTokenProvider jwtTokenProvider) {
+                          JwtTokenProvider jwtTokenProvider,
+                          PrincipalCache principalCache) {
         this.userDetailsService = userDetailsService;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -59,7 +63,7 @@ public class SecurityConfig {
      */
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService);
+        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, principalCache);
     }
 
     /**
@@ -85,6 +89,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/items/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/users/*/public").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/users/search").permitAll()
+                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
                 
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
@@ -0,0 +1,99 @@
+package com.locallend.locallend.config;
+
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.util.SearchTerms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Prepares the users collection for prefix search at startup: ensures the
+ * index on the normalized search terms and backfills the terms of users saved
+ * before they existed. The index leads with search_terms, so a search reads
+ * only the index range of its prefix. Runs on a background thread so it never
+ * delays startup; until the backfill completes, such users are simply not
+ * found by search.
+ */
+@Component
+public class UserSearchTermsInitializer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(UserSearchTermsInitializer.class);
+    private static final int BATCH_SIZE = 500;
+    // Led with an unbounded username range, so a search walked the keys of every active user
+    private static final String SUPERSEDED_INDEX = "active_username_search_terms_idx";
+    private final MongoTemplate mongoTemplate;
+
+    public UserSearchTermsInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread initializer = new Thread(this::initialize, "user-search-terms-initializer");
+        initializer.setDaemon(true);
+        initializer.start();
+    }
+
+    private void initialize() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(User.class);
+            indexOps.createIndex(new Index()
+                    .on("search_terms", Sort.Direction.ASC)
+                    .on("is_active", Sort.Direction.ASC)
+                    .named("search_terms_active_idx"));
+            dropSupersededIndex(indexOps);
+
+            int updated = backfill();
+            if (updated > 0) {
+                log.info("[UserSearch] Backfilled search terms for {} users", updated);
+            }
+        } catch (Exception e) {
+            log.warn("[UserSearch] Could not prepare user search terms: {}", e.getMessage());
+        }
+    }
+
+    private void dropSupersededIndex(IndexOperations indexOps) {
+        for (IndexInfo info : indexOps.getIndexInfo()) {
+            if (SUPERSEDED_INDEX.equals(info.getName())) {
+                indexOps.dropIndex(SUPERSEDED_INDEX);
+                log.info("[UserSearch] Dropped superseded index {}", SUPERSEDED_INDEX);
+            }
+        }
+    }
+
+    private int backfill() {
+        Query query = new Query(Criteria.where("search_terms").exists(false));
+        query.fields().include("username").include("name");
+
+        int updated = 0;
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            Iterator<User> it = users.iterator();
+            while (it.hasNext()) {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                int batch = 0;
+                while (it.hasNext() && batch < BATCH_SIZE) {
+                    User user = it.next();
+                    ops.updateOne(Query.query(Criteria.where("_id").is(user.getId())),
+                            Update.update("search_terms", SearchTerms.forUser(user.getUsername(), user.getName())));
+                    batch++;
+                }
+                ops.execute();
+                updated += batch;
+            }
+        }
+        return updated;
+    }
+}
@@ -5,12 +5,17 @@ import com.locallend.locallend.dto.response.BookingResponseDto;
 import com.locallend.locallend.exception.BookingConflictException;
 import com.locallend.locallend.exception.BookingNotFoundException;
 import com.locallend.locallend.exception.InvalidBookingPeriodException;
+import com.locallend.locallend.model.enums.BookingStatus;
+import com.locallend.locallend.service.BookingAvailabilityIndex;
+import com.locallend.locallend.service.BookingQueryService;
 import com.locallend.locallend.service.BookingService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,9 +26,11 @@ import java.util.Map;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingQueryService bookingQueryService;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingQueryService bookingQueryService) {
         this.bookingService = bookingService;
+        this.bookingQueryService = bookingQueryService;
     }
 
     @PostMapping
@@ -54,49 +61,68 @@ public class BookingController {
     }
 
     /**
-     * Get borrower's bookings (Issue #15 naming)
+     * Get borrower's bookings (Issue #15 naming), newest first, cursor-paged
      */
     @GetMapping("/my-bookings")
-    public ResponseEntity<?> myBookings(@RequestHeader("X-User-Id") String userId) {
-        List<BookingResponseDto> list = bookingService.getBookingsForBorrower(userId);
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> myBookings(@RequestHeader("X-User-Id") String userId,
+                                        @RequestParam(required = false) String status,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "" + BookingQueryService.DEFAULT_PAGE_SIZE) int size) {
+        return borrowerFeed(userId, status, cursor, size);
     }
 
     /**
-     * Get borrower's bookings (original endpoint)
+     * Get borrower's bookings (original endpoint), newest first, cursor-paged
      */
     @GetMapping("/my")
-    public ResponseEntity<?> myBookingsOriginal(@RequestHeader("X-User-Id") String userId) {
-        List<BookingResponseDto> list = bookingService.getBookingsForBorrower(userId);
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> myBookingsOriginal(@RequestHeader("X-User-Id") String userId,
+                                                @RequestParam(required = false) String status,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "" + BookingQueryService.DEFAULT_PAGE_SIZE) int size) {
+        return borrowerFeed(userId, status, cursor, size);
     }
 
     /**
-     * Get pending approvals for owner (Issue #15 naming)
+     * Get pending approvals for owner (Issue #15 naming), newest first, cursor-paged
      */
     @GetMapping("/pending-approvals")
-    public ResponseEntity<?> pendingApprovals(@RequestHeader("X-User-Id") String ownerId) {
+    public ResponseEntity<?> pendingApprovals(@RequestHeader("X-User-Id") String ownerId,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "" + BookingQueryService.DEFAULT_PAGE_SIZE) int size) {
         try {
-            com.locallend.locallend.model.enums.BookingStatus pendingStatus = 
-                com.locallend.locallend.model.enums.BookingStatus.PENDING;
-            List<BookingResponseDto> bookings = bookingService.getBookingsForOwner(ownerId);
-            // Filter for PENDING status
-            List<BookingResponseDto> pending = bookings.stream()
-                .filter(b -> b.getStatus() == pendingStatus)
-                .toList();
-            return ResponseEntity.ok(pending);
+            return ResponseEntity.ok(bookingQueryService.getOwnerFeed(ownerId, BookingStatus.PENDING, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid feed request", e.getMessage(), "INVALID_FEED_REQUEST");
         } catch (Exception e) {
             return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching pending approvals", e.getMessage(), "FETCH_ERROR");
         }
     }
 
     /**
-     * Get owner's bookings (original endpoint)
+     * Get owner's bookings (original endpoint), newest first, cursor-paged
      */
     @GetMapping("/my-owned")
-    public ResponseEntity<?> myOwnedBookings(@RequestHeader("X-User-Id") String ownerId) {
-        List<BookingResponseDto> list = bookingService.getBookingsForOwner(ownerId);
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> myOwnedBookings(@RequestHeader("X-User-Id") String ownerId,
+                                             @RequestParam(required = false) String status,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "" + BookingQueryService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(bookingQueryService.getOwnerFeed(ownerId, parseStatus(status), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid feed request", e.getMessage(), "INVALID_FEED_REQUEST");
+        }
+    }
+
+    private ResponseEntity<?> borrowerFeed(String borrowerId, String status, String cursor, int size) {
+        try {
+            return ResponseEntity.ok(bookingQueryService.getBorrowerFeed(borrowerId, parseStatus(status), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid feed request", e.getMessage(), "INVALID_FEED_REQUEST");
+        }
+    }
+
+    private static BookingStatus parseStatus(String status) {
+        return status == null || status.isBlank() ? null : BookingStatus.fromString(status);
     }
 
     /**
@@ -240,6 +266,39 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getActiveBookingsForItem(itemId));
     }
 
+    /**
+     * Number of CONFIRMED/ACTIVE bookings on the item and when its current booking ends.
+     */
+    @GetMapping("/item/{itemId}/active-summary")
+    public ResponseEntity<?> activeSummaryForItem(@PathVariable String itemId) {
+        BookingAvailabilityIndex.ActiveSummary summary = bookingService.getActiveSummaryForItem(itemId);
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("item_id", itemId);
+        resp.put("active_count", summary.getActiveCount());
+        resp.put("booked_until", summary.getBookedUntil());
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Earliest start at which the item is free for the requested number of days.
+     */
+    @GetMapping("/item/{itemId}/next-available")
+    public ResponseEntity<?> nextAvailableForItem(@PathVariable String itemId,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(defaultValue = "1") int days) {
+        try {
+            LocalDateTime start = bookingService.findNextAvailableStart(itemId, from, days);
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("item_id", itemId);
+            resp.put("start_date", start);
+            resp.put("end_date", start.plusDays(days));
+            return ResponseEntity.ok(resp);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid availability request", e.getMessage(), "INVALID_AVAILABILITY_REQUEST");
+        }
+    }
+
     @PostMapping("/process-overdue")
     public ResponseEntity<?> processOverdue() {
         int count = bookingService.processOverdueBookings();
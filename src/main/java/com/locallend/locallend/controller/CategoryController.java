@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.Valid;
@@ -17,7 +18,12 @@ import jakarta.validation.constraints.NotBlank;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
+/**
+ * Category endpoints. Reads carry an ETag of the category data and answer
+ * 304 Not Modified when the client's copy is current.
+ */
 @RestController
 @RequestMapping("/api/categories")
 @Validated
@@ -70,19 +76,22 @@ public class CategoryController {
 
     @GetMapping
     public ResponseEntity<?> getAllCategories(
-            @RequestParam(value = "sort", defaultValue = "name") String sortBy) {
+            @RequestParam(value = "sort", defaultValue = "name") String sortBy,
+            WebRequest webRequest) {
         logger.info("Request to get all categories with sort: {}", sortBy);
 
         try {
-            List<CategoryDto> categories = categoryService.getAllCategories(sortBy);
+            return withCategoriesETag(webRequest, () -> {
+                List<CategoryDto> categories = categoryService.getAllCategories(sortBy);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Categories retrieved successfully");
-            response.put("data", categories);
-            response.put("count", categories.size());
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Categories retrieved successfully");
+                response.put("data", categories);
+                response.put("count", categories.size());
 
-            return ResponseEntity.ok(response);
+                return response;
+            });
 
         } catch (Exception e) {
             logger.error("Error retrieving categories: {}", e.getMessage());
@@ -98,18 +107,21 @@ public class CategoryController {
 
     @GetMapping("/{categoryId}")
     public ResponseEntity<?> getCategoryById(
-            @PathVariable @NotBlank(message = "Category ID is required") String categoryId) {
+            @PathVariable @NotBlank(message = "Category ID is required") String categoryId,
+            WebRequest webRequest) {
         logger.info("Request to get category by ID: {}", categoryId);
 
         try {
-            CategoryDto category = categoryService.getCategoryById(categoryId);
+            return withCategoriesETag(webRequest, () -> {
+                CategoryDto category = categoryService.getCategoryById(categoryId);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Category retrieved successfully");
-            response.put("data", category);
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Category retrieved successfully");
+                response.put("data", category);
 
-            return ResponseEntity.ok(response);
+                return response;
+            });
 
         } catch (CategoryNotFoundException e) {
             logger.error("Category not found: {}", e.getMessage());
@@ -125,19 +137,22 @@ public class CategoryController {
 
     @GetMapping("/root")
     public ResponseEntity<?> getRootCategories(
-            @RequestParam(value = "sort", defaultValue = "name") String sortBy) {
+            @RequestParam(value = "sort", defaultValue = "name") String sortBy,
+            WebRequest webRequest) {
         logger.info("Request to get root categories with sort: {}", sortBy);
 
         try {
-            List<CategoryDto> rootCategories = categoryService.getRootCategories(sortBy);
+            return withCategoriesETag(webRequest, () -> {
+                List<CategoryDto> rootCategories = categoryService.getRootCategories(sortBy);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Root categories retrieved successfully");
-            response.put("data", rootCategories);
-            response.put("count", rootCategories.size());
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Root categories retrieved successfully");
+                response.put("data", rootCategories);
+                response.put("count", rootCategories.size());
 
-            return ResponseEntity.ok(response);
+                return response;
+            });
 
         } catch (Exception e) {
             logger.error("Error retrieving root categories: {}", e.getMessage());
@@ -154,20 +169,23 @@ public class CategoryController {
     @GetMapping("/{parentId}/subcategories")
     public ResponseEntity<?> getSubcategories(
             @PathVariable @NotBlank(message = "Parent category ID is required") String parentId,
-            @RequestParam(value = "sort", defaultValue = "name") String sortBy) {
+            @RequestParam(value = "sort", defaultValue = "name") String sortBy,
+            WebRequest webRequest) {
         logger.info("Request to get subcategories for parent: {}", parentId);
 
         try {
-            List<CategoryDto> subcategories = categoryService.getSubcategories(parentId, sortBy);
+            return withCategoriesETag(webRequest, () -> {
+                List<CategoryDto> subcategories = categoryService.getSubcategories(parentId, sortBy);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Subcategories retrieved successfully");
-            response.put("data", subcategories);
-            response.put("count", subcategories.size());
-            response.put("parent_id", parentId);
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Subcategories retrieved successfully");
+                response.put("data", subcategories);
+                response.put("count", subcategories.size());
+                response.put("parent_id", parentId);
 
-            return ResponseEntity.ok(response);
+                return response;
+            });
 
         } catch (CategoryNotFoundException e) {
             logger.error("Parent category not found: {}", e.getMessage());
@@ -184,20 +202,23 @@ public class CategoryController {
     @GetMapping("/search")
     public ResponseEntity<?> searchCategories(
             @RequestParam @NotBlank(message = "Search term is required") String q,
-            @RequestParam(value = "sort", defaultValue = "name") String sortBy) {
+            @RequestParam(value = "sort", defaultValue = "name") String sortBy,
+            WebRequest webRequest) {
         logger.info("Request to search categories with term: {}", q);
 
         try {
-            List<CategoryDto> categories = categoryService.searchCategories(q, sortBy);
+            return withCategoriesETag(webRequest, () -> {
+                List<CategoryDto> categories = categoryService.searchCategories(q, sortBy);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Categories search completed successfully");
-            response.put("data", categories);
-            response.put("count", categories.size());
-            response.put("search_term", q);
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Categories search completed successfully");
+                response.put("data", categories);
+                response.put("count", categories.size());
+                response.put("search_term", q);
 
-            return ResponseEntity.ok(response);
+                return response;
+            });
 
         } catch (Exception e) {
             logger.error("Error searching categories: {}", e.getMessage());
@@ -213,20 +234,23 @@ public class CategoryController {
 
     @GetMapping("/popular")
     public ResponseEntity<?> getPopularCategories(
-            @RequestParam(value = "min_items", defaultValue = "1") long minItems) {
+            @RequestParam(value = "min_items", defaultValue = "1") long minItems,
+            WebRequest webRequest) {
         logger.info("Request to get popular categories with minimum {} items", minItems);
 
         try {
-            List<CategoryDto> popularCategories = categoryService.getPopularCategories(minItems);
+            return withCategoriesETag(webRequest, () -> {
+                List<CategoryDto> popularCategories = categoryService.getPopularCategories(minItems);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Popular categories retrieved successfully");
-            response.put("data", popularCategories);
-            response.put("count", popularCategories.size());
-            response.put("min_items", minItems);
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Popular categories retrieved successfully");
+                response.put("data", popularCategories);
+                response.put("count", popularCategories.size());
+                response.put("min_items", minItems);
 
-            return ResponseEntity.ok(response);
+                return response;
+            });
 
         } catch (Exception e) {
             logger.error("Error retrieving popular categories: {}", e.getMessage());
@@ -284,4 +308,18 @@ public class CategoryController {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
+
+    /**
+     * Answer a read of category data: 304 Not Modified when the client's copy
+     * carries the current ETag, otherwise 200 with the body and the ETag.
+     * @param webRequest Request with the client's If-None-Match header
+     * @param body Builds the response body; only called when it is sent
+     */
+    private ResponseEntity<?> withCategoriesETag(WebRequest webRequest, Supplier<Map<String, Object>> body) {
+        String eTag = categoryService.getCategoriesETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body.get());
+    }
 }
@@ -3,6 +3,8 @@ package com.locallend.locallend.controller;
 import com.locallend.locallend.dto.CreateItemRequest;
 import com.locallend.locallend.dto.ItemDTO;
 import com.locallend.locallend.dto.UpdateItemRequest;
+import com.locallend.locallend.dto.response.CursorPageDto;
+import com.locallend.locallend.model.enums.ItemStatus;
 import com.locallend.locallend.service.ItemService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -58,25 +60,41 @@ public class ItemController {
     /**
      * Get all available items with pagination and sorting
      * GET /api/items
-     * Query params: page (default: 0), size (default: 10), sortBy (default: name), sortDir (default: asc)
+     * Query params: page (default: 0), size (default: 10), sortBy (default: name, e.g. averageRating),
+     * sortDir (default: asc), minRating (optional minimum average rating)
+     * Cursor paging: pass cursor (empty for the first page, then next_cursor) instead of page;
+     * withTotal=true adds a capped total_estimate. sortBy is then one of name, createdAt, averageRating, deposit.
      */
     @GetMapping
-    public ResponseEntity<Page<ItemDTO>> getAllAvailableItems(
+    public ResponseEntity<?> getAllAvailableItems(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(required = false) String ownerId) {
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) String ownerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
         // If caller provided an ownerId, route to the owner-specific service
         // This keeps backward compatibility for callers using the public
         // /api/items endpoint with ?ownerId=<id>
         if (ownerId != null && !ownerId.isBlank()) {
-            Page<ItemDTO> items = itemService.getItemsByOwner(ownerId, page, size);
-            return ResponseEntity.ok(items);
+            return getItemsByOwner(ownerId, page, size, cursor, withTotal);
+        }
+
+        if (cursor != null) {
+            try {
+                return ResponseEntity.ok(itemService.scrollAvailableItems(sortBy, sortDir, minRating, cursor, size, withTotal));
+            } catch (IllegalArgumentException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Invalid request");
+                error.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
         }
 
-        Page<ItemDTO> items = itemService.getAvailableItems(page, size, sortBy, sortDir);
+        Page<ItemDTO> items = itemService.getAvailableItems(page, size, sortBy, sortDir, minRating);
         return ResponseEntity.ok(items);
     }
 
@@ -97,6 +115,35 @@ public class ItemController {
         }
     }
 
+    /**
+     * Find active items near a location, nearest first
+     * GET /api/items/nearby
+     * Query params: lng, lat (required), radiusKm (default: 10, max: 50), categoryId (optional),
+     * status (default: AVAILABLE), cursor (from the previous page), size (default: 20)
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyItems(
+            @RequestParam double lng,
+            @RequestParam double lat,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(defaultValue = "AVAILABLE") String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            ItemStatus itemStatus = ItemStatus.valueOf(status.trim().toUpperCase());
+            CursorPageDto<ItemDTO> items = itemService.getNearbyItems(lng, lat, radiusKm, categoryId,
+                    itemStatus, cursor, size);
+            return ResponseEntity.ok(items);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid request");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
     /**
      * Search available items
      * GET /api/items/search
@@ -115,15 +162,21 @@ public class ItemController {
     /**
      * Get items by category
      * GET /api/items/category/{categoryId}
-     * Query params: page (default: 0), size (default: 10)
+     * Query params: page (default: 0), size (default: 10),
+     * or cursor (empty for the first page) and withTotal for cursor paging, newest first
      */
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<?> getItemsByCategory(
             @PathVariable String categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(itemService.scrollItemsByCategory(categoryId, cursor, size, withTotal));
+            }
             Page<ItemDTO> items = itemService.getAvailableItemsByCategory(categoryId, page, size);
             return ResponseEntity.ok(items);
         } catch (IllegalArgumentException e) {
@@ -137,15 +190,21 @@ public class ItemController {
     /**
      * Get items by owner
      * GET /api/items/owner/{ownerId}
-     * Query params: page (default: 0), size (default: 10)
+     * Query params: page (default: 0), size (default: 10),
+     * or cursor (empty for the first page) and withTotal for cursor paging, newest first
      */
     @GetMapping("/owner/{ownerId}")
     public ResponseEntity<?> getItemsByOwner(
             @PathVariable String ownerId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(itemService.scrollItemsByOwner(ownerId, cursor, size, withTotal));
+            }
             Page<ItemDTO> items = itemService.getItemsByOwner(ownerId, page, size);
             return ResponseEntity.ok(items);
         } catch (IllegalArgumentException e) {
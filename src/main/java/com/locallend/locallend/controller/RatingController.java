@@ -20,9 +20,14 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * REST Controller for Rating management operations.
@@ -36,6 +41,7 @@ import java.util.Map;
 public class RatingController {
 
     private static final Logger logger = LoggerFactory.getLogger(RatingController.class);
+    private static final int MAX_BATCH_STATS_IDS = 100;
 
     private final RatingService ratingService;
     private final RatingMapper ratingMapper;
@@ -327,6 +333,26 @@ public class RatingController {
         }
     }
 
+    /**
+     * Get rating statistics for several users in one request (for list views)
+     * GET /api/ratings/users/stats?ids=id1,id2
+     */
+    @GetMapping("/users/stats")
+    public ResponseEntity<?> getUsersRatingStats(@RequestParam List<String> ids) {
+        logger.info("Request to get rating stats for {} users", ids.size());
+        return batchStatsResponse(ids, "USER", ratingService::getUserRatingStatistics);
+    }
+
+    /**
+     * Get rating statistics for several items in one request (for list views)
+     * GET /api/ratings/items/stats?ids=id1,id2
+     */
+    @GetMapping("/items/stats")
+    public ResponseEntity<?> getItemsRatingStats(@RequestParam List<String> ids) {
+        logger.info("Request to get rating stats for {} items", ids.size());
+        return batchStatsResponse(ids, "ITEM", ratingService::getItemRatingStatistics);
+    }
+
     /**
      * Update an existing rating
      * PUT /api/ratings/{ratingId}
@@ -484,6 +510,42 @@ public class RatingController {
 
     // Helper methods
 
+    private ResponseEntity<?> batchStatsResponse(List<String> ids, String subjectType,
+                                                 Function<Collection<String>, Map<String, RatingService.RatingStatistics>> fetcher) {
+        Set<String> uniqueIds = new LinkedHashSet<>();
+        ids.stream().filter(id -> id != null && !id.isBlank()).map(String::trim).forEach(uniqueIds::add);
+        if (uniqueIds.isEmpty() || uniqueIds.size() > MAX_BATCH_STATS_IDS) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Between 1 and " + MAX_BATCH_STATS_IDS + " IDs are required");
+            errorResponse.put("error_code", "INVALID_STATS_REQUEST");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        try {
+            Map<String, RatingStatsResponse> data = new LinkedHashMap<>();
+            fetcher.apply(uniqueIds).forEach((id, stats) ->
+                    data.put(id, convertToStatsResponse(stats, id, subjectType)));
+
+            Map<String, Object> responseMap = new HashMap<>();
+            responseMap.put("success", true);
+            responseMap.put("message", "Rating stats retrieved successfully");
+            responseMap.put("data", data);
+
+            return ResponseEntity.ok(responseMap);
+
+        } catch (Exception e) {
+            logger.error("Error retrieving batched rating stats: {}", e.getMessage());
+
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Error retrieving rating statistics");
+            errorResponse.put("error_code", "STATS_ERROR");
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
     /**
      * Convert RatingService.RatingStatistics to RatingStatsResponse DTO
      */
@@ -1,5 +1,6 @@
 package com.locallend.locallend.controller;
 
+import com.locallend.locallend.dto.request.UserLocationDto;
 import com.locallend.locallend.dto.request.UserUpdateDto;
 import com.locallend.locallend.dto.response.UserPublicDto;
 import com.locallend.locallend.dto.response.UserResponseDto;
@@ -64,6 +65,20 @@ public class UserController {
 		return ResponseEntity.ok(userMapper.toUserResponseDto(updated));
 	}
 
+	/**
+	 * Update current user's location.
+	 * The location is also copied onto the user's items for nearby search.
+	 * 
+	 * @param locationDto Longitude and latitude
+	 * @return 204 No Content
+	 */
+	@PutMapping("/profile/location")
+	public ResponseEntity<Void> updateLocation(@Valid @RequestBody UserLocationDto locationDto) {
+		String userId = SecurityUtils.getCurrentUserId();
+		userService.updateLocation(userId, locationDto.getLongitude(), locationDto.getLatitude());
+		return ResponseEntity.noContent().build();
+	}
+
 	/**
 	 * Get public information about any user.
 	 * Does not expose sensitive information like email or phone.
@@ -82,7 +97,7 @@ public class UserController {
 	 * Search active users by name or username.
 	 * Returns paginated results with only public information.
 	 * 
-	 * @param term Search term (case-insensitive)
+	 * @param term Search term (case-insensitive word prefixes)
 	 * @param page Page number (default: 0)
 	 * @param size Page size (default: 10)
 	 * @return Page of matching users (public info only)
@@ -92,9 +107,7 @@ public class UserController {
 			@RequestParam String term,
 			@RequestParam(defaultValue = "0") int page,
 			@RequestParam(defaultValue = "10") int size) {
-		Page<User> users = userQueryService.searchActiveUsers(term, page, size);
-		Page<UserPublicDto> result = users.map(userMapper::toUserPublicDto);
-		return ResponseEntity.ok(result);
+		return ResponseEntity.ok(userQueryService.searchActiveUsers(term, page, size));
 	}
 }
 
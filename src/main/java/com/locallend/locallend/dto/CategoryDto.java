@@ -28,6 +28,9 @@ public class CategoryDto {
     @JsonProperty("item_count")
     private long itemCount;
 
+    @JsonProperty("subtree_item_count")
+    private long subtreeItemCount;
+
     @JsonProperty("has_subcategories")
     private boolean hasSubcategories;
 
@@ -66,6 +69,7 @@ public class CategoryDto {
         public Builder parentCategoryName(String parentCategoryName) { categoryDto.parentCategoryName = parentCategoryName; return this; }
         public Builder isActive(boolean isActive) { categoryDto.isActive = isActive; return this; }
         public Builder itemCount(long itemCount) { categoryDto.itemCount = itemCount; return this; }
+        public Builder subtreeItemCount(long subtreeItemCount) { categoryDto.subtreeItemCount = subtreeItemCount; return this; }
         public Builder hasSubcategories(boolean hasSubcategories) { categoryDto.hasSubcategories = hasSubcategories; return this; }
         public Builder createdAt(LocalDateTime createdAt) { categoryDto.createdAt = createdAt; return this; }
         public Builder updatedAt(LocalDateTime updatedAt) { categoryDto.updatedAt = updatedAt; return this; }
@@ -95,6 +99,9 @@ public class CategoryDto {
     public long getItemCount() { return itemCount; }
     public void setItemCount(long itemCount) { this.itemCount = itemCount; }
 
+    public long getSubtreeItemCount() { return subtreeItemCount; }
+    public void setSubtreeItemCount(long subtreeItemCount) { this.subtreeItemCount = subtreeItemCount; }
+
     public boolean isHasSubcategories() { return hasSubcategories; }
     public void setHasSubcategories(boolean hasSubcategories) { this.hasSubcategories = hasSubcategories; }
 
@@ -19,6 +19,11 @@ public class ItemDTO {
     private boolean canBeBorrowed;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Only filled in on the item detail view
+    private Integer activeBookingCount;
+    private LocalDateTime bookedUntil;
+    // Only filled in by the nearby search
+    private Double distanceMeters;
 
     // Getters and setters
     public String getId() { return id; }
@@ -65,4 +70,13 @@ public class ItemDTO {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Integer getActiveBookingCount() { return activeBookingCount; }
+    public void setActiveBookingCount(Integer activeBookingCount) { this.activeBookingCount = activeBookingCount; }
+
+    public LocalDateTime getBookedUntil() { return bookedUntil; }
+    public void setBookedUntil(LocalDateTime bookedUntil) { this.bookedUntil = bookedUntil; }
+
+    public Double getDistanceMeters() { return distanceMeters; }
+    public void setDistanceMeters(Double distanceMeters) { this.distanceMeters = distanceMeters; }
 }
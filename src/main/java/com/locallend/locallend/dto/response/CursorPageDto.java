@@ -0,0 +1,53 @@
+package com.locallend.locallend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paged feed. Pass next_cursor back as the cursor
+ * parameter to fetch the following page; it is null on the last page.
+ */
+public class CursorPageDto<T> {
+
+    @JsonProperty("items")
+    private List<T> items;
+
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    @JsonProperty("has_more")
+    private boolean hasMore;
+
+    // Only present when requested; capped, so it is a lower bound once it reaches the cap
+    @JsonProperty("total_estimate")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalEstimate;
+
+    public CursorPageDto() {}
+
+    public CursorPageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public CursorPageDto(List<T> items, String nextCursor, Long totalEstimate) {
+        this(items, nextCursor);
+        this.totalEstimate = totalEstimate;
+    }
+
+    // Getters and setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public Long getTotalEstimate() { return totalEstimate; }
+    public void setTotalEstimate(Long totalEstimate) { this.totalEstimate = totalEstimate; }
+}
@@ -0,0 +1,21 @@
+package com.locallend.locallend.event;
+
+import java.util.List;
+
+/**
+ * Published after a batch of ACTIVE bookings has been moved to OVERDUE, for
+ * listeners that notify borrowers and owners.
+ */
+public class BookingsMarkedOverdueEvent {
+
+    private final List<String> bookingIds;
+
+    public BookingsMarkedOverdueEvent(List<String> bookingIds) {
+        this.bookingIds = List.copyOf(bookingIds);
+    }
+
+    /** IDs of the bookings this batch marked overdue. */
+    public List<String> getBookingIds() {
+        return bookingIds;
+    }
+}
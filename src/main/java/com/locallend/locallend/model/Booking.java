@@ -17,17 +17,17 @@ import java.util.Objects;
  * Manages the complete lifecycle from request to completion.
  */
 @Document(collection = "bookings")
-@CompoundIndex(def = "{'borrower_id': 1, 'status': 1}")
-@CompoundIndex(def = "{'owner_id': 1, 'status': 1}")
-@CompoundIndex(def = "{'item_id': 1, 'status': 1}")
-@CompoundIndex(def = "{'status': 1, 'created_date': -1}")
-@CompoundIndex(def = "{'start_date': 1, 'end_date': 1}")
+@CompoundIndex(name = "borrower_status_created_idx", def = "{'borrower_id': 1, 'status': 1, 'created_date': -1, '_id': -1}")
+@CompoundIndex(name = "owner_status_created_idx", def = "{'owner_id': 1, 'status': 1, 'created_date': -1, '_id': -1}")
+@CompoundIndex(name = "item_status_start_idx", def = "{'item_id': 1, 'status': 1, 'start_date': 1}")
+@CompoundIndex(name = "status_end_idx", def = "{'status': 1, 'end_date': 1}")
 public class Booking {
 
     @Id
     private String id;
 
-    @DBRef
+    // Lazy: reads use item_id and the snapshot fields, so the reference is only resolved when accessed
+    @DBRef(lazy = true)
     @NotNull(message = "Booking must have an item")
     private Item item;
 
@@ -36,7 +36,7 @@ public class Booking {
     @NotBlank(message = "Item ID is required")
     private String itemId;
 
-    @DBRef
+    @DBRef(lazy = true)
     @NotNull(message = "Booking must have a borrower")
     private User borrower;
 
@@ -45,7 +45,7 @@ public class Booking {
     @NotBlank(message = "Borrower ID is required")
     private String borrowerId;
 
-    @DBRef
+    @DBRef(lazy = true)
     @NotNull(message = "Booking must have an owner")
     private User owner;
 
@@ -54,6 +54,19 @@ public class Booking {
     @NotBlank(message = "Owner ID is required")
     private String ownerId;
 
+    // Display snapshot of the referenced documents, kept current by BookingSnapshotService
+    @Field("item_name")
+    private String itemName;
+
+    @Field("item_image_url")
+    private String itemImageUrl;
+
+    @Field("borrower_name")
+    private String borrowerName;
+
+    @Field("owner_name")
+    private String ownerName;
+
     @Indexed
     @NotNull(message = "Booking status is required")
     private BookingStatus status = BookingStatus.PENDING;
@@ -125,12 +138,9 @@ public class Booking {
 
     public Booking(Item item, User borrower, User owner, LocalDateTime startDate, LocalDateTime endDate) {
         this();
-        this.item = item;
-        this.itemId = item != null ? item.getId() : null;
-        this.borrower = borrower;
-        this.borrowerId = borrower != null ? borrower.getId() : null;
-        this.owner = owner;
-        this.ownerId = owner != null ? owner.getId() : null;
+        setItem(item);
+        setBorrower(borrower);
+        setOwner(owner);
         this.startDate = startDate;
         this.endDate = endDate;
         this.calculateDuration();
@@ -243,6 +253,8 @@ public class Booking {
     public void setItem(Item item) {
         this.item = item;
         this.itemId = item != null ? item.getId() : null;
+        this.itemName = item != null ? item.getName() : null;
+        this.itemImageUrl = item != null ? firstImage(item) : null;
     }
 
     public String getItemId() { return itemId; }
@@ -252,6 +264,7 @@ public class Booking {
     public void setBorrower(User borrower) {
         this.borrower = borrower;
         this.borrowerId = borrower != null ? borrower.getId() : null;
+        this.borrowerName = borrower != null ? borrower.getName() : null;
     }
 
     public String getBorrowerId() { return borrowerId; }
@@ -261,11 +274,31 @@ public class Booking {
     public void setOwner(User owner) {
         this.owner = owner;
         this.ownerId = owner != null ? owner.getId() : null;
+        this.ownerName = owner != null ? owner.getName() : null;
     }
 
     public String getOwnerId() { return ownerId; }
     public void setOwnerId(String ownerId) { this.ownerId = ownerId; }
 
+    public String getItemName() { return itemName; }
+    public void setItemName(String itemName) { this.itemName = itemName; }
+
+    public String getItemImageUrl() { return itemImageUrl; }
+    public void setItemImageUrl(String itemImageUrl) { this.itemImageUrl = itemImageUrl; }
+
+    public String getBorrowerName() { return borrowerName; }
+    public void setBorrowerName(String borrowerName) { this.borrowerName = borrowerName; }
+
+    public String getOwnerName() { return ownerName; }
+    public void setOwnerName(String ownerName) { this.ownerName = ownerName; }
+
+    /**
+     * @return The image shown for an item in booking snapshots, or null if it has none
+     */
+    public static String firstImage(Item item) {
+        return item.getImages() != null && !item.getImages().isEmpty() ? item.getImages().get(0) : null;
+    }
+
     public BookingStatus getStatus() { return status; }
     public void setStatus(BookingStatus status) { this.status = status; }
 
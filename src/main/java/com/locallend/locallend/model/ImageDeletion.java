@@ -0,0 +1,102 @@
+package com.locallend.locallend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Cloudinary image waiting to be deleted.
+ * Item updates and soft deletes record the images they drop here instead of
+ * calling Cloudinary inline; ImageDeletionOutbox drains the collection in
+ * batches and removes each document once the image is gone.
+ */
+@Document(collection = "image_deletions")
+@CompoundIndex(name = "due_idx", def = "{'failed': 1, 'next_attempt_at': 1}")
+public class ImageDeletion {
+
+    @Id
+    private String id;
+
+    @Indexed(name = "public_id_unique_idx", unique = true)
+    @Field("public_id")
+    private String publicId;
+
+    @Field("image_url")
+    private String imageUrl;
+
+    @Field("item_id")
+    private String itemId;
+
+    @Field("attempts")
+    private int attempts = 0;
+
+    // Not picked up before this time; also pushed forward while a worker holds the entry
+    @Field("next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Token of the worker run that currently holds this entry
+    @Indexed(name = "claimed_by_idx", sparse = true)
+    @Field("claimed_by")
+    private String claimedBy;
+
+    @Field("last_error")
+    private String lastError;
+
+    // Set once the retry budget is exhausted; such entries are left for manual cleanup
+    @Field("failed")
+    private boolean failed = false;
+
+    @Field("created_date")
+    private LocalDateTime createdDate;
+
+    // Constructors
+    public ImageDeletion() {
+        this.createdDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getPublicId() { return publicId; }
+    public void setPublicId(String publicId) { this.publicId = publicId; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public String getItemId() { return itemId; }
+    public void setItemId(String itemId) { this.itemId = itemId; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public boolean isFailed() { return failed; }
+    public void setFailed(boolean failed) { this.failed = failed; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    @Override
+    public String toString() {
+        return "ImageDeletion{" +
+                "publicId='" + publicId + '\'' +
+                ", itemId='" + itemId + '\'' +
+                ", attempts=" + attempts +
+                ", failed=" + failed +
+                '}';
+    }
+}
@@ -5,6 +5,8 @@ import com.locallend.locallend.model.enums.ItemStatus;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -13,9 +15,17 @@ import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Document(collection = "items")
+@CompoundIndex(name = "owner_active_created_idx", def = "{'owner.$id': 1, 'is_active': 1, 'created_at': -1, '_id': -1}")
+@CompoundIndex(name = "category_active_created_idx", def = "{'category.$id': 1, 'is_active': 1, 'created_at': -1, '_id': -1}")
+@CompoundIndex(name = "active_status_name_idx", def = "{'is_active': 1, 'status': 1, 'name': 1, '_id': 1}")
+@CompoundIndex(name = "active_status_created_idx", def = "{'is_active': 1, 'status': 1, 'created_at': -1, '_id': -1}")
+@CompoundIndex(name = "active_status_rating_id_idx", def = "{'is_active': 1, 'status': 1, 'average_rating': -1, '_id': -1}")
+@CompoundIndex(name = "active_status_deposit_idx", def = "{'is_active': 1, 'status': 1, 'deposit': 1, '_id': 1}")
+@CompoundIndex(name = "location_active_status_idx", def = "{'location': '2dsphere', 'is_active': 1, 'status': 1}")
 public class Item {
     @Id
     private String id;
@@ -41,8 +51,18 @@ public class Item {
     @Field("images")
     private List<String> images = new ArrayList<>();
 
-    @Field("ratings")
-    private List<Integer> ratings = new ArrayList<>();
+    // Item rating aggregates, maintained with atomic updates by ItemRatingAggregateService
+    @Field("rating_count")
+    private int ratingCount = 0;
+
+    @Field("rating_sum")
+    private long ratingSum = 0;
+
+    @Field("rating_histogram")
+    private List<Integer> ratingHistogram = new ArrayList<>(Arrays.asList(0, 0, 0, 0, 0)); // [1-star, ..., 5-star]
+
+    @Field("average_rating")
+    private double averageRating = 0.0;
 
     @DBRef(lazy = true)
     @Field("owner")
@@ -52,6 +72,10 @@ public class Item {
     @Field("category")
     private Category category;
 
+    // Denormalized copy of the owner's location, kept in sync when the owner moves
+    @Field("location")
+    private GeoJsonPoint location;
+
     @Field("is_active")
     private boolean isActive = true;
 
@@ -95,8 +119,17 @@ public class Item {
     public List<String> getImages() { return images; }
     public void setImages(List<String> images) { this.images = images; }
 
-    public List<Integer> getRatings() { return ratings; }
-    public void setRatings(List<Integer> ratings) { this.ratings = ratings; }
+    public int getRatingCount() { return ratingCount; }
+    public void setRatingCount(int ratingCount) { this.ratingCount = ratingCount; }
+
+    public long getRatingSum() { return ratingSum; }
+    public void setRatingSum(long ratingSum) { this.ratingSum = ratingSum; }
+
+    public List<Integer> getRatingHistogram() { return ratingHistogram; }
+    public void setRatingHistogram(List<Integer> ratingHistogram) { this.ratingHistogram = ratingHistogram; }
+
+    public double getAverageRating() { return averageRating; }
+    public void setAverageRating(double averageRating) { this.averageRating = averageRating; }
 
     public User getOwner() { return owner; }
     public void setOwner(User owner) { this.owner = owner; }
@@ -104,6 +137,9 @@ public class Item {
     public Category getCategory() { return category; }
     public void setCategory(Category category) { this.category = category; }
 
+    public GeoJsonPoint getLocation() { return location; }
+    public void setLocation(GeoJsonPoint location) { this.location = location; }
+
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
 
@@ -126,16 +162,6 @@ public class Item {
         }
     }
 
-    public void updateRating(int rating) {
-        if (rating < 1 || rating > 5) throw new IllegalArgumentException("Rating must be 1-5");
-        this.ratings.add(rating);
-    }
-
-    public double getAverageRating() {
-        if (ratings == null || ratings.isEmpty()) return 0.0;
-        return ratings.stream().mapToInt(Integer::intValue).average().orElse(0.0);
-    }
-
     @Override
     public String toString() {
         return "Item{" +
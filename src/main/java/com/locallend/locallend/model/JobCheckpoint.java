@@ -0,0 +1,85 @@
+package com.locallend.locallend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a long-running batch job that walks a collection in _id order,
+ * so that a run interrupted by a restart or a lost lease resumes where it
+ * stopped. One document per job, keyed by the job name.
+ */
+@Document(collection = "job_checkpoints")
+public class JobCheckpoint {
+
+    @Id
+    private String name;
+
+    // Last _id fully processed by the current run
+    @Field("last_id")
+    private String lastId;
+
+    @Field("run_started_at")
+    private LocalDateTime runStartedAt;
+
+    @Field("processed")
+    private long processed;
+
+    @Field("updated")
+    private long updated;
+
+    // Null while the run is in progress
+    @Field("completed_at")
+    private LocalDateTime completedAt;
+
+    @Field("updated_date")
+    private LocalDateTime updatedDate;
+
+    // Constructors
+    public JobCheckpoint() {}
+
+    // Business Logic Methods
+
+    /**
+     * @return true if a run was started and has not completed
+     */
+    public boolean isInProgress() {
+        return runStartedAt != null && completedAt == null;
+    }
+
+    // Getters and Setters
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getLastId() { return lastId; }
+    public void setLastId(String lastId) { this.lastId = lastId; }
+
+    public LocalDateTime getRunStartedAt() { return runStartedAt; }
+    public void setRunStartedAt(LocalDateTime runStartedAt) { this.runStartedAt = runStartedAt; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public long getUpdated() { return updated; }
+    public void setUpdated(long updated) { this.updated = updated; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public LocalDateTime getUpdatedDate() { return updatedDate; }
+    public void setUpdatedDate(LocalDateTime updatedDate) { this.updatedDate = updatedDate; }
+
+    @Override
+    public String toString() {
+        return "JobCheckpoint{" +
+                "name='" + name + '\'' +
+                ", lastId='" + lastId + '\'' +
+                ", runStartedAt=" + runStartedAt +
+                ", processed=" + processed +
+                ", completedAt=" + completedAt +
+                '}';
+    }
+}
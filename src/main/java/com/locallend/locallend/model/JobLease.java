@@ -0,0 +1,60 @@
+package com.locallend.locallend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-limited lease on a background job, so that a job scheduled on every
+ * application node only runs on one of them at a time. One document per job,
+ * keyed by the job name. Item booking locks use the same documents, named
+ * "booking-calendar:<itemId>", which also carry the item's calendar version.
+ * A TTL index removes leases a day after they expire.
+ */
+@Document(collection = "job_leases")
+public class JobLease {
+
+    @Id
+    private String name;
+
+    // Instance currently holding the lease
+    @Field("owner")
+    private String owner;
+
+    @Indexed(name = "expires_ttl_idx", expireAfter = "1d")
+    @Field("expires_at")
+    private LocalDateTime expiresAt;
+
+    // Changed whenever a booking starts blocking the item; booking-calendar leases only
+    @Field("calendar_version")
+    private String calendarVersion;
+
+    // Constructors
+    public JobLease() {}
+
+    // Getters and Setters
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public String getCalendarVersion() { return calendarVersion; }
+    public void setCalendarVersion(String calendarVersion) { this.calendarVersion = calendarVersion; }
+
+    @Override
+    public String toString() {
+        return "JobLease{" +
+                "name='" + name + '\'' +
+                ", owner='" + owner + '\'' +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -16,9 +16,10 @@ import java.time.LocalDateTime;
  */
 @Document(collection = "ratings")
 @CompoundIndexes({
-    @CompoundIndex(name = "rater_ratee_idx", def = "{'raterId': 1, 'rateeId': 1, 'ratingType': 1}"),
-    @CompoundIndex(name = "booking_idx", def = "{'bookingId': 1}"),
-    @CompoundIndex(name = "item_rating_idx", def = "{'itemId': 1, 'ratingValue': -1}")
+    @CompoundIndex(name = "rater_created_idx", def = "{'rater_id': 1, 'created_date': -1}"),
+    @CompoundIndex(name = "ratee_created_idx", def = "{'ratee_id': 1, 'created_date': -1}"),
+    @CompoundIndex(name = "item_created_idx", def = "{'item_id': 1, 'created_date': -1}"),
+    @CompoundIndex(name = "booking_idx", def = "{'booking_id': 1}")
 })
 public class Rating {
     
@@ -0,0 +1,136 @@
+package com.locallend.locallend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sufficient statistics of the trust-relevant ratings a user has received.
+ * Each rating create, update or delete adjusts these counters in O(1), and the
+ * trust score is derived from them instead of rescanning every rating.
+ * One document per user, keyed by the user ID.
+ */
+@Document(collection = "trust_score_stats")
+public class TrustScoreStats {
+
+    /** Reference instant for the forward-decayed recency sums. */
+    public static final LocalDateTime RECENCY_EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Id
+    private String userId;
+
+    @Field("rating_count")
+    private long ratingCount = 0;
+
+    @Field("rating_sum")
+    private long ratingSum = 0;
+
+    @Field("rating_sum_squares")
+    private long ratingSumSquares = 0;
+
+    @Field("verified_count")
+    private long verifiedCount = 0;
+
+    @Field("verified_sum")
+    private long verifiedSum = 0;
+
+    // Sum of value * exp(daysSinceEpoch / decay) and of exp(daysSinceEpoch / decay)
+    @Field("recency_weighted_sum")
+    private double recencyWeightedSum = 0.0;
+
+    @Field("recency_weight_sum")
+    private double recencyWeightSum = 0.0;
+
+    // Index 0 = 1-star count, index 4 = 5-star count
+    @Field("histogram")
+    private List<Long> histogram = new ArrayList<>(Collections.nCopies(5, 0L));
+
+    @Field("oldest_rating_date")
+    private LocalDateTime oldestRatingDate;
+
+    @Field("updated_date")
+    private LocalDateTime updatedDate;
+
+    // Incremented by every $inc; a rebuild replaces the document only if it is unchanged
+    @Field("version")
+    private long version = 0;
+
+    // Constructors
+    public TrustScoreStats() {
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    public TrustScoreStats(String userId) {
+        this();
+        this.userId = userId;
+    }
+
+    // Business Logic Methods
+
+    /**
+     * Number of ratings with the given star value.
+     * @param ratingValue Star value (1-5)
+     * @return Count, 0 for values outside the scale
+     */
+    public long countFor(int ratingValue) {
+        if (ratingValue < 1 || ratingValue > 5 || histogram == null || histogram.size() < ratingValue) {
+            return 0;
+        }
+        Long count = histogram.get(ratingValue - 1);
+        return count != null ? count : 0;
+    }
+
+    // Getters and Setters
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public long getRatingCount() { return ratingCount; }
+    public void setRatingCount(long ratingCount) { this.ratingCount = ratingCount; }
+
+    public long getRatingSum() { return ratingSum; }
+    public void setRatingSum(long ratingSum) { this.ratingSum = ratingSum; }
+
+    public long getRatingSumSquares() { return ratingSumSquares; }
+    public void setRatingSumSquares(long ratingSumSquares) { this.ratingSumSquares = ratingSumSquares; }
+
+    public long getVerifiedCount() { return verifiedCount; }
+    public void setVerifiedCount(long verifiedCount) { this.verifiedCount = verifiedCount; }
+
+    public long getVerifiedSum() { return verifiedSum; }
+    public void setVerifiedSum(long verifiedSum) { this.verifiedSum = verifiedSum; }
+
+    public double getRecencyWeightedSum() { return recencyWeightedSum; }
+    public void setRecencyWeightedSum(double recencyWeightedSum) { this.recencyWeightedSum = recencyWeightedSum; }
+
+    public double getRecencyWeightSum() { return recencyWeightSum; }
+    public void setRecencyWeightSum(double recencyWeightSum) { this.recencyWeightSum = recencyWeightSum; }
+
+    public List<Long> getHistogram() { return histogram; }
+    public void setHistogram(List<Long> histogram) { this.histogram = histogram; }
+
+    public LocalDateTime getOldestRatingDate() { return oldestRatingDate; }
+    public void setOldestRatingDate(LocalDateTime oldestRatingDate) { this.oldestRatingDate = oldestRatingDate; }
+
+    public LocalDateTime getUpdatedDate() { return updatedDate; }
+    public void setUpdatedDate(LocalDateTime updatedDate) { this.updatedDate = updatedDate; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    @Override
+    public String toString() {
+        return "TrustScoreStats{" +
+                "userId='" + userId + '\'' +
+                ", ratingCount=" + ratingCount +
+                ", ratingSum=" + ratingSum +
+                ", verifiedCount=" + verifiedCount +
+                ", oldestRatingDate=" + oldestRatingDate +
+                '}';
+    }
+}
@@ -1,4 +1,5 @@
 package com.locallend.locallend.model;
+import com.locallend.locallend.util.SearchTerms;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
@@ -7,10 +8,11 @@ import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
-import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /** 
  * Represents a user in the LocalLend platform.
@@ -19,7 +21,9 @@ import java.time.LocalDateTime;
 @Document(collection = "users")
 @CompoundIndexes({
 	@CompoundIndex(name = "username_unique_idx", def = "{'username': 1}", unique = true),
-	@CompoundIndex(name = "email_unique_idx", def = "{'email': 1}", unique = true)
+	@CompoundIndex(name = "email_unique_idx", def = "{'email': 1}", unique = true),
+	@CompoundIndex(name = "search_terms_active_idx", def = "{'search_terms': 1, 'is_active': 1}"),
+	@CompoundIndex(name = "active_trust_score_idx", def = "{'is_active': 1, 'trust_score': -1}")
 })
 public class User{
 	@Id
@@ -69,9 +73,9 @@ public class User{
 	@Field("item_count")
 	private Long itemCount = 0L;
 	
-	// Geospatial location for proximity-based features
+	// Geospatial location for proximity-based features (copied onto the user's items)
 	@GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
-	private Point location;
+	private GeoJsonPoint location;
 	
 	// Rating-related fields (Issue #25)
 	@Field("total_ratings_received")
@@ -91,6 +95,10 @@ public class User{
 
 	@Field("average_rating_as_lender")
 	private Double averageRatingAsLender = 5.0;
+
+	// Normalized username and name words for prefix search (kept in sync by the setters)
+	@Field("search_terms")
+	private List<String> searchTerms;
 	
 	public User(){
 		this.createdDate = LocalDateTime.now();
@@ -103,6 +111,7 @@ public class User{
 		this.name = name;
 		this.email = email;
 		this.password = password;
+		refreshSearchTerms();
 	}
 
 	// Legacy constructor
@@ -110,6 +119,7 @@ public class User{
 		this();
 		this.name = name;
 		this.email = email;
+		refreshSearchTerms();
 	}
     
 	public User(String name, String email, Double trustScore, Long itemCount) {
@@ -118,6 +128,7 @@ public class User{
 		this.email = email;
 		this.trustScore = trustScore;
 		this.itemCount = itemCount;
+		refreshSearchTerms();
 	}
 
 	//Getters and Setters
@@ -126,10 +137,10 @@ public class User{
 	public void setId(String id){this.id=id;}
 	
 	public String getUsername(){return username;}
-	public void setUsername(String username){this.username=username;}
+	public void setUsername(String username){this.username=username; refreshSearchTerms();}
 	
 	public String getName(){return name;}
-	public void setName(String name){this.name=name;}
+	public void setName(String name){this.name=name; refreshSearchTerms();}
 	
 	public String getEmail(){return email;}
 	public void setEmail(String email){this.email=email;}
@@ -158,8 +169,8 @@ public class User{
 	public Long getItemCount() { return itemCount; }
 	public void setItemCount(Long itemCount) { this.itemCount = itemCount; }
 	
-	public Point getLocation() { return location; }
-	public void setLocation(Point location) { this.location = location; }
+	public GeoJsonPoint getLocation() { return location; }
+	public void setLocation(GeoJsonPoint location) { this.location = location; }
 	
 	// Rating-related getters and setters (Issue #25)
 	public Integer getTotalRatingsReceived() { return totalRatingsReceived; }
@@ -180,6 +191,13 @@ public class User{
 	public Double getAverageRatingAsLender() { return averageRatingAsLender; }
 	public void setAverageRatingAsLender(Double averageRatingAsLender) { this.averageRatingAsLender = averageRatingAsLender; }
 
+	public List<String> getSearchTerms() { return searchTerms; }
+
+	/** Recompute the normalized search terms from the username and name. */
+	public void refreshSearchTerms() {
+		this.searchTerms = SearchTerms.forUser(username, name);
+	}
+
 	// Rating-related helper methods (Issue #25)
 	public void incrementRatingsReceived() {
 		this.totalRatingsReceived++;
@@ -1,5 +1,11 @@
 package com.locallend.locallend.model.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Enumeration representing the lifecycle status of a booking in LocalLend platform.
  * Tracks the progression from initial request to completion or cancellation.
@@ -13,6 +19,20 @@ public enum BookingStatus {
     REJECTED("Rejected - Declined by owner"),
     OVERDUE("Overdue - Return date passed");
 
+    private static final Map<BookingStatus, Set<BookingStatus>> SOURCES = new EnumMap<>(BookingStatus.class);
+
+    static {
+        for (BookingStatus target : values()) {
+            Set<BookingStatus> sources = EnumSet.noneOf(BookingStatus.class);
+            for (BookingStatus source : values()) {
+                if (source.canTransitionTo(target)) {
+                    sources.add(source);
+                }
+            }
+            SOURCES.put(target, Collections.unmodifiableSet(sources));
+        }
+    }
+
     private final String description;
 
     BookingStatus(String description) {
@@ -57,10 +77,19 @@ public enum BookingStatus {
             case PENDING -> newStatus == CONFIRMED || newStatus == CANCELLED || newStatus == REJECTED;
             case CONFIRMED -> newStatus == ACTIVE || newStatus == CANCELLED;
             case ACTIVE -> newStatus == COMPLETED || newStatus == OVERDUE;
-            case COMPLETED, CANCELLED, REJECTED, OVERDUE -> false;
+            case OVERDUE -> newStatus == COMPLETED;
+            case COMPLETED, CANCELLED, REJECTED -> false;
         };
     }
 
+    /**
+     * Statuses from which the given status can be reached, i.e. the
+     * precondition of a transition to it.
+     */
+    public static Set<BookingStatus> sourcesOf(BookingStatus target) {
+        return SOURCES.get(target);
+    }
+
     public static BookingStatus fromString(String value) {
         if (value == null || value.trim().isEmpty()) {
             throw new IllegalArgumentException("Booking status cannot be null or empty");
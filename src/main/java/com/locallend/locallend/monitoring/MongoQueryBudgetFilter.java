@@ -0,0 +1,141 @@
+package com.locallend.locallend.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the Mongo commands each HTTP request issues and flags requests over
+ * budget.
+ *
+ * The totals are logged with every request (at debug level, or as a warning
+ * when the command count or Mongo time exceeds the budget) and, if enabled,
+ * returned as X-Mongo-* response headers. Headers must be set before the
+ * body is written, so they count the commands issued up to that point; the
+ * log line always has the final totals. Requests over budget are also counted
+ * per endpoint in the "mongo.query.budget.exceeded" meter.
+ */
+public class MongoQueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoQueryBudgetFilter.class);
+
+    public static final String COMMANDS_HEADER = "X-Mongo-Commands";
+    public static final String DOCUMENTS_HEADER = "X-Mongo-Docs";
+    public static final String TIME_HEADER = "X-Mongo-Time-Ms";
+
+    private final MeterRegistry meterRegistry;
+    private final long maxCommands;
+    private final long maxTimeMillis;
+    private final boolean headersEnabled;
+
+    public MongoQueryBudgetFilter(MeterRegistry meterRegistry, long maxCommands, long maxTimeMillis,
+                                  boolean headersEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.maxCommands = maxCommands;
+        this.maxTimeMillis = maxTimeMillis;
+        this.headersEnabled = headersEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        try (MongoQueryTracker.Scope scope = MongoQueryTracker.open()) {
+            MongoQueryStats stats = scope.getStats();
+            if (headersEnabled) {
+                StatsHeaderResponse response = new StatsHeaderResponse(res, stats);
+                chain.doFilter(req, response);
+                response.writeHeaders(); // Responses without a body (e.g. 304)
+            } else {
+                chain.doFilter(req, res);
+            }
+            report(req, res, stats);
+        }
+    }
+
+    private void report(HttpServletRequest req, HttpServletResponse res, MongoQueryStats stats) {
+        String endpoint = endpoint(req);
+        if (stats.getCommands() > maxCommands || stats.getElapsedMillis() > maxTimeMillis) {
+            logger.warn("Mongo query budget exceeded: {} status={} {} (budget: {} commands, {} ms)",
+                    endpoint, res.getStatus(), stats, maxCommands, maxTimeMillis);
+            meterRegistry.counter("mongo.query.budget.exceeded", "endpoint", endpoint).increment();
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{} status={} {}", endpoint, res.getStatus(), stats);
+        }
+    }
+
+    private static String endpoint(HttpServletRequest req) {
+        // The mapped pattern keeps one meter per endpoint rather than per URL
+        Object pattern = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return req.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+    }
+
+    /**
+     * Adds the statistics headers when the response is about to be committed.
+     */
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+        private final MongoQueryStats stats;
+        private boolean written;
+
+        private StatsHeaderResponse(HttpServletResponse response, MongoQueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(COMMANDS_HEADER, Long.toString(stats.getCommands()));
+            setHeader(DOCUMENTS_HEADER, Long.toString(stats.getDocuments()));
+            setHeader(TIME_HEADER, Long.toString(stats.getElapsedMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.locallend.locallend.monitoring;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo commands issued within one tracking scope (typically one HTTP
+ * request): how many, how many documents they returned and how long the
+ * server round trips took.
+ */
+public final class MongoQueryStats {
+
+    private long commands;
+    private long documents;
+    private long elapsedNanos;
+
+    synchronized void record(long returnedDocuments, long nanos) {
+        commands++;
+        documents += returnedDocuments;
+        elapsedNanos += nanos;
+    }
+
+    public synchronized long getCommands() { return commands; }
+    public synchronized long getDocuments() { return documents; }
+    public synchronized long getElapsedMillis() { return TimeUnit.NANOSECONDS.toMillis(elapsedNanos); }
+
+    @Override
+    public synchronized String toString() {
+        return "mongo_commands=" + commands + " mongo_docs=" + documents
+                + " mongo_time_ms=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+}
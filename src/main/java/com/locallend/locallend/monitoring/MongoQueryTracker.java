@@ -0,0 +1,163 @@
+package com.locallend.locallend.monitoring;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Driver command listener that attributes Mongo commands to the tracking
+ * scopes open on the issuing thread.
+ *
+ * The synchronous driver reports a command on the thread that ran it, so a
+ * scope opened around a piece of work (an HTTP request, or a block in a test)
+ * sees exactly the commands that work issued. Scopes nest: a command counts
+ * towards every scope open on the thread. Commands issued on threads without
+ * a scope (schedulers, background initializers) are ignored, as are the
+ * driver's own handshake and monitoring commands.
+ *
+ * A recording additionally keeps the commands themselves, so that tooling
+ * such as the QueryPlanAuditor can explain exactly what a call sent.
+ */
+public class MongoQueryTracker implements CommandListener {
+
+    private static final ThreadLocal<Deque<MongoQueryStats>> SCOPES = new ThreadLocal<>();
+    private static final ThreadLocal<List<BsonDocument>> RECORDING = new ThreadLocal<>();
+
+    private static final Set<String> DRIVER_COMMANDS = Set.of(
+            "hello", "ismaster", "ping", "buildinfo", "saslstart", "saslcontinue", "getnonce",
+            "authenticate", "endsessions");
+
+    /**
+     * Start counting the commands issued by the current thread.
+     * @return Scope to close when the tracked work is done
+     */
+    public static Scope open() {
+        Deque<MongoQueryStats> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        MongoQueryStats stats = new MongoQueryStats();
+        scopes.push(stats);
+        return new Scope(stats);
+    }
+
+    /**
+     * Start keeping the commands issued by the current thread. Recordings do
+     * not nest: opening one replaces any recording already open.
+     * @return Recording to close when the recorded work is done
+     */
+    public static Recording record() {
+        List<BsonDocument> commands = new ArrayList<>();
+        RECORDING.set(commands);
+        return new Recording(commands);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        List<BsonDocument> commands = RECORDING.get();
+        if (commands != null && !DRIVER_COMMANDS.contains(event.getCommandName().toLowerCase())) {
+            // The event's document is only valid during the callback
+            commands.add(event.getCommand().clone());
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event.getCommandName(), returnedDocuments(event.getResponse()),
+                event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getCommandName(), 0, event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private static void record(String commandName, long documents, long nanos) {
+        Deque<MongoQueryStats> scopes = SCOPES.get();
+        if (scopes == null || scopes.isEmpty() || DRIVER_COMMANDS.contains(commandName.toLowerCase())) {
+            return;
+        }
+        for (MongoQueryStats stats : scopes) {
+            stats.record(documents, nanos);
+        }
+    }
+
+    /**
+     * Documents a command sent back: the cursor batch of find, aggregate and
+     * getMore, or the document returned by findAndModify.
+     */
+    private static long returnedDocuments(BsonDocument response) {
+        if (response == null) {
+            return 0;
+        }
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonDocument batchHolder = cursor.asDocument();
+            BsonValue batch = batchHolder.containsKey("firstBatch")
+                    ? batchHolder.get("firstBatch") : batchHolder.get("nextBatch");
+            return batch != null && batch.isArray() ? ((BsonArray) batch).size() : 0;
+        }
+        BsonValue value = response.get("value");
+        return value != null && value.isDocument() ? 1 : 0;
+    }
+
+    /**
+     * An open tracking scope on the current thread.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final MongoQueryStats stats;
+
+        private Scope(MongoQueryStats stats) {
+            this.stats = stats;
+        }
+
+        /** Commands counted so far; final once the scope is closed. */
+        public MongoQueryStats getStats() { return stats; }
+
+        @Override
+        public void close() {
+            Deque<MongoQueryStats> scopes = SCOPES.get();
+            if (scopes == null) {
+                return;
+            }
+            scopes.remove(stats);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+
+    /**
+     * An open command recording on the current thread.
+     */
+    public static final class Recording implements AutoCloseable {
+        private final List<BsonDocument> commands;
+
+        private Recording(List<BsonDocument> commands) {
+            this.commands = commands;
+        }
+
+        /** Commands recorded so far, in the order they were sent. */
+        public List<BsonDocument> getCommands() { return Collections.unmodifiableList(commands); }
+
+        @Override
+        public void close() {
+            if (RECORDING.get() == commands) {
+                RECORDING.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.locallend.locallend.monitoring;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that every repository query method runs on an index.
+ *
+ * Each query method declared on a Spring Data repository is called once with
+ * sample arguments while the commands it sends are recorded (see
+ * MongoQueryTracker#record), and each recorded find, aggregate, count or
+ * distinct is explained. A winning plan containing a COLLSCAN or a blocking
+ * SORT stage is a violation, as is a method that fails or cannot be called.
+ * Methods or repositories annotated with {@link UnindexedQuery} are listed as
+ * exempt, and modifying queries are never called.
+ *
+ * Sort and Pageable parameters are passed unsorted, so only the sorts spelled
+ * out in the query itself (e.g. OrderBy in a derived name) are checked.
+ * Missing collections are created empty first: the plan of a query against a
+ * collection that does not exist is EOF whatever the indexes. On empty
+ * collections every candidate plan ties, though, so the result only shows
+ * which indexes the planner picks once the collections hold data;
+ * RepositoryQueryPlanTest seeds them before auditing. The audit itself only
+ * reads, and the sample ids match nothing, so it is safe on any database.
+ */
+public class QueryPlanAuditor {
+
+    private static final Set<String> EXPLAINABLE_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+
+    // Session and transport fields the driver adds, which explain does not accept
+    private static final Set<String> TRANSPORT_FIELDS = Set.of(
+            "$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "autocommit", "startTransaction",
+            "apiVersion", "apiStrict", "apiDeprecationErrors");
+
+    private final ListableBeanFactory beanFactory;
+    private final MongoTemplate mongoTemplate;
+
+    public QueryPlanAuditor(ListableBeanFactory beanFactory, MongoTemplate mongoTemplate) {
+        this.beanFactory = beanFactory;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Audit the query methods of every repository in the application context.
+     * @return Audit report; see {@link Report#hasViolations()}
+     */
+    public Report audit() {
+        Repositories repositories = new Repositories(beanFactory);
+        Report report = new Report();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRepositoryInformationFor(domainType).orElse(null);
+            Object repository = repositories.getRepositoryFor(domainType).orElse(null);
+            if (information == null || repository == null) {
+                continue;
+            }
+            if (!mongoTemplate.collectionExists(domainType)) {
+                mongoTemplate.createCollection(domainType);
+            }
+
+            Class<?> repositoryInterface = information.getRepositoryInterface();
+            information.getQueryMethods().stream()
+                    .sorted(Comparator.comparing(Method::getName).thenComparing(Method::getParameterCount))
+                    .forEach(method -> audit(repositoryInterface, repository, method, report));
+        }
+        return report;
+    }
+
+    private void audit(Class<?> repositoryInterface, Object repository, Method method, Report report) {
+        String name = describe(repositoryInterface, method);
+        UnindexedQuery exemption = method.isAnnotationPresent(UnindexedQuery.class)
+                ? method.getAnnotation(UnindexedQuery.class) : repositoryInterface.getAnnotation(UnindexedQuery.class);
+        if (exemption != null) {
+            report.exempt.add(name + ": " + exemption.value());
+            return;
+        }
+        if (isModifying(method)) {
+            report.notCalled.add(name + ": modifying query");
+            return;
+        }
+
+        Object[] args = new Object[method.getParameterCount()];
+        Type[] types = method.getGenericParameterTypes();
+        for (int i = 0; i < args.length; i++) {
+            args[i] = sampleValue(method.getParameterTypes()[i], types[i]);
+            if (args[i] == null) {
+                report.violations.add(name + ": no sample value for parameter type "
+                        + method.getParameterTypes()[i].getSimpleName() + "; add one or mark the method @UnindexedQuery");
+                return;
+            }
+        }
+
+        List<BsonDocument> commands;
+        try (MongoQueryTracker.Recording recording = MongoQueryTracker.record()) {
+            Object result = method.invoke(repository, args);
+            if (result instanceof AutoCloseable closeable) {
+                closeable.close(); // Streams hold a server cursor
+            }
+            commands = new ArrayList<>(recording.getCommands());
+        } catch (InvocationTargetException e) {
+            report.violations.add(name + ": query failed: " + e.getTargetException().getMessage());
+            return;
+        } catch (Exception e) {
+            report.violations.add(name + ": could not be called: " + e.getMessage());
+            return;
+        }
+
+        report.audited++;
+        for (BsonDocument command : commands) {
+            String commandName = command.getFirstKey();
+            if (!EXPLAINABLE_COMMANDS.contains(commandName)) {
+                continue;
+            }
+            List<String> problems;
+            try {
+                problems = problems(explain(command));
+            } catch (Exception e) {
+                problems = List.of("explain failed: " + e.getMessage());
+            }
+            if (!problems.isEmpty()) {
+                report.violations.add(name + ": " + String.join(", ", problems) + " in " + shape(command));
+            }
+        }
+    }
+
+    private Document explain(BsonDocument command) {
+        BsonDocument explained = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!TRANSPORT_FIELDS.contains(key)) {
+                explained.append(key, value);
+            }
+        });
+        return mongoTemplate.getDb().runCommand(
+                new Document("explain", explained).append("verbosity", "queryPlanner"));
+    }
+
+    /**
+     * Problems in the winning plan(s) of an explain result: collection scans
+     * and blocking sorts. Plans are looked for anywhere in the result, which
+     * covers find and count, aggregation cursors, the slot based engine's
+     * queryPlan and per-shard plans; rejected plans are ignored.
+     */
+    static List<String> problems(Document explain) {
+        Set<String> stages = new LinkedHashSet<>();
+        collectStages(explain, false, stages);
+        List<String> problems = new ArrayList<>();
+        if (stages.contains("COLLSCAN")) {
+            problems.add("collection scan");
+        }
+        if (stages.contains("SORT")) {
+            problems.add("in-memory sort");
+        }
+        return problems;
+    }
+
+    private static void collectStages(Object node, boolean inWinningPlan, Set<String> stages) {
+        if (node instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                if ("rejectedPlans".equals(key)) {
+                    continue;
+                }
+                if (inWinningPlan && "stage".equals(key) && entry.getValue() instanceof String stage) {
+                    stages.add(stage);
+                }
+                collectStages(entry.getValue(), inWinningPlan || "winningPlan".equals(key), stages);
+            }
+        } else if (node instanceof Collection<?> values) {
+            for (Object value : values) {
+                collectStages(value, inWinningPlan, stages);
+            }
+        }
+    }
+
+    /**
+     * A value to call a query method with, or null if the type is not supported.
+     * Ids are fresh ObjectIds, so equality filters match nothing.
+     */
+    static Object sampleValue(Class<?> type, Type genericType) {
+        if (type == String.class || type == ObjectId.class || type == Object.class) {
+            return type == String.class ? new ObjectId().toHexString() : new ObjectId();
+        }
+        if (type == int.class || type == Integer.class) {
+            return 1;
+        }
+        if (type == long.class || type == Long.class) {
+            return 1L;
+        }
+        if (type == double.class || type == Double.class) {
+            return 1.0;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return true;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (type == Instant.class) {
+            return Instant.now();
+        }
+        if (type == Date.class) {
+            return new Date();
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        if (type == Sort.class) {
+            return Sort.unsorted();
+        }
+        if (Collection.class.isAssignableFrom(type) && genericType instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+            Object element = sampleValue(elementType, elementType);
+            if (element == null) {
+                return null;
+            }
+            return Set.class.isAssignableFrom(type) ? Set.of(element) : List.of(element);
+        }
+        return null;
+    }
+
+    private static boolean isModifying(Method method) {
+        Query query = method.getAnnotation(Query.class);
+        return method.isAnnotationPresent(Update.class)
+                || (query != null && query.delete())
+                || method.getName().startsWith("delete")
+                || method.getName().startsWith("remove");
+    }
+
+    private static String describe(Class<?> repositoryInterface, Method method) {
+        return repositoryInterface.getSimpleName() + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName)
+                        .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static String shape(BsonDocument command) {
+        String collection = command.get(command.getFirstKey()).isString()
+                ? command.getString(command.getFirstKey()).getValue() : "";
+        StringBuilder shape = new StringBuilder(command.getFirstKey()).append(' ').append(collection);
+        for (String field : List.of("filter", "query", "sort", "pipeline")) {
+            if (command.containsKey(field)) {
+                shape.append(' ').append(field).append('=').append(command.get(field).toString());
+            }
+        }
+        return shape.toString();
+    }
+
+    /**
+     * Outcome of an audit.
+     */
+    public static final class Report {
+        private final List<String> violations = new ArrayList<>();
+        private final List<String> exempt = new ArrayList<>();
+        private final List<String> notCalled = new ArrayList<>();
+        private int audited;
+
+        /** True if a query method ran without an index, failed, or could not be called. */
+        public boolean hasViolations() { return !violations.isEmpty(); }
+
+        public List<String> getViolations() { return violations; }
+        public List<String> getExempt() { return exempt; }
+        public List<String> getNotCalled() { return notCalled; }
+        public int getAudited() { return audited; }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(String.format(
+                    "Query plan audit: %d methods audited, %d violations, %d exempt, %d not called",
+                    audited, violations.size(), exempt.size(), notCalled.size()));
+            violations.forEach(line -> out.append("\n  VIOLATION ").append(line));
+            exempt.forEach(line -> out.append("\n  EXEMPT    ").append(line));
+            notCalled.forEach(line -> out.append("\n  SKIPPED   ").append(line));
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.locallend.locallend.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a repository method, or every method of a repository, as knowingly
+ * running without a supporting index, so the QueryPlanAuditor lists it as
+ * exempt instead of reporting it.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface UnindexedQuery {
+
+    /**
+     * Why scanning is acceptable here, e.g. "small reference collection".
+     */
+    String value();
+}
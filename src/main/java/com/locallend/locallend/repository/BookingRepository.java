@@ -8,6 +8,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,6 +24,7 @@ public interface BookingRepository extends MongoRepository<Booking, String> {
 
     List<Booking> findByItemId(String itemId);
     List<Booking> findByItemIdAndStatus(String itemId, BookingStatus status);
+    List<Booking> findByItemIdAndStatusInOrderByStartDateAsc(String itemId, Collection<BookingStatus> statuses);
 
     List<Booking> findByStatus(BookingStatus status);
     Page<Booking> findByStatus(BookingStatus status, Pageable pageable);
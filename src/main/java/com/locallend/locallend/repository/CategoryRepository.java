@@ -1,6 +1,7 @@
 package com.locallend.locallend.repository;
 
 import com.locallend.locallend.model.Category;
+import com.locallend.locallend.monitoring.UnindexedQuery;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.domain.Sort;
@@ -12,36 +13,53 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepository extends MongoRepository<Category, String> {
 
+    // Categories are a small reference collection read through CategoryTreeCache, so the
+    // listings below scan it; a new query method is audited unless it is exempted itself
+    String SMALL_COLLECTION = "Small reference collection, read through CategoryTreeCache";
+    String NAME_REGEX = "Case-insensitive regex cannot use the name index; small reference collection";
+
+    @UnindexedQuery(NAME_REGEX)
     @Query("{ 'name': { $regex: ?0, $options: 'i' } }")
     Optional<Category> findByNameIgnoreCase(String name);
 
+    @UnindexedQuery(SMALL_COLLECTION)
     @Query("{ 'is_active': true }")
     List<Category> findAllActiveCategories(Sort sort);
 
+    @UnindexedQuery(SMALL_COLLECTION)
     @Query("{ 'parent_category_id': ?0, 'is_active': true }")
     List<Category> findByParentCategoryId(String parentCategoryId, Sort sort);
 
+    @UnindexedQuery(SMALL_COLLECTION)
     @Query("{ 'parent_category_id': { $exists: false }, 'is_active': true }")
     List<Category> findRootCategories(Sort sort);
 
+    @UnindexedQuery("Runs on the categories text index, which MongoTextIndexInitializer creates in the prod profile only")
     @Query("{ $text: { $search: ?0 }, 'is_active': true }")
     List<Category> searchCategoriesByText(String searchTerm, Sort sort);
 
+    @UnindexedQuery(SMALL_COLLECTION)
     @Query("{ 'item_count': { $gt: ?0 }, 'is_active': true }")
     List<Category> findCategoriesWithMinimumItems(long minItemCount, Sort sort);
 
+    @UnindexedQuery(NAME_REGEX)
     @Query(value = "{ 'name': { $regex: ?0, $options: 'i' }, 'is_active': true }", exists = true)
     boolean existsByNameIgnoreCase(String name);
 
+    @UnindexedQuery(SMALL_COLLECTION)
     @Query(value = "{ 'is_active': true }", count = true)
     long countActiveCategories();
 
+    @UnindexedQuery(SMALL_COLLECTION)
     @Query("{ 'is_active': true }")
     List<Category> findAllActiveCategoriesOrderByItemCountDesc();
 
+    @UnindexedQuery(SMALL_COLLECTION)
     List<Category> findByIsActiveTrueOrderByNameAsc();
 
+    @UnindexedQuery(SMALL_COLLECTION)
     List<Category> findByIsActiveTrueOrderByCreatedAtDesc();
 
+    @UnindexedQuery(SMALL_COLLECTION)
     List<Category> findByIsActiveTrueOrderByItemCountDesc();
 }
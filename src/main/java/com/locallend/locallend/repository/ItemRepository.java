@@ -1,8 +1,7 @@
 package com.locallend.locallend.repository;
 
-import com.locallend.locallend.model.Category;
 import com.locallend.locallend.model.Item;
-import com.locallend.locallend.model.User;
+import com.locallend.locallend.monitoring.UnindexedQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -15,18 +14,20 @@ import java.util.List;
 @Repository
 public interface ItemRepository extends MongoRepository<Item, String> {
 
-    // Owner-based queries
-    Page<Item> findByOwner(User owner, Pageable pageable);
-    Page<Item> findByOwnerAndIsActiveTrue(User owner, Pageable pageable);
-    List<Item> findByOwnerAndIsActiveTrueAndStatus(User owner, String status, Sort sort);
-
+    // Owner and category queries filter on the referenced id (owner.$id / category.$id), which
+    // the owner and category indexes cover; pass the id as stored, see DbRefUtils.refId
     @Query("{ 'owner.$id': ?0 }")
-    List<Item> findByOwnerId(String ownerId, Sort sort);
+    List<Item> findByOwnerId(Object ownerId, Sort sort);
+
+    @Query("{ 'owner.$id': ?0, 'is_active': true }")
+    Page<Item> findActiveByOwnerId(Object ownerId, Pageable pageable);
 
     // Availability queries
     Page<Item> findByIsActiveTrueAndStatus(String status, Pageable pageable);
+    Page<Item> findByIsActiveTrueAndStatusAndAverageRatingGreaterThanEqual(String status, double minRating, Pageable pageable);
 
-    Page<Item> findByIsActiveTrueAndCategory(Category category, Pageable pageable);
+    @Query("{ 'category.$id': ?0, 'is_active': true }")
+    Page<Item> findActiveByCategoryId(Object categoryId, Pageable pageable);
 
     // Search across title/description/tags with paging
     @Query("{ $and: [ {'is_active': true}, { $or: [ {'name': { $regex: ?0, $options: 'i' }}, {'description': { $regex: ?0, $options: 'i' }}, {'images': { $in: [{ $regex: ?0, $options: 'i' }] } } ] } ] }")
@@ -36,11 +37,14 @@ public interface ItemRepository extends MongoRepository<Item, String> {
     @Query("{ 'is_active': true, 'status': 'AVAILABLE' }")
     List<Item> findAllAvailable(Sort sort);
 
+    @UnindexedQuery("No callers; item search runs on ItemSearchIndex, and no items text index is created")
     @Query("{ $text: { $search: ?0 }, 'is_active': true }")
     List<Item> searchByText(String term, Sort sort);
 
+    @UnindexedQuery("No callers; no index leads with status, add one before using it")
     List<Item> findByStatusIn(List<String> statuses, Sort sort);
 
+    @UnindexedQuery("No callers; no index leads with condition, add one before using it")
     List<Item> findByCondition(String condition, Sort sort);
 
     @Query("{ 'deposit': { $gte: ?0, $lte: ?1 }, 'is_active': true }")
@@ -50,6 +54,7 @@ public interface ItemRepository extends MongoRepository<Item, String> {
     long countActiveItems();
 
     // Lightweight derived queries
+    @UnindexedQuery("No callers; unbounded, and the created_at indexes need a status or owner prefix")
     List<Item> findByIsActiveTrueOrderByCreatedAtDesc();
 
 }
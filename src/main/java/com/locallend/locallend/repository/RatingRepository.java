@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +36,8 @@ public interface RatingRepository extends MongoRepository<Rating, String> {
     @Query("{'rateeId': ?0, 'ratingType': {'$in': ['USER_TO_USER', 'OWNER_TO_BORROWER', 'BORROWER_TO_OWNER']}}")
     List<Rating> findUserRatingsForTrustScore(String userId);
     
+    Optional<Rating> findFirstByRateeIdAndRatingTypeInOrderByCreatedDateAsc(String rateeId, Collection<RatingType> ratingTypes);
+    
     @Query("{'rateeId': ?0, 'ratingType': {'$in': ['USER_TO_USER', 'OWNER_TO_BORROWER', 'BORROWER_TO_OWNER']}, " +
            "'createdDate': {'$gte': ?1}}")
     List<Rating> findRecentUserRatings(String userId, LocalDateTime since);
@@ -51,29 +54,39 @@ public interface RatingRepository extends MongoRepository<Rating, String> {
     long countByRateeIdAndRatingType(String rateeId, RatingType ratingType);
     long countByRaterId(String raterId);
     
-    // Average Rating Calculation using MongoDB Aggregation
+    // Rating statistics calculated by MongoDB Aggregation: one $group computes the average,
+    // count and star distribution of every requested subject in a single round trip
     @Aggregation(pipeline = {
-        "{ '$match': { 'rateeId': ?0, 'ratingType': { '$in': ['USER_TO_USER', 'OWNER_TO_BORROWER', 'BORROWER_TO_OWNER'] } } }",
-        "{ '$group': { '_id': '$rateeId', 'averageRating': { '$avg': '$ratingValue' }, 'totalRatings': { '$sum': 1 } } }"
+        "{ '$match': { 'ratee_id': { '$in': ?0 } } }",
+        "{ '$group': { '_id': '$ratee_id', 'averageRating': { '$avg': '$rating_value' }, 'totalRatings': { '$sum': 1 }, "
+            + "'oneStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 1 ] }, 1, 0 ] } }, "
+            + "'twoStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 2 ] }, 1, 0 ] } }, "
+            + "'threeStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 3 ] }, 1, 0 ] } }, "
+            + "'fourStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 4 ] }, 1, 0 ] } }, "
+            + "'fiveStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 5 ] }, 1, 0 ] } } } }"
     })
-    Optional<UserRatingAggregate> calculateUserAverageRating(String userId);
+    List<RatingStatsAggregate> calculateRateeRatingStats(Collection<String> rateeIds);
     
     @Aggregation(pipeline = {
-        "{ '$match': { 'itemId': ?0, 'ratingType': 'USER_TO_ITEM' } }",
-        "{ '$group': { '_id': '$itemId', 'averageRating': { '$avg': '$ratingValue' }, 'totalRatings': { '$sum': 1 } } }"
+        "{ '$match': { 'item_id': { '$in': ?0 }, 'rating_type': 'USER_TO_ITEM' } }",
+        "{ '$group': { '_id': '$item_id', 'averageRating': { '$avg': '$rating_value' }, 'totalRatings': { '$sum': 1 }, "
+            + "'oneStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 1 ] }, 1, 0 ] } }, "
+            + "'twoStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 2 ] }, 1, 0 ] } }, "
+            + "'threeStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 3 ] }, 1, 0 ] } }, "
+            + "'fourStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 4 ] }, 1, 0 ] } }, "
+            + "'fiveStarCount': { '$sum': { '$cond': [ { '$eq': [ '$rating_value', 5 ] }, 1, 0 ] } } } }"
     })
-    Optional<ItemRatingAggregate> calculateItemAverageRating(String itemId);
-    
-    // Aggregation Result Interfaces
-    interface UserRatingAggregate {
-        String getId();
-        Double getAverageRating();
-        Long getTotalRatings();
-    }
+    List<RatingStatsAggregate> calculateItemRatingStats(Collection<String> itemIds);
     
-    interface ItemRatingAggregate {
+    // Aggregation Result Interface
+    interface RatingStatsAggregate {
         String getId();
         Double getAverageRating();
         Long getTotalRatings();
+        Long getOneStarCount();
+        Long getTwoStarCount();
+        Long getThreeStarCount();
+        Long getFourStarCount();
+        Long getFiveStarCount();
     }
 }
@@ -0,0 +1,10 @@
+package com.locallend.locallend.repository;
+
+import com.locallend.locallend.model.TrustScoreStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Repository for per-user trust score statistics documents (keyed by user ID).
+ */
+public interface TrustScoreStatsRepository extends MongoRepository<TrustScoreStats, String> {
+}
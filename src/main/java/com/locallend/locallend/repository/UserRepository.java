@@ -1,5 +1,6 @@
 package com.locallend.locallend.repository;
 import com.locallend.locallend.model.User;
+import com.locallend.locallend.monitoring.UnindexedQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.geo.Distance;
@@ -14,7 +15,7 @@ import java.util.Optional;
 repository for the User entity . Provide CRUD operation ;
 **/
 
-public interface UserRepository extends MongoRepository<User, String>{
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     
     // Find user by username
     Optional<User> findByUsername(String username);
@@ -43,23 +44,10 @@ public interface UserRepository extends MongoRepository<User, String>{
     // Issue #29: Geospatial queries for proximity-based features
     
     // Find active users near a location within a given distance
+    @UnindexedQuery("No callers; $near needs the users location 2dsphere index, which is not created")
     List<User> findByLocationNearAndIsActiveTrue(Point location, Distance distance);
     
     // Find active users with minimum trust score
     @Query("{'isActive': true, 'trust_score': {'$gte': ?0}}")
     List<User> findActiveUsersWithMinTrustScore(Double minTrustScore);
-    
-    // Issue #25: Update user trust score
-    // This is a custom method that will be implemented in RatingService
-    // using direct MongoDB update operations or by loading and saving the user
-    default void updateTrustScore(String userId, Double trustScore) {
-        Optional<User> userOpt = findById(userId);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            user.setTrustScore(trustScore);
-            user.setLastTrustScoreUpdate(java.time.LocalDateTime.now());
-            save(user);
-        }
-    }
 }
-
@@ -0,0 +1,44 @@
+package com.locallend.locallend.repository;
+
+import com.locallend.locallend.model.User;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+/**
+ * Targeted updates on users that must not load and rewrite the whole document.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Set a user's trust score with a single $set on trust_score and
+     * last_trust_score_update.
+     * @param userId User ID
+     * @param trustScore New trust score
+     * @return true if the user exists
+     */
+    boolean updateTrustScore(String userId, Double trustScore);
+
+    /**
+     * Set a user's location with a single $set.
+     * @param userId User ID
+     * @param location New location
+     * @return true if the user exists
+     */
+    boolean updateLocation(String userId, GeoJsonPoint location);
+
+    /**
+     * Write a user's editable profile fields (name, search_terms, phone_number
+     * and profile_image_url) with a single $set. Counters and trust score
+     * fields are left as stored.
+     * @param user User carrying the new profile values
+     * @return true if the user exists
+     */
+    boolean updateProfile(User user);
+
+    /**
+     * Set a user's is_active flag with a single $set.
+     * @param userId User ID
+     * @param active New value
+     * @return true if the user exists
+     */
+    boolean updateActive(String userId, boolean active);
+}
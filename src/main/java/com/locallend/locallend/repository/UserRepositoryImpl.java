@@ -0,0 +1,56 @@
+package com.locallend.locallend.repository;
+
+import com.locallend.locallend.model.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+/**
+ * MongoTemplate implementation of {@link UserRepositoryCustom}.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean updateTrustScore(String userId, Double trustScore) {
+        Update update = new Update()
+                .set("trust_score", trustScore)
+                .set("last_trust_score_update", LocalDateTime.now());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)), update, User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean updateLocation(String userId, GeoJsonPoint location) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)),
+                        Update.update("location", location), User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean updateProfile(User user) {
+        Update update = new Update()
+                .set("name", user.getName())
+                .set("search_terms", user.getSearchTerms())
+                .set("phone_number", user.getPhoneNumber())
+                .set("profile_image_url", user.getProfileImageUrl());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(user.getId())), update, User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean updateActive(String userId, boolean active) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)),
+                        Update.update("is_active", active), User.class)
+                .getMatchedCount() > 0;
+    }
+}
@@ -25,11 +25,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider tokenProvider;
     private final MongoUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
-                                   MongoUserDetailsService userDetailsService) {
+                                   MongoUserDetailsService userDetailsService,
+                                   PrincipalCache principalCache) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -45,11 +48,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = bearer.substring(7);
             logger.debug("JWT Filter - Token found for request: {}", requestURI);
             
-            if (tokenProvider.validate(token)) {
-                String username = tokenProvider.getUsername(token);
+            var claims = tokenProvider.parse(token);
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
                 logger.debug("JWT Filter - Valid token for user: {}", username);
                 
-                var userDetails = userDetailsService.loadUserByUsername(username);
+                var userDetails = principalCache.get(username, userDetailsService::loadUserByUsername);
                 var auth = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
@@ -7,20 +7,44 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * JWT token provider for generating and validating tokens.
  * Uses JJWT library with HS256 algorithm.
+ *
+ * The signing key and parser are built once. Optionally, the claims of
+ * recently verified tokens are remembered by token digest for a short time,
+ * so a client repeating the same token skips signature verification.
  */
 @Component
 public class JwtTokenProvider {
 
-    @Value("${app.jwt.secret:change-me-this-is-a-very-long-secret-key-for-jwt-signing}")
-    private String jwtSecret;
+    private final long jwtExpirationMs;
+    private final SecretKey key;
+    private final JwtParser parser;
 
-    @Value("${app.jwt.expiration-ms:86400000}")
-    private long jwtExpirationMs;
+    private final long verifiedCacheTtlMs;
+    private final int verifiedCacheMaxSize;
+    private final ConcurrentMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    public JwtTokenProvider(
+            @Value("${app.jwt.secret:change-me-this-is-a-very-long-secret-key-for-jwt-signing}") String jwtSecret,
+            @Value("${app.jwt.expiration-ms:86400000}") long jwtExpirationMs,
+            @Value("${app.jwt.verified-cache.ttl-ms:30000}") long verifiedCacheTtlMs,
+            @Value("${app.jwt.verified-cache.max-size:10000}") int verifiedCacheMaxSize) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedCacheTtlMs = verifiedCacheTtlMs;
+        this.verifiedCacheMaxSize = verifiedCacheMaxSize;
+    }
 
     /**
      * Generate JWT token for a username.
@@ -30,9 +54,7 @@ public class JwtTokenProvider {
     public String generateToken(String username) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + jwtExpirationMs);
-        
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
+
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(now)
@@ -41,19 +63,60 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Verify a token and return its claims.
+     * @param token JWT token
+     * @return Claims if the signature is valid and the token has not expired, empty otherwise
+     */
+    public Optional<Claims> parse(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        long now = System.currentTimeMillis();
+        String digest = verifiedCacheTtlMs > 0 ? digest(token) : null;
+        if (digest != null) {
+            VerifiedToken cached = verifiedTokens.get(digest);
+            if (cached != null && cached.validUntil > now) {
+                return Optional.of(cached.claims);
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Not logging here to avoid token exposure
+            return Optional.empty();
+        }
+
+        if (digest != null) {
+            // Never trust a cached entry past the token's own expiry
+            long validUntil = now + verifiedCacheTtlMs;
+            if (claims.getExpiration() != null) {
+                validUntil = Math.min(validUntil, claims.getExpiration().getTime());
+            }
+            if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+                verifiedTokens.values().removeIf(v -> v.validUntil <= now);
+                if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+                    verifiedTokens.clear();
+                }
+            }
+            verifiedTokens.put(digest, new VerifiedToken(claims, validUntil));
+        }
+        return Optional.of(claims);
+    }
+
     /**
      * Extract username from JWT token.
      * @param token JWT token
      * @return Username from token subject
+     * @throws JwtException if the token is not valid
      */
     public String getUsername(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parse(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
     }
 
     /**
@@ -62,16 +125,26 @@ public class JwtTokenProvider {
      * @return true if valid, false otherwise
      */
     public boolean validate(String token) {
+        return parse(token).isPresent();
+    }
+
+    private static String digest(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException ex) {
-            // Log error in production (not logging here to avoid token exposure)
-            return false;
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class VerifiedToken {
+        private final Claims claims;
+        private final long validUntil;
+
+        private VerifiedToken(Claims claims, long validUntil) {
+            this.claims = claims;
+            this.validUntil = validUntil;
         }
     }
 }
@@ -27,9 +27,9 @@ public class MongoUserDetailsService implements UserDetailsService {
      */
     @Override
     public MongoUserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseGet(() -> userRepository.findByEmail(username)
-                        .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username)));
+        // Single round trip matching either field
+        User user = userRepository.findByUsernameOrEmail(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
         return new MongoUserPrincipal(user);
     }
 }
@@ -0,0 +1,146 @@
+package com.locallend.locallend.security;
+
+import com.locallend.locallend.model.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited cache of authenticated principals keyed by JWT subject
+ * (the username or email the token was issued for).
+ *
+ * Entries expire after the configured TTL and the least recently used entry is
+ * evicted once the cache is full. UserService invalidates a user's entries when
+ * their profile or active flag changes. Hits, misses and evictions are published
+ * as the {@code security.principal.cache.*} meters.
+ */
+@Component
+public class PrincipalCache {
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Bumped on every invalidation; a load that raced with one is not cached
+    private long invalidationGeneration = 0;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.ttl-ms:60000}") long ttlMillis,
+                          @Value("${app.security.principal-cache.max-size:10000}") int maxSize,
+                          MeterRegistry meterRegistry) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > PrincipalCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("security.principal.cache.hits", hits, AtomicLong::get)
+                .description("Principal lookups served from the cache").register(meterRegistry);
+        FunctionCounter.builder("security.principal.cache.misses", misses, AtomicLong::get)
+                .description("Principal lookups that went to the database").register(meterRegistry);
+        FunctionCounter.builder("security.principal.cache.evictions", evictions, AtomicLong::get)
+                .description("Principals evicted because the cache was full").register(meterRegistry);
+        Gauge.builder("security.principal.cache.size", this, PrincipalCache::size)
+                .description("Cached principals").register(meterRegistry);
+    }
+
+    /**
+     * Get the principal for a subject, loading and caching it on a miss.
+     * @param subject JWT subject (username or email)
+     * @param loader Loads the principal from the database
+     * @return Principal for the subject
+     */
+    public MongoUserPrincipal get(String subject, Function<String, MongoUserPrincipal> loader) {
+        long now = System.currentTimeMillis();
+        long generation;
+        synchronized (entries) {
+            generation = invalidationGeneration;
+            Entry entry = entries.get(subject);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return entry.principal;
+            }
+            if (entry != null) {
+                entries.remove(subject);
+            }
+        }
+
+        // Load outside the lock so a slow query doesn't block other requests
+        misses.incrementAndGet();
+        MongoUserPrincipal principal = loader.apply(subject);
+        synchronized (entries) {
+            if (generation == invalidationGeneration) {
+                entries.put(subject, new Entry(principal, now + ttlMillis));
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Drop every cached principal of a user. Tokens may be issued for either the
+     * username or the email, so both keys are removed.
+     * @param user User whose details changed
+     */
+    public void invalidate(User user) {
+        if (user == null) {
+            return;
+        }
+        synchronized (entries) {
+            invalidationGeneration++;
+            if (user.getUsername() != null) {
+                entries.remove(user.getUsername());
+            }
+            if (user.getEmail() != null) {
+                entries.remove(user.getEmail());
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            invalidationGeneration++;
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private static final class Entry {
+        private final MongoUserPrincipal principal;
+        private final long expiresAt;
+
+        private Entry(MongoUserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
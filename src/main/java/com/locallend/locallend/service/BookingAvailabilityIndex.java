@@ -0,0 +1,394 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.exception.BookingConflictException;
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.JobLease;
+import com.locallend.locallend.model.enums.BookingStatus;
+import com.locallend.locallend.util.IntervalTree;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Per-item interval trees of the bookings that block an item's calendar
+ * (CONFIRMED and ACTIVE), used for conflict checks and free-window lookups.
+ *
+ * Validating and saving a booking runs under a per-item lock that is both a
+ * local lock and a Mongo lease, so booking attempts on the same item are
+ * serialized across every application node.
+ *
+ * Only a confirmation adds a blocking interval, and it runs under the item's
+ * lease, which stamps a new calendar version on the lease document. A conflict
+ * check reads that version (one _id lookup) and reloads the item's calendar
+ * with the indexed {item_id, status, start_date} query only if another node
+ * has confirmed a booking since the tree was loaded. Cancellations and other
+ * removals do not change the version: a stale tree can then only report a
+ * conflict that is gone, so a reported conflict is re-checked against a fresh
+ * load before it is returned.
+ *
+ * Read-only lookups (active summary, next free window) use the cached tree,
+ * which is reloaded once it is older than the calendar TTL; calendars not used
+ * for a TTL are dropped so the cache only holds recently booked items.
+ */
+@Component
+public class BookingAvailabilityIndex {
+
+    /** Statuses that occupy an item's calendar. */
+    public static final Set<BookingStatus> BLOCKING_STATUSES = EnumSet.of(BookingStatus.CONFIRMED, BookingStatus.ACTIVE);
+
+    // Granularity used to step past a blocking booking when searching for a free window
+    private static final Duration FREE_WINDOW_STEP = Duration.ofMinutes(1);
+
+    // Item locks are leases in job_leases named after the item
+    private static final String LEASE_PREFIX = "booking-calendar:";
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(30);
+    private static final long LEASE_WAIT_MS = 5000;
+    private static final long LEASE_RETRY_MS = 25;
+
+    private final MongoTemplate mongoTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final long calendarTtlMs;
+    private final ConcurrentMap<String, ItemCalendar> calendars = new ConcurrentHashMap<>();
+
+    public BookingAvailabilityIndex(MongoTemplate mongoTemplate,
+                                    JobLeaseService jobLeaseService,
+                                    @Value("${booking.calendar.ttl-ms:60000}") long calendarTtlMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.jobLeaseService = jobLeaseService;
+        this.calendarTtlMs = calendarTtlMs;
+    }
+
+    /**
+     * Run an action while holding the item's booking lock on this node and the
+     * item's lease across nodes.
+     * @param itemId Item ID
+     * @param action Validation and persistence to run atomically for this item
+     * @return Result of the action
+     * @throws BookingConflictException if another node holds the item for too long
+     */
+    public <T> T withItemLock(String itemId, Supplier<T> action) {
+        ItemCalendar calendar = lock(itemId);
+        try {
+            String leaseName = LEASE_PREFIX + itemId;
+            acquireLease(leaseName, itemId);
+            try {
+                return action.get();
+            } finally {
+                jobLeaseService.release(leaseName);
+            }
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Find the earliest blocking booking overlapping the given period, against
+     * the item's bookings as currently stored in Mongo. Must be called under
+     * {@link #withItemLock}, whose lease guards the calendar version.
+     * @param itemId Item ID
+     * @param startDate Requested start (inclusive)
+     * @param endDate Requested end (inclusive)
+     * @param excludeBookingId Booking to ignore (e.g. the one being confirmed), may be null
+     * @return Conflicting interval, or null if the period is free
+     */
+    public IntervalTree.Interval findConflict(String itemId, LocalDateTime startDate, LocalDateTime endDate,
+                                              String excludeBookingId) {
+        ItemCalendar calendar = lock(itemId);
+        try {
+            boolean reloaded = false;
+            String version = readVersion(itemId);
+            if (version == null || !calendar.isLoaded() || !version.equals(calendar.version)) {
+                reload(calendar, itemId);
+                // No version yet (new or expired lease document): stamp one so later checks can trust the tree
+                calendar.version = version != null ? version : stampVersion(itemId);
+                reloaded = true;
+            }
+            IntervalTree.Interval conflict = firstOverlap(calendar.tree, startDate, endDate, excludeBookingId);
+            if (conflict != null && !reloaded) {
+                // The blocking booking may have been cancelled on another node
+                reload(calendar, itemId);
+                calendar.version = version;
+                conflict = firstOverlap(calendar.tree, startDate, endDate, excludeBookingId);
+            }
+            return conflict;
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Reflect a confirmed booking in its item's calendar and publish a new
+     * calendar version, so other nodes reload before their next conflict
+     * check. Must be called under {@link #withItemLock}.
+     * @param booking Booking as confirmed
+     */
+    public void syncConfirmed(Booking booking) {
+        ItemCalendar calendar = lock(booking.getItemId());
+        try {
+            String version = stampVersion(booking.getItemId());
+            if (calendar.isLoaded() && booking.getStartDate() != null && booking.getEndDate() != null) {
+                // The conflict check just before loaded every earlier version under this lease
+                calendar.tree.put(booking.getId(), booking.getStartDate(), booking.getEndDate());
+                calendar.version = version;
+            } else {
+                calendar.version = null;
+            }
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Find the earliest start at or after {@code from} at which the item is free
+     * for the whole requested length.
+     * @param itemId Item ID
+     * @param from Earliest acceptable start
+     * @param length Length of the requested window
+     * @return Start of the next free window
+     */
+    public LocalDateTime findNextFreeStart(String itemId, LocalDateTime from, Duration length) {
+        ItemCalendar calendar = lock(itemId);
+        try {
+            reloadIfExpired(calendar, itemId);
+            return calendar.tree.findNextFreeStart(from, length, FREE_WINDOW_STEP);
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Count of blocking bookings on an item and, if the item is booked right
+     * now, when it becomes free again. Served from the cached calendar, so no
+     * booking documents are read while the calendar is fresh.
+     * @param itemId Item ID
+     * @return Summary as of now
+     */
+    public ActiveSummary getActiveSummary(String itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        ItemCalendar calendar = lock(itemId);
+        try {
+            reloadIfExpired(calendar, itemId);
+            // Back-to-back bookings count as one stretch
+            LocalDateTime freeFrom = calendar.tree.findNextFreeStart(now, Duration.ZERO, FREE_WINDOW_STEP);
+            LocalDateTime bookedUntil = freeFrom.isAfter(now) ? freeFrom.minus(FREE_WINDOW_STEP) : null;
+            return new ActiveSummary(calendar.tree.size(), bookedUntil);
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Reflect a saved booking in its item's calendar: blocking statuses are
+     * (re)inserted, every other status removes the booking. Items whose
+     * calendar is not cached are skipped; they load fresh on first use.
+     * @param booking Booking as persisted
+     */
+    public void sync(Booking booking) {
+        if (booking == null || booking.getId() == null || booking.getItemId() == null) {
+            return;
+        }
+        ItemCalendar calendar = calendars.get(booking.getItemId());
+        if (calendar == null) {
+            return;
+        }
+        calendar.lock.lock();
+        try {
+            if (!calendar.isLoaded()) {
+                return;
+            }
+            if (BLOCKING_STATUSES.contains(booking.getStatus())
+                    && booking.getStartDate() != null && booking.getEndDate() != null) {
+                calendar.tree.put(booking.getId(), booking.getStartDate(), booking.getEndDate());
+            } else {
+                calendar.tree.remove(booking.getId());
+            }
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a booking that no longer blocks its item, for callers that changed
+     * its status without loading the booking.
+     * @param itemId Item ID
+     * @param bookingId Booking ID
+     */
+    public void remove(String itemId, String bookingId) {
+        ItemCalendar calendar = itemId != null ? calendars.get(itemId) : null;
+        if (calendar == null) {
+            return;
+        }
+        calendar.lock.lock();
+        try {
+            calendar.tree.remove(bookingId);
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Drop calendars that have not been used for a TTL. Calendars that are
+     * locked right now are left for the next run.
+     */
+    @Scheduled(initialDelayString = "${booking.calendar.ttl-ms:60000}",
+               fixedDelayString = "${booking.calendar.ttl-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - calendarTtlMs;
+        for (Map.Entry<String, ItemCalendar> entry : calendars.entrySet()) {
+            ItemCalendar calendar = entry.getValue();
+            if (calendar.lastUsedAt < cutoff && calendar.lock.tryLock()) {
+                try {
+                    calendars.remove(entry.getKey(), calendar);
+                } finally {
+                    calendar.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Lock the item's current calendar. A calendar evicted while we waited for
+     * its lock is no longer in the map, so we retry with the fresh one.
+     */
+    private ItemCalendar lock(String itemId) {
+        if (itemId == null) {
+            throw new IllegalArgumentException("Item ID cannot be null");
+        }
+        while (true) {
+            ItemCalendar calendar = calendars.computeIfAbsent(itemId, id -> new ItemCalendar());
+            calendar.lock.lock();
+            if (calendars.get(itemId) == calendar) {
+                calendar.lastUsedAt = System.currentTimeMillis();
+                return calendar;
+            }
+            calendar.lock.unlock();
+        }
+    }
+
+    private void acquireLease(String leaseName, String itemId) {
+        long deadline = System.currentTimeMillis() + LEASE_WAIT_MS;
+        while (!jobLeaseService.tryAcquire(leaseName, LEASE_DURATION)) {
+            if (System.currentTimeMillis() >= deadline) {
+                throw new BookingConflictException("Item is being booked by another request, please retry", itemId);
+            }
+            try {
+                Thread.sleep(LEASE_RETRY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BookingConflictException("Interrupted while waiting to book item", itemId);
+            }
+        }
+    }
+
+    private static IntervalTree.Interval firstOverlap(IntervalTree tree, LocalDateTime startDate,
+                                                      LocalDateTime endDate, String excludeBookingId) {
+        if (excludeBookingId == null || !tree.contains(excludeBookingId)) {
+            return tree.findFirstOverlap(startDate, endDate);
+        }
+        for (IntervalTree.Interval interval : tree.findAllOverlapping(startDate, endDate)) {
+            if (!excludeBookingId.equals(interval.getId())) {
+                return interval;
+            }
+        }
+        return null;
+    }
+
+    private String readVersion(String itemId) {
+        Query query = new Query(Criteria.where("_id").is(LEASE_PREFIX + itemId));
+        query.fields().include("calendar_version");
+        JobLease lease = mongoTemplate.findOne(query, JobLease.class);
+        return lease != null ? lease.getCalendarVersion() : null;
+    }
+
+    /**
+     * Write a new, never reused calendar version on the item's lease document.
+     * @return The version, or null if the lease document does not exist
+     */
+    private String stampVersion(String itemId) {
+        String version = new ObjectId().toHexString();
+        long matched = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(LEASE_PREFIX + itemId)),
+                Update.update("calendar_version", version), JobLease.class).getMatchedCount();
+        return matched > 0 ? version : null;
+    }
+
+    private void reloadIfExpired(ItemCalendar calendar, String itemId) {
+        if (!calendar.isLoaded() || System.currentTimeMillis() - calendar.loadedAt > calendarTtlMs) {
+            // Read before loading: a confirmation in between only makes the next conflict check reload
+            String version = readVersion(itemId);
+            reload(calendar, itemId);
+            calendar.version = version;
+        }
+    }
+
+    private void reload(ItemCalendar calendar, String itemId) {
+        calendar.tree = loadTree(itemId);
+        calendar.version = null;
+        calendar.loadedAt = System.currentTimeMillis();
+    }
+
+    private IntervalTree loadTree(String itemId) {
+        // Project only the calendar fields so the booking's DBRefs are not resolved
+        Query query = new Query(Criteria.where("item_id").is(itemId).and("status").in(BLOCKING_STATUSES));
+        query.fields().include("item_id").include("status").include("start_date").include("end_date");
+
+        IntervalTree tree = new IntervalTree();
+        for (Booking booking : mongoTemplate.find(query, Booking.class)) {
+            if (booking.getStartDate() != null && booking.getEndDate() != null) {
+                tree.put(booking.getId(), booking.getStartDate(), booking.getEndDate());
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Blocking-booking count of an item and the end of the booking it is in now.
+     */
+    public static final class ActiveSummary {
+        private final int activeCount;
+        private final LocalDateTime bookedUntil;
+
+        public ActiveSummary(int activeCount, LocalDateTime bookedUntil) {
+            this.activeCount = activeCount;
+            this.bookedUntil = bookedUntil;
+        }
+
+        /** Number of CONFIRMED and ACTIVE bookings, current and upcoming. */
+        public int getActiveCount() { return activeCount; }
+
+        /** End of the current booking stretch, or null if the item is free now. */
+        public LocalDateTime getBookedUntil() { return bookedUntil; }
+    }
+
+    /**
+     * Interval tree and lock for one item. The tree is only touched while the
+     * lock is held.
+     */
+    private static class ItemCalendar {
+        private final ReentrantLock lock = new ReentrantLock();
+        private IntervalTree tree = new IntervalTree();
+        // 0 until first loaded
+        private long loadedAt = 0;
+        // Calendar version the tree reflects, null if unknown
+        private String version;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private boolean isLoaded() {
+            return loadedAt != 0;
+        }
+    }
+}
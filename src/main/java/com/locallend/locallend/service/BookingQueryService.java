@@ -0,0 +1,212 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.dto.response.BookingResponseDto;
+import com.locallend.locallend.dto.response.CursorPageDto;
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.model.enums.BookingStatus;
+import com.locallend.locallend.util.BookingMapper;
+import com.locallend.locallend.util.DbRefUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-side booking feeds for owners and borrowers.
+ *
+ * Feeds are ordered newest first and paged with an opaque (created_date, id)
+ * cursor, so each page is an index range scan on {owner_id|borrower_id, status,
+ * created_date} no matter how long the user's history is. Only the summary
+ * fields are loaded, including the booking's snapshot of the item and user
+ * names; names missing from older bookings are looked up with one batched
+ * query per collection.
+ */
+@Service
+public class BookingQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String CURSOR_SEPARATOR = "|";
+
+    // Every status, so an unfiltered feed can still merge-sort the per-status index ranges
+    private static final List<String> ALL_STATUSES = Arrays.stream(BookingStatus.values())
+            .map(Enum::name)
+            .collect(Collectors.toList());
+
+    private final MongoTemplate mongoTemplate;
+    private final BookingMapper bookingMapper;
+
+    public BookingQueryService(MongoTemplate mongoTemplate, BookingMapper bookingMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.bookingMapper = bookingMapper;
+    }
+
+    /**
+     * Bookings received by an owner, newest first.
+     * @param ownerId Owner user ID
+     * @param status Status to filter by, or null for all
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Page size (clamped to 1..{@value #MAX_PAGE_SIZE})
+     * @return Page of booking summaries
+     * @throws IllegalArgumentException If the cursor is malformed
+     */
+    public CursorPageDto<BookingResponseDto> getOwnerFeed(String ownerId, BookingStatus status, String cursor, int size) {
+        return feed("owner_id", ownerId, status, cursor, size);
+    }
+
+    /**
+     * Bookings made by a borrower, newest first.
+     * @param borrowerId Borrower user ID
+     * @param status Status to filter by, or null for all
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Page size (clamped to 1..{@value #MAX_PAGE_SIZE})
+     * @return Page of booking summaries
+     * @throws IllegalArgumentException If the cursor is malformed
+     */
+    public CursorPageDto<BookingResponseDto> getBorrowerFeed(String borrowerId, BookingStatus status, String cursor, int size) {
+        return feed("borrower_id", borrowerId, status, cursor, size);
+    }
+
+    private CursorPageDto<BookingResponseDto> feed(String userField, String userId, BookingStatus status,
+                                                   String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Criteria criteria = Criteria.where(userField).is(userId);
+        if (status != null) {
+            criteria.and("status").is(status.name());
+        } else {
+            criteria.and("status").in(ALL_STATUSES);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Position after = decodeCursor(cursor);
+            Object afterId = DbRefUtils.refId(after.id);
+            criteria.orOperator(
+                    Criteria.where("created_date").lt(after.createdDate),
+                    Criteria.where("created_date").is(after.createdDate).and("_id").lt(afterId));
+        }
+
+        // One extra row tells whether another page exists
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "created_date", "_id"))
+                .limit(limit + 1);
+        query.fields()
+                .include("item_id")
+                .include("borrower_id")
+                .include("owner_id")
+                .include("status")
+                .include("start_date")
+                .include("end_date")
+                .include("deposit_amount")
+                .include("created_date")
+                .include("duration_days")
+                .include("item_name")
+                .include("borrower_name")
+                .include("owner_name");
+        List<Booking> bookings = mongoTemplate.find(query, Booking.class);
+
+        String nextCursor = null;
+        if (bookings.size() > limit) {
+            bookings = bookings.subList(0, limit);
+            nextCursor = encodeCursor(bookings.get(limit - 1));
+        }
+        return new CursorPageDto<>(toSummaries(bookings), nextCursor);
+    }
+
+    private List<BookingResponseDto> toSummaries(List<Booking> bookings) {
+        // Only bookings written before snapshots were introduced (and not yet backfilled) need lookups
+        Set<String> itemIds = new HashSet<>();
+        Set<String> userIds = new HashSet<>();
+        for (Booking booking : bookings) {
+            if (booking.getItemName() == null) {
+                itemIds.add(booking.getItemId());
+            }
+            if (booking.getBorrowerName() == null) {
+                userIds.add(booking.getBorrowerId());
+            }
+            if (booking.getOwnerName() == null) {
+                userIds.add(booking.getOwnerId());
+            }
+        }
+        Map<String, String> itemNames = namesById(itemIds, Item.class, Item::getId, Item::getName);
+        Map<String, String> userNames = namesById(userIds, User.class, User::getId, User::getName);
+
+        List<BookingResponseDto> summaries = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            BookingResponseDto dto = bookingMapper.toBookingSummaryDto(booking);
+            if (dto.getItemName() == null) {
+                dto.setItemName(itemNames.get(booking.getItemId()));
+            }
+            if (dto.getBorrowerName() == null) {
+                dto.setBorrowerName(userNames.get(booking.getBorrowerId()));
+            }
+            if (dto.getOwnerName() == null) {
+                dto.setOwnerName(userNames.get(booking.getOwnerId()));
+            }
+            summaries.add(dto);
+        }
+        return summaries;
+    }
+
+    private <T> Map<String, String> namesById(Collection<String> ids, Class<T> type,
+                                              Function<T, String> idGetter, Function<T, String> nameGetter) {
+        List<String> wanted = ids.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        Map<String, String> names = new HashMap<>();
+        if (wanted.isEmpty()) {
+            return names;
+        }
+        Query query = new Query(Criteria.where("_id").in(wanted));
+        query.fields().include("name");
+        for (T entity : mongoTemplate.find(query, type)) {
+            names.put(idGetter.apply(entity), nameGetter.apply(entity));
+        }
+        return names;
+    }
+
+    private static String encodeCursor(Booking last) {
+        String raw = last.getCreatedDate() + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(CURSOR_SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Position(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static final class Position {
+        private final LocalDateTime createdDate;
+        private final String id;
+
+        private Position(LocalDateTime createdDate, String id) {
+            this.createdDate = createdDate;
+            this.id = id;
+        }
+    }
+}
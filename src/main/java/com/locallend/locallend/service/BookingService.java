@@ -19,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -28,25 +29,37 @@ public class BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
 
+    // Furthest ahead a next-available search may start
+    private static final Duration MAX_AVAILABILITY_HORIZON = Duration.ofDays(365);
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingFactory bookingFactory;
     private final BookingMapper bookingMapper;
     private final BookingValidator bookingValidator;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final OverdueBookingSweeper overdueBookingSweeper;
+    private final BookingStateMachine bookingStateMachine;
 
     public BookingService(BookingRepository bookingRepository,
                           ItemRepository itemRepository,
                           UserRepository userRepository,
                           BookingFactory bookingFactory,
                           BookingMapper bookingMapper,
-                          BookingValidator bookingValidator) {
+                          BookingValidator bookingValidator,
+                          BookingAvailabilityIndex availabilityIndex,
+                          OverdueBookingSweeper overdueBookingSweeper,
+                          BookingStateMachine bookingStateMachine) {
         this.bookingRepository = bookingRepository;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingFactory = bookingFactory;
         this.bookingMapper = bookingMapper;
         this.bookingValidator = bookingValidator;
+        this.availabilityIndex = availabilityIndex;
+        this.overdueBookingSweeper = overdueBookingSweeper;
+        this.bookingStateMachine = bookingStateMachine;
     }
 
     public BookingResponseDto createBooking(BookingRequestDto request, String borrowerId) {
@@ -62,25 +75,30 @@ public class BookingService {
             throw new IllegalArgumentException("Item has no owner");
         }
 
-        // Comprehensive validation
-        try {
-            bookingValidator.validateAvailability(item, request.getStartDate(), request.getEndDate());
-            bookingValidator.validateBorrowerEligibility(borrower, owner);
-            bookingValidator.validateNoConflicts(item.getId(), request.getStartDate(), 
-                                                 request.getEndDate(), bookingRepository);
-        } catch (BookingConflictException | InvalidBookingPeriodException e) {
-            logger.warn("Booking validation failed: {}", e.getMessage());
-            throw e;
-        }
-
-        // Create booking
-        Booking booking = bookingFactory.createFromRequest(
-                item, borrower, owner,
-                request.getStartDate(), request.getEndDate(),
-                request.getBookingNotes(), request.getDepositAmount()
-        );
+        // Conflict check and save run under the item's lock so concurrent requests can't both pass
+        Booking saved = availabilityIndex.withItemLock(item.getId(), () -> {
+            // Comprehensive validation
+            try {
+                bookingValidator.validateAvailability(item, request.getStartDate(), request.getEndDate());
+                bookingValidator.validateBorrowerEligibility(borrower, owner);
+                bookingValidator.validateNoConflicts(item.getId(), request.getStartDate(),
+                                                     request.getEndDate(), availabilityIndex);
+            } catch (BookingConflictException | InvalidBookingPeriodException e) {
+                logger.warn("Booking validation failed: {}", e.getMessage());
+                throw e;
+            }
 
-        Booking saved = bookingRepository.save(booking);
+            // Create booking
+            Booking booking = bookingFactory.createFromRequest(
+                    item, borrower, owner,
+                    request.getStartDate(), request.getEndDate(),
+                    request.getBookingNotes(), request.getDepositAmount()
+            );
+
+            Booking created = bookingRepository.save(booking);
+            availabilityIndex.sync(created);
+            return created;
+        });
         logger.info("Booking {} created successfully", saved.getId());
         return bookingMapper.toBookingResponseDto(saved);
     }
@@ -92,109 +110,69 @@ public class BookingService {
         return bookingMapper.toBookingResponseDto(b);
     }
 
-    @Transactional(readOnly = true)
-    public List<BookingResponseDto> getBookingsForBorrower(String borrowerId) {
-        return bookingMapper.toBookingResponseDtoList(bookingRepository.findByBorrowerId(borrowerId));
-    }
-
-    @Transactional(readOnly = true)
-    public List<BookingResponseDto> getBookingsForOwner(String ownerId) {
-        return bookingMapper.toBookingResponseDtoList(bookingRepository.findByOwnerId(ownerId));
-    }
-
     public BookingResponseDto confirm(String bookingId, String ownerId, String ownerNotes) {
         logger.info("Owner {} confirming booking {}", ownerId, bookingId);
-        
+
         Booking b = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException(bookingId));
-        
         bookingValidator.validateAuthorization(b, ownerId, "OWNER");
-        bookingValidator.validateStatusTransition(b, com.locallend.locallend.model.enums.BookingStatus.CONFIRMED);
-        
-        b.confirm(ownerNotes);
-        Booking saved = bookingRepository.save(b);
+
+        // Two overlapping pending requests must not both be confirmed
+        Booking saved = availabilityIndex.withItemLock(b.getItemId(), () -> {
+            bookingValidator.validateNoConflicts(b.getItemId(), b.getStartDate(), b.getEndDate(),
+                                                 b.getId(), availabilityIndex);
+            Booking confirmed = bookingStateMachine.confirm(bookingId, ownerId, ownerNotes);
+            availabilityIndex.syncConfirmed(confirmed);
+            return confirmed;
+        });
         logger.info("Booking {} confirmed", bookingId);
         return bookingMapper.toBookingResponseDto(saved);
     }
 
     public BookingResponseDto activate(String bookingId, String borrowerId) {
         logger.info("Borrower {} activating booking {}", borrowerId, bookingId);
-        
-        Booking b = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(bookingId));
-        
-        bookingValidator.validateAuthorization(b, borrowerId, "BORROWER");
-        bookingValidator.validateStatusTransition(b, com.locallend.locallend.model.enums.BookingStatus.ACTIVE);
-        
-        b.activate();
-        
+
+        Booking saved = bookingStateMachine.activate(bookingId, borrowerId);
+        availabilityIndex.sync(saved);
+
         // Mark item as borrowed
-        Item item = b.getItem();
-        if (item != null) {
-            try {
-                item.markAsBorrowed();
-                itemRepository.save(item);
-            } catch (IllegalStateException e) {
-                logger.warn("Could not mark item as borrowed: {}", e.getMessage());
-            }
+        if (!bookingStateMachine.markItemBorrowed(saved.getItemId())) {
+            logger.warn("Could not mark item {} as borrowed: it is not active and available", saved.getItemId());
         }
-        
-        Booking saved = bookingRepository.save(b);
+
         logger.info("Booking {} activated", bookingId);
         return bookingMapper.toBookingResponseDto(saved);
     }
 
     public BookingResponseDto complete(String bookingId, String borrowerId) {
         logger.info("Borrower {} completing booking {}", borrowerId, bookingId);
-        
-        Booking b = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(bookingId));
-        
-        bookingValidator.validateAuthorization(b, borrowerId, "BORROWER");
-        bookingValidator.validateStatusTransition(b, com.locallend.locallend.model.enums.BookingStatus.COMPLETED);
-        
-        b.complete();
-        
+
+        Booking saved = bookingStateMachine.complete(bookingId, borrowerId);
+        availabilityIndex.sync(saved);
+
         // Mark item as available again
-        Item item = b.getItem();
-        if (item != null && item.getStatus() == com.locallend.locallend.model.enums.ItemStatus.BORROWED) {
-            item.setStatus(com.locallend.locallend.model.enums.ItemStatus.AVAILABLE);
-            itemRepository.save(item);
-        }
-        
-        Booking saved = bookingRepository.save(b);
+        bookingStateMachine.markItemReturned(saved.getItemId());
+
         logger.info("Booking {} completed", bookingId);
         return bookingMapper.toBookingResponseDto(saved);
     }
 
     public BookingResponseDto cancel(String bookingId, String borrowerId, String reason) {
         logger.info("Borrower {} cancelling booking {}", borrowerId, bookingId);
-        
-        Booking b = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(bookingId));
-        
-        bookingValidator.validateAuthorization(b, borrowerId, "BORROWER");
-        
-        if (!b.getStatus().canBeCancelled()) {
-            throw new IllegalStateException("Booking cannot be cancelled in current status: " + b.getStatus());
-        }
-        
-        b.cancel(reason != null ? reason : "Cancelled by borrower");
-        Booking saved = bookingRepository.save(b);
+
+        Booking saved = bookingStateMachine.cancel(bookingId, borrowerId,
+                reason != null ? reason : "Cancelled by borrower");
+        availabilityIndex.sync(saved);
         logger.info("Booking {} cancelled", bookingId);
         return bookingMapper.toBookingResponseDto(saved);
     }
 
     public BookingResponseDto reject(String bookingId, String ownerId, String reason) {
         logger.info("Owner {} rejecting booking {}", ownerId, bookingId);
-        
-        Booking b = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(bookingId));
-        
-        bookingValidator.validateAuthorization(b, ownerId, "OWNER");
-        
-        b.reject(reason != null ? reason : "Rejected by owner");
-        Booking saved = bookingRepository.save(b);
+
+        Booking saved = bookingStateMachine.reject(bookingId, ownerId,
+                reason != null ? reason : "Rejected by owner");
+        availabilityIndex.sync(saved);
         logger.info("Booking {} rejected", bookingId);
         return bookingMapper.toBookingResponseDto(saved);
     }
@@ -219,10 +197,37 @@ public class BookingService {
     @Transactional(readOnly = true)
     public List<BookingResponseDto> getActiveBookingsForItem(String itemId) {
         logger.info("Fetching active bookings for item {}", itemId);
-        List<Booking> bookings = bookingRepository.findActiveBookings();
-        return bookingMapper.toBookingResponseDtoList(
-            bookings.stream().filter(b -> itemId.equals(b.getItemId())).toList()
-        );
+        List<Booking> bookings = bookingRepository.findByItemIdAndStatusInOrderByStartDateAsc(
+                itemId, BookingAvailabilityIndex.BLOCKING_STATUSES);
+        return bookingMapper.toBookingResponseDtoList(bookings);
+    }
+
+    /**
+     * Number of CONFIRMED/ACTIVE bookings on an item and when its current
+     * booking ends, from the cached item calendar.
+     */
+    @Transactional(readOnly = true)
+    public BookingAvailabilityIndex.ActiveSummary getActiveSummaryForItem(String itemId) {
+        return availabilityIndex.getActiveSummary(itemId);
+    }
+
+    /**
+     * Find the earliest start at or after {@code from} at which the item is free
+     * (no CONFIRMED or ACTIVE booking) for the given number of days. Windows are
+     * limited to the bookable rental length and to starts within a year.
+     */
+    @Transactional(readOnly = true)
+    public LocalDateTime findNextAvailableStart(String itemId, LocalDateTime from, int days) {
+        if (days < BookingValidator.DEFAULT_MIN_RENTAL_DAYS || days > BookingValidator.DEFAULT_MAX_RENTAL_DAYS) {
+            throw new IllegalArgumentException("Days must be between " + BookingValidator.DEFAULT_MIN_RENTAL_DAYS
+                    + " and " + BookingValidator.DEFAULT_MAX_RENTAL_DAYS);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (from != null && from.isAfter(now.plus(MAX_AVAILABILITY_HORIZON))) {
+            throw new IllegalArgumentException("From must be within " + MAX_AVAILABILITY_HORIZON.toDays() + " days");
+        }
+        LocalDateTime start = from != null ? from : now;
+        return availabilityIndex.findNextFreeStart(itemId, start, Duration.ofDays(days));
     }
 
     @Transactional(readOnly = true)
@@ -234,45 +239,11 @@ public class BookingService {
         }
     }
 
-    /**
-     * Update booking status with proper validation.
-     */
-    public BookingResponseDto updateBookingStatus(String bookingId, 
-                                                  com.locallend.locallend.model.enums.BookingStatus newStatus, 
-                                                  String userId) {
-        logger.info("Updating booking {} to status {}", bookingId, newStatus);
-        
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(bookingId));
-        
-        bookingValidator.validateAuthorization(booking, userId, "EITHER");
-        bookingValidator.validateStatusTransition(booking, newStatus);
-        
-        booking.setStatus(newStatus);
-        booking.setUpdatedDate(LocalDateTime.now());
-        
-        Booking saved = bookingRepository.save(booking);
-        return bookingMapper.toBookingResponseDto(saved);
-    }
-
     /**
      * Process overdue bookings - mark ACTIVE bookings past end date as OVERDUE.
      */
-    @Transactional
     public int processOverdueBookings() {
         logger.info("Processing overdue bookings");
-        List<Booking> overdueBookings = bookingRepository.findOverdueBookings(LocalDateTime.now());
-        
-        int count = 0;
-        for (Booking booking : overdueBookings) {
-            if (booking.getStatus() == com.locallend.locallend.model.enums.BookingStatus.ACTIVE) {
-                booking.markOverdue();
-                bookingRepository.save(booking);
-                count++;
-            }
-        }
-        
-        logger.info("Marked {} bookings as overdue", count);
-        return count;
+        return overdueBookingSweeper.sweep();
     }
 }
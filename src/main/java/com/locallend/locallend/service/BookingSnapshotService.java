@@ -0,0 +1,64 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the display snapshot stored on bookings (item_name, item_image_url,
+ * borrower_name, owner_name) in line with the items and users it was copied
+ * from, so booking reads never have to resolve the booking's DBRefs.
+ *
+ * Each refresh is a multi-document $set on the indexed reference id, touching
+ * only the bookings whose snapshot actually differs.
+ */
+@Service
+public class BookingSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingSnapshotService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public BookingSnapshotService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Copy an item's name and first image onto its bookings.
+     * @param item Item after the change
+     */
+    public void refreshItem(Item item) {
+        String imageUrl = Booking.firstImage(item);
+        Query query = new Query(Criteria.where("item_id").is(item.getId())
+                .orOperator(Criteria.where("item_name").ne(item.getName()),
+                        Criteria.where("item_image_url").ne(imageUrl)));
+        long updated = mongoTemplate.updateMulti(query,
+                new Update().set("item_name", item.getName()).set("item_image_url", imageUrl),
+                Booking.class).getModifiedCount();
+        logger.debug("Refreshed item snapshot of {} bookings for item {}", updated, item.getId());
+    }
+
+    /**
+     * Copy a user's display name onto the bookings they borrow or own.
+     * @param user User after the change
+     */
+    public void refreshUser(User user) {
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+        ops.updateMulti(Query.query(Criteria.where("borrower_id").is(user.getId())
+                        .and("borrower_name").ne(user.getName())),
+                Update.update("borrower_name", user.getName()));
+        ops.updateMulti(Query.query(Criteria.where("owner_id").is(user.getId())
+                        .and("owner_name").ne(user.getName())),
+                Update.update("owner_name", user.getName()));
+        long updated = ops.execute().getModifiedCount();
+        logger.debug("Refreshed user snapshot of {} bookings for user {}", updated, user.getId());
+    }
+}
@@ -0,0 +1,180 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.exception.BookingNotFoundException;
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.enums.BookingStatus;
+import com.locallend.locallend.model.enums.ItemStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Booking status transitions as single conditional updates.
+ *
+ * Each transition is one findAndModify whose filter requires the acting user
+ * and a current status from which the target can be reached
+ * ({@link BookingStatus#sourcesOf}), and whose update sets only the fields the
+ * transition changes. Of any number of concurrent transitions on a booking,
+ * exactly those consistent with the status they find are applied, and nothing
+ * else in the document is overwritten. The booking is only read again to
+ * explain a rejected transition.
+ *
+ * The linked item status changes are conditional updates too, applied by the
+ * caller after the booking transition has succeeded.
+ */
+@Component
+public class BookingStateMachine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingStateMachine.class);
+
+    /**
+     * The party performing a transition.
+     */
+    public enum Actor {
+        OWNER("owner_id", "Only the owner can perform this action"),
+        BORROWER("borrower_id", "Only the borrower can perform this action");
+
+        private final String field;
+        private final String deniedMessage;
+
+        Actor(String field, String deniedMessage) {
+            this.field = field;
+            this.deniedMessage = deniedMessage;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    public BookingStateMachine(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Owner approves a pending booking.
+     * @return The booking after the transition
+     * @throws BookingNotFoundException If the booking does not exist
+     * @throws IllegalArgumentException If the user is not the booking's owner
+     * @throws IllegalStateException If the booking's status does not allow the transition
+     */
+    public Booking confirm(String bookingId, String ownerId, String ownerNotes) {
+        return transition(bookingId, Actor.OWNER, ownerId, BookingStatus.CONFIRMED, (update, now) -> update
+                .set("owner_notes", ownerNotes)
+                .set("confirmed_date", now));
+    }
+
+    /**
+     * Owner declines a pending booking.
+     * @see #confirm
+     */
+    public Booking reject(String bookingId, String ownerId, String reason) {
+        return transition(bookingId, Actor.OWNER, ownerId, BookingStatus.REJECTED, (update, now) -> update
+                .set("cancellation_reason", reason));
+    }
+
+    /**
+     * Borrower picks up a confirmed booking.
+     * @see #confirm
+     */
+    public Booking activate(String bookingId, String borrowerId) {
+        return transition(bookingId, Actor.BORROWER, borrowerId, BookingStatus.ACTIVE, (update, now) -> update
+                .set("actual_start_date", now)
+                .set("pickup_date", now));
+    }
+
+    /**
+     * Borrower returns the item of an active or overdue booking.
+     * @see #confirm
+     */
+    public Booking complete(String bookingId, String borrowerId) {
+        return transition(bookingId, Actor.BORROWER, borrowerId, BookingStatus.COMPLETED, (update, now) -> update
+                .set("actual_end_date", now)
+                .set("return_date", now));
+    }
+
+    /**
+     * Borrower cancels a pending or confirmed booking.
+     * @see #confirm
+     */
+    public Booking cancel(String bookingId, String borrowerId, String reason) {
+        return transition(bookingId, Actor.BORROWER, borrowerId, BookingStatus.CANCELLED, (update, now) -> update
+                .set("cancellation_reason", reason)
+                .set("cancelled_date", now));
+    }
+
+    /**
+     * Mark an item as borrowed if it is active and available.
+     * @param itemId Item ID
+     * @return true if the item changed
+     */
+    public boolean markItemBorrowed(String itemId) {
+        return changeItemStatus(Criteria.where("_id").is(itemId).and("is_active").is(true)
+                .and("status").is(ItemStatus.AVAILABLE.name()), ItemStatus.BORROWED);
+    }
+
+    /**
+     * Mark an item as available again if it is borrowed.
+     * @param itemId Item ID
+     * @return true if the item changed
+     */
+    public boolean markItemReturned(String itemId) {
+        return changeItemStatus(Criteria.where("_id").is(itemId)
+                .and("status").is(ItemStatus.BORROWED.name()), ItemStatus.AVAILABLE);
+    }
+
+    private boolean changeItemStatus(Criteria precondition, ItemStatus status) {
+        return mongoTemplate.updateFirst(new Query(precondition),
+                new Update().set("status", status.name()).set("updated_at", LocalDateTime.now()),
+                Item.class).getModifiedCount() > 0;
+    }
+
+    private Booking transition(String bookingId, Actor actor, String actorId, BookingStatus target,
+                               TransitionFields fields) {
+        List<String> sources = BookingStatus.sourcesOf(target).stream()
+                .map(Enum::name)
+                .collect(Collectors.toList());
+        Query query = new Query(Criteria.where("_id").is(bookingId)
+                .and(actor.field).is(actorId)
+                .and("status").in(sources));
+
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("status", target.name()).set("updated_date", now);
+        fields.apply(update, now);
+
+        Booking updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Booking.class);
+        if (updated == null) {
+            throw rejected(bookingId, actor, actorId, target);
+        }
+        logger.debug("Booking {} moved to {}", bookingId, target);
+        return updated;
+    }
+
+    private RuntimeException rejected(String bookingId, Actor actor, String actorId, BookingStatus target) {
+        Query query = new Query(Criteria.where("_id").is(bookingId));
+        query.fields().include("status").include(actor.field);
+        Booking current = mongoTemplate.findOne(query, Booking.class);
+        if (current == null) {
+            return new BookingNotFoundException(bookingId);
+        }
+        String currentActorId = actor == Actor.OWNER ? current.getOwnerId() : current.getBorrowerId();
+        if (actorId == null || !actorId.equals(currentActorId)) {
+            return new IllegalArgumentException(actor.deniedMessage);
+        }
+        return new IllegalStateException("Cannot transition from " + current.getStatus() + " to " + target);
+    }
+
+    @FunctionalInterface
+    private interface TransitionFields {
+        void apply(Update update, LocalDateTime now);
+    }
+}
@@ -8,14 +8,22 @@ import com.locallend.locallend.repository.CategoryRepository;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Category management. All reads are served from the in-memory
+ * {@link CategoryTree}; writes go to Mongo and then refresh the tree.
+ */
 @Service
 @Transactional
 public class CategoryService {
@@ -23,9 +31,16 @@ public class CategoryService {
     private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
 
     private final CategoryRepository categoryRepository;
+    private final ItemCountService itemCountService;
+    private final CategoryTreeCache categoryTreeCache;
+    private final MongoTemplate mongoTemplate;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ItemCountService itemCountService,
+                           CategoryTreeCache categoryTreeCache, MongoTemplate mongoTemplate) {
         this.categoryRepository = categoryRepository;
+        this.itemCountService = itemCountService;
+        this.categoryTreeCache = categoryTreeCache;
+        this.mongoTemplate = mongoTemplate;
     }
 
     public CategoryDto createCategory(CreateCategoryRequest request) {
@@ -35,182 +50,165 @@ public class CategoryService {
             throw new IllegalArgumentException("Category with name '" + request.getName() + "' already exists");
         }
 
-        Category parentCategory = null;
-        if (request.hasParentCategory()) {
-            parentCategory = categoryRepository.findById(request.getParentCategoryId())
-                    .orElseThrow(() -> CategoryNotFoundException.byId(request.getParentCategoryId()));
+        if (request.hasParentCategory() && !categoryRepository.existsById(request.getParentCategoryId())) {
+            throw CategoryNotFoundException.byId(request.getParentCategoryId());
         }
 
         Category category = new Category(request.getName(), request.getDescription(), request.getParentCategoryId());
         Category savedCategory = categoryRepository.save(category);
 
         logger.info("Category created successfully with ID: {}", savedCategory.getId());
-        return convertToDto(savedCategory, parentCategory);
+        return toDto(categoryTreeCache.refresh(), savedCategory.getId());
     }
 
-    @Transactional(readOnly = true)
-    public List<CategoryDto> getAllCategories(String sortBy) {
-        logger.info("Fetching all categories with sort: {}", sortBy);
-
-        Sort sort = createSort(sortBy);
-        List<Category> categories = categoryRepository.findAllActiveCategories(sort);
+    /**
+     * ETag of the category data currently served. Read it before the data: a
+     * response may then carry newer data than its ETag (and is revalidated in
+     * full next time), but never older.
+     */
+    public String getCategoriesETag() {
+        return categoryTreeCache.get().getETag();
+    }
 
-        return categories.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public List<CategoryDto> getAllCategories(String sortBy) {
+        logger.debug("Fetching all categories with sort: {}", sortBy);
+        return toDtos(categoryTreeCache.get().getActive(), createComparator(sortBy));
     }
 
-    @Transactional(readOnly = true)
     public CategoryDto getCategoryById(String categoryId) {
-        logger.info("Fetching category by ID: {}", categoryId);
+        logger.debug("Fetching category by ID: {}", categoryId);
 
-        Category category = categoryRepository.findById(categoryId)
+        CategoryTree.Node node = categoryTreeCache.get().find(categoryId)
                 .orElseThrow(() -> CategoryNotFoundException.byId(categoryId));
 
-        if (!category.isActive()) {
+        if (!node.isActive()) {
             throw new CategoryNotFoundException("Category with ID '" + categoryId + "' is not active", categoryId, null);
         }
 
-        return convertToDto(category);
+        return convertToDto(node);
     }
 
-    @Transactional(readOnly = true)
     public List<CategoryDto> getRootCategories(String sortBy) {
-        logger.info("Fetching root categories with sort: {}", sortBy);
-
-        Sort sort = createSort(sortBy);
-        List<Category> rootCategories = categoryRepository.findRootCategories(sort);
-
-        return rootCategories.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        logger.debug("Fetching root categories with sort: {}", sortBy);
+        return toDtos(categoryTreeCache.get().getRoots(), createComparator(sortBy));
     }
 
-    @Transactional(readOnly = true)
     public List<CategoryDto> getSubcategories(String parentCategoryId, String sortBy) {
-        logger.info("Fetching subcategories for parent ID: {}", parentCategoryId);
-
-        Category parentCategory = categoryRepository.findById(parentCategoryId)
-                .orElseThrow(() -> CategoryNotFoundException.byId(parentCategoryId));
+        logger.debug("Fetching subcategories for parent ID: {}", parentCategoryId);
 
-        Sort sort = createSort(sortBy);
-        List<Category> subcategories = categoryRepository.findByParentCategoryId(parentCategoryId, sort);
+        CategoryTree tree = categoryTreeCache.get();
+        if (tree.find(parentCategoryId).isEmpty()) {
+            throw CategoryNotFoundException.byId(parentCategoryId);
+        }
 
-        return subcategories.stream()
-                .map(category -> convertToDto(category, parentCategory))
-                .collect(Collectors.toList());
+        return toDtos(tree.getChildren(parentCategoryId), createComparator(sortBy));
     }
 
-    @Transactional(readOnly = true)
     public List<CategoryDto> searchCategories(String searchTerm, String sortBy) {
-        logger.info("Searching categories with term: {}", searchTerm);
-
-        Sort sort = createSort(sortBy);
-        List<Category> categories = categoryRepository.searchCategoriesByText(searchTerm, sort);
-
-        return categories.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        logger.debug("Searching categories with term: {}", searchTerm);
+        return toDtos(categoryTreeCache.get().search(searchTerm), createComparator(sortBy));
     }
 
-    @Transactional(readOnly = true)
     public List<CategoryDto> getPopularCategories(long minItemCount) {
-        logger.info("Fetching popular categories with minimum {} items", minItemCount);
+        logger.debug("Fetching popular categories with minimum {} items", minItemCount);
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "item_count");
-        List<Category> categories = categoryRepository.findCategoriesWithMinimumItems(minItemCount, sort);
-
-        return categories.stream()
-                .map(this::convertToDto)
+        List<CategoryTree.Node> categories = categoryTreeCache.get().getActive().stream()
+                .filter(node -> node.getItemCount() > minItemCount)
                 .collect(Collectors.toList());
+        return toDtos(categories, createComparator("item_count_desc"));
     }
 
     public CategoryDto updateCategoryStatus(String categoryId, boolean isActive) {
         logger.info("Updating category {} status to: {}", categoryId, isActive);
 
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> CategoryNotFoundException.byId(categoryId));
-
-        category.setActive(isActive);
-        Category updatedCategory = categoryRepository.save(category);
+        // Targeted $set so the item_count maintained with $inc is not written back
+        boolean found = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(categoryId)),
+                new Update().set("is_active", isActive).set("updated_at", LocalDateTime.now()),
+                Category.class).getMatchedCount() > 0;
+        if (!found) {
+            throw CategoryNotFoundException.byId(categoryId);
+        }
 
         logger.info("Category {} status updated successfully", categoryId);
-        return convertToDto(updatedCategory);
+        return toDto(categoryTreeCache.refresh(), categoryId);
     }
 
+    /**
+     * Increment a category's item count with an atomic, coalesced $inc.
+     * Unknown category IDs are a no-op (the update matches nothing).
+     */
     public void incrementItemCount(String categoryId) {
         logger.debug("Incrementing item count for category: {}", categoryId);
-
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> CategoryNotFoundException.byId(categoryId));
-
-        category.incrementItemCount();
-        categoryRepository.save(category);
+        itemCountService.adjustCategoryCount(categoryId, 1);
     }
 
+    /**
+     * Decrement a category's item count with an atomic, coalesced $inc.
+     * Unknown category IDs are a no-op (the update matches nothing).
+     */
     public void decrementItemCount(String categoryId) {
         logger.debug("Decrementing item count for category: {}", categoryId);
+        itemCountService.adjustCategoryCount(categoryId, -1);
+    }
 
-        Category category = categoryRepository.findById(categoryId)
+    private CategoryDto toDto(CategoryTree tree, String categoryId) {
+        return tree.find(categoryId).map(this::convertToDto)
                 .orElseThrow(() -> CategoryNotFoundException.byId(categoryId));
-
-        category.decrementItemCount();
-        categoryRepository.save(category);
     }
 
-    private CategoryDto convertToDto(Category category) {
-        return convertToDto(category, null);
+    private List<CategoryDto> toDtos(List<CategoryTree.Node> nodes, Comparator<CategoryTree.Node> order) {
+        return nodes.stream()
+                .sorted(order)
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
     }
 
-    private CategoryDto convertToDto(Category category, Category parentCategory) {
-        String parentCategoryName = null;
-        if (category.hasParent() && parentCategory != null) {
-            parentCategoryName = parentCategory.getName();
-        } else if (category.hasParent()) {
-            Optional<Category> parent = categoryRepository.findById(category.getParentCategoryId());
-            parentCategoryName = parent.map(Category::getName).orElse(null);
-        }
-
-        boolean hasSubcategories = !categoryRepository.findByParentCategoryId(
-                category.getId(), Sort.by("name")).isEmpty();
-
+    private CategoryDto convertToDto(CategoryTree.Node node) {
         return CategoryDto.builder()
-                .id(category.getId())
-                .name(category.getName())
-                .description(category.getDescription())
-                .parentCategoryId(category.getParentCategoryId())
-                .parentCategoryName(parentCategoryName)
-                .isActive(category.isActive())
-                .itemCount(category.getItemCount())
-                .hasSubcategories(hasSubcategories)
-                .createdAt(category.getCreatedAt())
-                .updatedAt(category.getUpdatedAt())
+                .id(node.getId())
+                .name(node.getName())
+                .description(node.getDescription())
+                .parentCategoryId(node.getParentCategoryId())
+                .parentCategoryName(node.getParentCategoryName())
+                .isActive(node.isActive())
+                .itemCount(node.getItemCount())
+                .subtreeItemCount(node.getSubtreeItemCount())
+                .hasSubcategories(node.hasSubcategories())
+                .createdAt(node.getCreatedAt())
+                .updatedAt(node.getUpdatedAt())
                 .build();
     }
 
-    private Sort createSort(String sortBy) {
-        if (sortBy == null || sortBy.isEmpty()) {
-            return Sort.by(Sort.Direction.ASC, "name");
-        }
+    private Comparator<CategoryTree.Node> createComparator(String sortBy) {
+        Comparator<CategoryTree.Node> byName = Comparator.comparing(CategoryTree.Node::getName,
+                Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        Comparator<CategoryTree.Node> byCreated = Comparator.comparing(CategoryTree.Node::getCreatedAt,
+                Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()));
+        Comparator<CategoryTree.Node> byItemCount = Comparator.comparingLong(CategoryTree.Node::getItemCount);
 
-        switch (sortBy.toLowerCase()) {
-            case "name":
-            case "name_asc":
-                return Sort.by(Sort.Direction.ASC, "name");
+        Comparator<CategoryTree.Node> order;
+        switch (sortBy == null ? "" : sortBy.toLowerCase()) {
             case "name_desc":
-                return Sort.by(Sort.Direction.DESC, "name");
+                order = byName.reversed();
+                break;
             case "created":
             case "created_desc":
-                return Sort.by(Sort.Direction.DESC, "created_at");
+                order = byCreated.reversed();
+                break;
             case "created_asc":
-                return Sort.by(Sort.Direction.ASC, "created_at");
+                order = byCreated;
+                break;
             case "popular":
             case "item_count_desc":
-                return Sort.by(Sort.Direction.DESC, "item_count");
+                order = byItemCount.reversed();
+                break;
             case "item_count_asc":
-                return Sort.by(Sort.Direction.ASC, "item_count");
+                order = byItemCount;
+                break;
             default:
-                return Sort.by(Sort.Direction.ASC, "name");
+                order = byName;
         }
+        // Ties in a stable order, so equal requests return equal bodies
+        return order.thenComparing(CategoryTree.Node::getId);
     }
 }
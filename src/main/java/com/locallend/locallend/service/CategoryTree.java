@@ -0,0 +1,235 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Category;
+import com.locallend.locallend.util.SearchTerms;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of all categories, linked into a tree of the active ones.
+ *
+ * Each node carries its parent's name, its active children and the item
+ * count of its active subtree, so every read is answered from memory. The
+ * ETag is a digest of the snapshot's content: it changes exactly when a
+ * category or a count served to clients changes.
+ */
+public final class CategoryTree {
+
+    private final Map<String, Node> nodesById;
+    private final List<Node> activeNodes;
+    private final List<Node> roots;
+    private final String eTag;
+
+    private CategoryTree(Map<String, Node> nodesById, List<Node> activeNodes, List<Node> roots, String eTag) {
+        this.nodesById = nodesById;
+        this.activeNodes = activeNodes;
+        this.roots = roots;
+        this.eTag = eTag;
+    }
+
+    /**
+     * Build a tree from every stored category (active or not).
+     */
+    public static CategoryTree build(Collection<Category> categories) {
+        Map<String, Category> byId = new HashMap<>();
+        for (Category category : categories) {
+            byId.put(category.getId(), category);
+        }
+        Map<String, List<String>> activeChildren = new HashMap<>();
+        for (Category category : categories) {
+            if (category.isActive() && category.hasParent()) {
+                activeChildren.computeIfAbsent(category.getParentCategoryId(), id -> new ArrayList<>())
+                        .add(category.getId());
+            }
+        }
+
+        Map<String, Long> subtreeCounts = new HashMap<>();
+        for (Category category : categories) {
+            if (category.isActive()) {
+                subtreeCount(category.getId(), byId, activeChildren, subtreeCounts, new HashSet<>());
+            }
+        }
+
+        Map<String, Node> nodes = new HashMap<>();
+        List<Node> active = new ArrayList<>();
+        List<Node> roots = new ArrayList<>();
+        for (Category category : categories) {
+            Category parent = category.hasParent() ? byId.get(category.getParentCategoryId()) : null;
+            List<String> children = activeChildren.getOrDefault(category.getId(), List.of());
+            Node node = new Node(category, parent != null ? parent.getName() : null, List.copyOf(children),
+                    subtreeCounts.getOrDefault(category.getId(), 0L));
+            nodes.put(node.getId(), node);
+            if (node.isActive()) {
+                active.add(node);
+                if (!category.hasParent()) {
+                    roots.add(node);
+                }
+            }
+        }
+        active.sort(Comparator.comparing(Node::getId));
+        roots.sort(Comparator.comparing(Node::getId));
+
+        return new CategoryTree(Collections.unmodifiableMap(nodes), Collections.unmodifiableList(active),
+                Collections.unmodifiableList(roots), digest(nodes));
+    }
+
+    private static long subtreeCount(String id, Map<String, Category> byId, Map<String, List<String>> activeChildren,
+                                     Map<String, Long> memo, Set<String> path) {
+        Long known = memo.get(id);
+        if (known != null) {
+            return known;
+        }
+        if (!path.add(id)) {
+            return 0L; // Corrupt parent links form a cycle: count each category once
+        }
+        long total = byId.get(id).getItemCount();
+        for (String childId : activeChildren.getOrDefault(id, List.of())) {
+            total += subtreeCount(childId, byId, activeChildren, memo, path);
+        }
+        path.remove(id);
+        memo.put(id, total);
+        return total;
+    }
+
+    private static String digest(Map<String, Node> nodes) {
+        List<Node> ordered = new ArrayList<>(nodes.values());
+        ordered.sort(Comparator.comparing(Node::getId));
+        StringBuilder content = new StringBuilder();
+        for (Node node : ordered) {
+            content.append(node.getId()).append('\u0000')
+                    .append(node.getName()).append('\u0000')
+                    .append(node.getDescription()).append('\u0000')
+                    .append(node.getParentCategoryId()).append('\u0000')
+                    .append(node.isActive()).append('\u0000')
+                    .append(node.getItemCount()).append('\u0000')
+                    .append(node.getSubtreeItemCount()).append('\u0000')
+                    .append(node.getCreatedAt()).append('\u0000')
+                    .append(node.getUpdatedAt()).append('\n');
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Quoted strong ETag of this snapshot. */
+    public String getETag() { return eTag; }
+
+    /** Any category, active or not. */
+    public Optional<Node> find(String categoryId) {
+        return Optional.ofNullable(nodesById.get(categoryId));
+    }
+
+    /** All active categories. */
+    public List<Node> getActive() { return activeNodes; }
+
+    /** Active categories without a parent. */
+    public List<Node> getRoots() { return roots; }
+
+    /** Active children of a category. */
+    public List<Node> getChildren(String parentId) {
+        Node parent = nodesById.get(parentId);
+        if (parent == null) {
+            return List.of();
+        }
+        List<Node> children = new ArrayList<>(parent.getChildIds().size());
+        for (String childId : parent.getChildIds()) {
+            children.add(nodesById.get(childId));
+        }
+        return children;
+    }
+
+    /**
+     * Active categories whose name or description has a word starting with
+     * any word of the text (accent and case insensitive).
+     */
+    public List<Node> search(String text) {
+        List<String> queryTerms = SearchTerms.tokenize(text);
+        List<Node> matches = new ArrayList<>();
+        if (queryTerms.isEmpty()) {
+            return matches;
+        }
+        for (Node node : activeNodes) {
+            if (node.matchesAny(queryTerms)) {
+                matches.add(node);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * One category with its resolved tree context.
+     */
+    public static final class Node {
+        private final String id;
+        private final String name;
+        private final String description;
+        private final String parentCategoryId;
+        private final String parentCategoryName;
+        private final boolean active;
+        private final long itemCount;
+        private final long subtreeItemCount;
+        private final List<String> childIds;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+        private final Set<String> terms;
+
+        private Node(Category category, String parentCategoryName, List<String> childIds, long subtreeItemCount) {
+            this.id = category.getId();
+            this.name = category.getName();
+            this.description = category.getDescription();
+            this.parentCategoryId = category.getParentCategoryId();
+            this.parentCategoryName = parentCategoryName;
+            this.active = category.isActive();
+            this.itemCount = category.getItemCount();
+            this.subtreeItemCount = subtreeItemCount;
+            this.childIds = childIds;
+            this.createdAt = category.getCreatedAt();
+            this.updatedAt = category.getUpdatedAt();
+            Set<String> terms = new LinkedHashSet<>(SearchTerms.tokenize(category.getName()));
+            terms.addAll(SearchTerms.tokenize(category.getDescription()));
+            this.terms = terms;
+        }
+
+        private boolean matchesAny(List<String> queryTerms) {
+            for (String term : terms) {
+                for (String queryTerm : queryTerms) {
+                    if (term.startsWith(queryTerm)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        public String getId() { return id; }
+        public String getName() { return name; }
+        public String getDescription() { return description; }
+        public String getParentCategoryId() { return parentCategoryId; }
+        public String getParentCategoryName() { return parentCategoryName; }
+        public boolean isActive() { return active; }
+        public long getItemCount() { return itemCount; }
+        public long getSubtreeItemCount() { return subtreeItemCount; }
+        public List<String> getChildIds() { return childIds; }
+        public boolean hasSubcategories() { return !childIds.isEmpty(); }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+    }
+}
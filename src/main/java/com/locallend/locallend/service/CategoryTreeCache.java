@@ -0,0 +1,101 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the current {@link CategoryTree}.
+ *
+ * The tree is loaded with one query on first use and replaced wholesale:
+ * synchronously after category writes on this node, lazily after item count
+ * flushes touch categories, and on a fixed delay to pick up changes made by
+ * other nodes. Concurrent reads of a stale tree share a single reload; if
+ * it fails, the previous tree keeps being served and the next read retries.
+ */
+@Service
+public class CategoryTreeCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree;
+    private volatile boolean stale;
+
+    public CategoryTreeCache(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * @return The current tree, loading it if it is missing or marked stale
+     */
+    public CategoryTree get() {
+        CategoryTree current = tree;
+        if (current != null && !stale) {
+            return current;
+        }
+        return reloadIfStale();
+    }
+
+    /**
+     * Reload the tree now.
+     */
+    public CategoryTree refresh() {
+        return load();
+    }
+
+    /**
+     * Mark the tree stale; the next read reloads it.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Periodic reload, so changes written by other nodes become visible.
+     */
+    @Scheduled(fixedDelayString = "${app.category-tree.refresh-interval-ms:30000}")
+    public void scheduledRefresh() {
+        if (tree == null) {
+            return; // Nothing has been read yet
+        }
+        try {
+            load();
+        } catch (Exception e) {
+            logger.warn("Category tree refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized CategoryTree reloadIfStale() {
+        CategoryTree current = tree;
+        if (current == null) {
+            return load();
+        }
+        if (!stale) {
+            return current; // Reloaded by another reader meanwhile
+        }
+        try {
+            return load();
+        } catch (Exception e) {
+            logger.warn("Could not reload category tree, serving the previous one: {}", e.getMessage());
+            return current;
+        }
+    }
+
+    private synchronized CategoryTree load() {
+        // Cleared before reading, so an invalidation during the load triggers another one
+        stale = false;
+        try {
+            CategoryTree loaded = CategoryTree.build(categoryRepository.findAll());
+            tree = loaded;
+            logger.debug("Loaded category tree with {} active categories", loaded.getActive().size());
+            return loaded;
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        }
+    }
+}
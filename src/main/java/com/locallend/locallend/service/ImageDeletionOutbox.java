@@ -0,0 +1,223 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.ImageDeletion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent outbox of Cloudinary images to delete.
+ *
+ * Item mutations only record the dropped image URLs here (one bulk write,
+ * whatever the number of images). A scheduled drain claims due entries in
+ * batches, deletes them with one Admin API call per batch, removes the entries
+ * that are gone and reschedules the rest with exponential backoff. Entries are
+ * claimed with a lease, so several application instances can drain the same
+ * collection and a crashed run's entries become due again.
+ */
+@Service
+public class ImageDeletionOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDeletionOutbox.class);
+
+    // How long a drain run holds the entries it claimed
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(5);
+
+    // Upper bound on batches per scheduled run, so one run cannot hog the scheduler
+    private static final int MAX_BATCHES_PER_RUN = 50;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ImageService imageService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBase;
+    private final Duration retryMax;
+
+    private final Counter deletedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public ImageDeletionOutbox(MongoTemplate mongoTemplate, ImageService imageService, MeterRegistry meterRegistry,
+                               @Value("${cloudinary.deletion.batch-size:100}") int batchSize,
+                               @Value("${cloudinary.deletion.max-attempts:8}") int maxAttempts,
+                               @Value("${cloudinary.deletion.retry-base-ms:30000}") long retryBaseMs,
+                               @Value("${cloudinary.deletion.retry-max-ms:3600000}") long retryMaxMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.imageService = imageService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBase = Duration.ofMillis(retryBaseMs);
+        this.retryMax = Duration.ofMillis(retryMaxMs);
+        this.deletedCounter = meterRegistry.counter("images.deletion.outbox", "result", "deleted");
+        this.retriedCounter = meterRegistry.counter("images.deletion.outbox", "result", "retried");
+        this.failedCounter = meterRegistry.counter("images.deletion.outbox", "result", "failed");
+    }
+
+    /**
+     * Queue images for deletion. Re-queueing an image that is already pending is a no-op.
+     * @param itemId Item the images belonged to (for diagnostics)
+     * @param imageUrls Cloudinary URLs to delete
+     * @return number of images queued
+     */
+    public int enqueue(String itemId, Collection<String> imageUrls) {
+        if (imageUrls == null || imageUrls.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ImageDeletion.class);
+        int queued = 0;
+        for (String imageUrl : imageUrls) {
+            String publicId = imageService.extractPublicIdFromUrl(imageUrl);
+            if (publicId == null) {
+                logger.warn("Not queueing image without a Cloudinary public ID: {}", imageUrl);
+                continue;
+            }
+            Update insert = new Update()
+                    .setOnInsert("image_url", imageUrl)
+                    .setOnInsert("item_id", itemId)
+                    .setOnInsert("attempts", 0)
+                    .setOnInsert("failed", false)
+                    .setOnInsert("next_attempt_at", now)
+                    .setOnInsert("created_date", now);
+            ops.upsert(Query.query(Criteria.where("public_id").is(publicId)), insert);
+            queued++;
+        }
+        if (queued > 0) {
+            ops.execute();
+            logger.info("Queued {} images of item {} for deletion", queued, itemId);
+        }
+        return queued;
+    }
+
+    /**
+     * Scheduled drain of the due entries.
+     */
+    @Scheduled(initialDelayString = "${cloudinary.deletion.poll-interval-ms:10000}",
+               fixedDelayString = "${cloudinary.deletion.poll-interval-ms:10000}")
+    public void drain() {
+        try {
+            for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+                if (drainBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Image deletion outbox drain failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim and process one batch of due entries.
+     * @return number of entries claimed
+     */
+    public int drainBatch() {
+        List<ImageDeletion> claimed = claimBatch();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<String> publicIds = claimed.stream().map(ImageDeletion::getPublicId).collect(Collectors.toList());
+        Map<String, String> results;
+        try {
+            results = imageService.deleteImagesInBulk(publicIds);
+        } catch (Exception e) {
+            logger.warn("Bulk delete of {} images failed: {}", publicIds.size(), e.getMessage());
+            reschedule(claimed, e.getMessage());
+            return claimed.size();
+        }
+
+        List<String> doneIds = new ArrayList<>();
+        List<ImageDeletion> retry = new ArrayList<>();
+        for (ImageDeletion entry : claimed) {
+            String result = results.get(entry.getPublicId());
+            // "not_found" means the image is already gone, which is just as good
+            if ("deleted".equals(result) || "not_found".equals(result)) {
+                doneIds.add(entry.getId());
+            } else {
+                retry.add(entry);
+            }
+        }
+        if (!doneIds.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(doneIds)), ImageDeletion.class);
+            deletedCounter.increment(doneIds.size());
+        }
+        if (!retry.isEmpty()) {
+            reschedule(retry, "Unexpected delete result");
+        }
+        logger.debug("Image deletion batch: {} deleted, {} rescheduled", doneIds.size(), retry.size());
+        return claimed.size();
+    }
+
+    private List<ImageDeletion> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria due = Criteria.where("failed").is(false).and("next_attempt_at").lte(now);
+
+        Query candidates = Query.query(due).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, ImageDeletion.class).stream()
+                .map(ImageDeletion::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Only entries still due are taken, so a concurrent drain cannot claim them twice
+        String token = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(ids).andOperator(due)),
+                new Update().set("claimed_by", token).set("next_attempt_at", now.plus(CLAIM_LEASE)),
+                ImageDeletion.class);
+        return mongoTemplate.find(Query.query(Criteria.where("claimed_by").is(token)), ImageDeletion.class);
+    }
+
+    private void reschedule(List<ImageDeletion> entries, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        String lastError = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ImageDeletion.class);
+        for (ImageDeletion entry : entries) {
+            int attempts = entry.getAttempts() + 1;
+            Update update = new Update()
+                    .set("attempts", attempts)
+                    .set("last_error", lastError)
+                    .unset("claimed_by");
+            if (attempts >= maxAttempts) {
+                update.set("failed", true);
+                failedCounter.increment();
+                logger.error("Giving up deleting image {} after {} attempts: {}", entry.getImageUrl(), attempts, lastError);
+            } else {
+                update.set("next_attempt_at", now.plus(backoff(attempts)));
+                retriedCounter.increment();
+            }
+            ops.updateOne(Query.query(Criteria.where("_id").is(entry.getId())), update);
+        }
+        ops.execute();
+    }
+
+    private Duration backoff(int attempts) {
+        // retryBase * 2^(attempts - 1), capped at retryMax
+        int shift = Math.min(attempts - 1, 30);
+        Duration delay = retryBase.multipliedBy(1L << shift);
+        return delay.compareTo(retryMax) > 0 ? retryMax : delay;
+    }
+}
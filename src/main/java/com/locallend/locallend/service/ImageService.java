@@ -4,11 +4,21 @@ import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Service for handling image uploads to Cloudinary.
@@ -20,6 +30,8 @@ public class ImageService {
     private static final Logger logger = LoggerFactory.getLogger(ImageService.class);
     
     private final Cloudinary cloudinary;
+    private final ExecutorService uploadExecutor;
+    private final long uploadTimeoutMs;
     
     // Allowed image formats
     private static final Set<String> ALLOWED_FORMATS = Set.of(
@@ -28,9 +40,19 @@ public class ImageService {
     
     // Maximum file size: 10MB
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
+    
+    // Admin API limit on public IDs per delete call
+    private static final int MAX_BULK_DELETE = 100;
+    
+    // How often to check whether a queued upload has started
+    private static final long QUEUED_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
 
-    public ImageService(Cloudinary cloudinary) {
+    public ImageService(Cloudinary cloudinary,
+                        @Qualifier("imageUploadExecutor") ExecutorService uploadExecutor,
+                        @Value("${cloudinary.upload.timeout-ms:30000}") long uploadTimeoutMs) {
         this.cloudinary = cloudinary;
+        this.uploadExecutor = uploadExecutor;
+        this.uploadTimeoutMs = uploadTimeoutMs;
     }
 
     /**
@@ -53,38 +75,97 @@ public class ImageService {
                 "fetch_format", "auto"
         );
         
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(), uploadParams);
-        String imageUrl = (String) uploadResult.get("secure_url");
-        
-        logger.info("Image uploaded successfully: {}", imageUrl);
-        return imageUrl;
+        // Hand Cloudinary a file so the body is streamed from disk rather than copied onto the heap
+        Path tempFile = Files.createTempFile("locallend-upload-", ".tmp");
+        try {
+            file.transferTo(tempFile.toFile());
+            Map uploadResult = cloudinary.uploader().upload(tempFile.toFile(), uploadParams);
+            String imageUrl = (String) uploadResult.get("secure_url");
+            
+            logger.info("Image uploaded successfully: {}", imageUrl);
+            return imageUrl;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
     }
 
     /**
      * Upload multiple images to Cloudinary.
+     * Files are uploaded concurrently on the bounded upload executor. Each upload
+     * may run for the configured timeout once it has started; time spent queued
+     * behind other uploads does not count. Failed or timed-out files are skipped.
      * @param files Array of image files to upload
      * @param folder The folder in Cloudinary to upload to
-     * @return List of secure URLs of uploaded images
+     * @return List of secure URLs of uploaded images, in input order
      * @throws IOException If upload fails
      */
     public List<String> uploadMultipleImages(MultipartFile[] files, String folder) throws IOException {
-        List<String> imageUrls = new ArrayList<>();
-        
+        List<MultipartFile> toUpload = new ArrayList<>();
         for (MultipartFile file : files) {
             if (file != null && !file.isEmpty()) {
-                try {
-                    String imageUrl = uploadImage(file, folder);
-                    imageUrls.add(imageUrl);
-                } catch (Exception e) {
-                    logger.error("Failed to upload image: {}", file.getOriginalFilename(), e);
-                    // Continue with other files even if one fails
-                }
+                toUpload.add(file);
+            }
+        }
+        
+        AtomicLongArray startedAt = new AtomicLongArray(toUpload.size());
+        List<Future<String>> uploads = new ArrayList<>(toUpload.size());
+        for (int i = 0; i < toUpload.size(); i++) {
+            int index = i;
+            MultipartFile file = toUpload.get(i);
+            uploads.add(uploadExecutor.submit(() -> {
+                startedAt.set(index, System.nanoTime());
+                return uploadImage(file, folder);
+            }));
+        }
+        
+        List<String> imageUrls = new ArrayList<>();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(uploadTimeoutMs);
+        // Upper bound for the whole batch, in case queued uploads never get a thread
+        long batchDeadline = System.nanoTime() + timeoutNanos * Math.max(1, uploads.size());
+        for (int i = 0; i < uploads.size(); i++) {
+            Future<String> upload = uploads.get(i);
+            String filename = toUpload.get(i).getOriginalFilename();
+            try {
+                imageUrls.add(awaitUpload(upload, startedAt, i, timeoutNanos, batchDeadline));
+            } catch (TimeoutException e) {
+                upload.cancel(true);
+                logger.error("Timed out uploading image: {}", filename);
+            } catch (ExecutionException e) {
+                // Continue with other files even if one fails
+                logger.error("Failed to upload image: {}", filename, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                uploads.forEach(f -> f.cancel(true));
+                throw new IOException("Interrupted while uploading images", e);
             }
         }
         
         return imageUrls;
     }
 
+    /**
+     * Wait for one upload, timing it from the moment it started running.
+     */
+    private String awaitUpload(Future<String> upload, AtomicLongArray startedAt, int index,
+                               long timeoutNanos, long batchDeadline)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        while (true) {
+            long now = System.nanoTime();
+            long started = startedAt.get(index);
+            long deadline = started != 0 ? Math.min(started + timeoutNanos, batchDeadline) : batchDeadline;
+            if (deadline - now <= 0) {
+                throw new TimeoutException();
+            }
+            // While still queued, re-check periodically so the per-upload clock starts on time
+            long wait = started != 0 ? deadline - now : Math.min(deadline - now, QUEUED_POLL_NANOS);
+            try {
+                return upload.get(wait, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Loop: either the upload has started since, or its deadline has now passed
+            }
+        }
+    }
+
     /**
      * Delete an image from Cloudinary using its public ID.
      * @param imageUrl The full Cloudinary URL of the image
@@ -118,13 +199,46 @@ public class ImageService {
      * @return Number of successfully deleted images
      */
     public int deleteMultipleImages(List<String> imageUrls) {
-        int deletedCount = 0;
+        List<String> publicIds = new ArrayList<>();
         for (String imageUrl : imageUrls) {
-            if (deleteImage(imageUrl)) {
-                deletedCount++;
+            String publicId = extractPublicIdFromUrl(imageUrl);
+            if (publicId == null) {
+                logger.warn("Could not extract public ID from URL: {}", imageUrl);
+            } else {
+                publicIds.add(publicId);
+            }
+        }
+        try {
+            Map<String, String> results = deleteImagesInBulk(publicIds);
+            return (int) results.values().stream().filter("deleted"::equals).count();
+        } catch (Exception e) {
+            logger.error("Failed to delete {} images", publicIds.size(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Delete images by public ID through the Admin API, up to
+     * {@value #MAX_BULK_DELETE} per call.
+     * @param publicIds Public IDs to delete
+     * @return Cloudinary's per-ID result ("deleted", "not_found", ...); IDs missing
+     *         from the map were not processed
+     * @throws Exception If a Cloudinary call fails
+     */
+    public Map<String, String> deleteImagesInBulk(List<String> publicIds) throws Exception {
+        Map<String, String> results = new HashMap<>();
+        for (int from = 0; from < publicIds.size(); from += MAX_BULK_DELETE) {
+            List<String> chunk = publicIds.subList(from, Math.min(from + MAX_BULK_DELETE, publicIds.size()));
+            Map<?, ?> response = cloudinary.api().deleteResources(chunk, ObjectUtils.emptyMap());
+            Object deleted = response.get("deleted");
+            if (deleted instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) deleted).entrySet()) {
+                    results.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+                }
             }
         }
-        return deletedCount;
+        logger.debug("Bulk delete processed {} public IDs", publicIds.size());
+        return results;
     }
 
     /**
@@ -161,7 +275,7 @@ public class ImageService {
      * @param imageUrl The full Cloudinary URL
      * @return The public ID, or null if extraction fails
      */
-    private String extractPublicIdFromUrl(String imageUrl) {
+    public String extractPublicIdFromUrl(String imageUrl) {
         try {
             if (imageUrl == null || !imageUrl.contains("cloudinary.com")) {
                 return null;
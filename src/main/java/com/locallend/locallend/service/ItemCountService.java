@@ -0,0 +1,282 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Category;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.util.DbRefUtils;
+import com.mongodb.DBRef;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Denormalized active-item counters on users (item_count) and categories
+ * (item_count).
+ *
+ * Adjustments are buffered per document and flushed on a short fixed delay as
+ * one unordered bulk of $inc updates per collection, so a burst of item writes
+ * for the same owner or category costs a single update and concurrent writers
+ * never lose increments. A periodic reconciliation repairs drift (e.g. deltas
+ * lost in a crash) without creating any of its own:
+ * <ol>
+ *   <li>one aggregation counts the active items per document, and counters
+ *       that differ are read as suspects;</li>
+ *   <li>each suspect is recounted on its own, after its counter was read;</li>
+ *   <li>after a settle delay longer than the flush interval, the recount is
+ *       written only if the counter still holds the value read in step 1.</li>
+ * </ol>
+ * Any item write the recount saw is flushed by its node within the settle
+ * delay and changes the counter, so the repair is skipped rather than counting
+ * that delta twice; writes after the recount are not in it and are applied on
+ * top by their $inc. A skipped counter is retried on the next run. A delta
+ * whose flush keeps failing for longer than the settle delay can still be
+ * counted twice until the next run.
+ */
+@Service
+public class ItemCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemCountService.class);
+
+    static final String RECONCILE_JOB_NAME = "item-count-reconcile";
+
+    private static final Duration RECONCILE_LEASE = Duration.ofMinutes(30);
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final CategoryTreeCache categoryTreeCache;
+    private final long settleDelayMs;
+
+    // Pending deltas by document id; removed atomically when flushed
+    private final ConcurrentMap<String, Long> pendingOwnerDeltas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> pendingCategoryDeltas = new ConcurrentHashMap<>();
+
+    public ItemCountService(MongoTemplate mongoTemplate, JobLeaseService jobLeaseService,
+                            CategoryTreeCache categoryTreeCache,
+                            @Value("${app.item-counts.reconcile-settle-ms:5000}") long settleDelayMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.jobLeaseService = jobLeaseService;
+        this.categoryTreeCache = categoryTreeCache;
+        this.settleDelayMs = settleDelayMs;
+    }
+
+    /**
+     * Adjust a user's item count.
+     * @param userId Owner user ID (ignored if null)
+     * @param delta Change to apply
+     */
+    public void adjustOwnerCount(String userId, long delta) {
+        buffer(pendingOwnerDeltas, userId, delta);
+    }
+
+    /**
+     * Adjust a category's item count.
+     * @param categoryId Category ID (ignored if null)
+     * @param delta Change to apply
+     */
+    public void adjustCategoryCount(String categoryId, long delta) {
+        buffer(pendingCategoryDeltas, categoryId, delta);
+    }
+
+    private static void buffer(ConcurrentMap<String, Long> pending, String id, long delta) {
+        if (id == null || delta == 0) {
+            return;
+        }
+        pending.merge(id, delta, Long::sum);
+    }
+
+    /**
+     * Write the buffered deltas.
+     */
+    @Scheduled(fixedDelayString = "${app.item-counts.flush-interval-ms:500}")
+    @PreDestroy
+    public void flush() {
+        flush(pendingOwnerDeltas, User.class);
+        if (flush(pendingCategoryDeltas, Category.class)) {
+            categoryTreeCache.invalidate();
+        }
+    }
+
+    private boolean flush(ConcurrentMap<String, Long> pending, Class<?> type) {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        Map<String, Long> drained = new HashMap<>();
+        for (String id : pending.keySet()) {
+            // remove() is atomic with merge(): a delta arriving later starts a new entry
+            Long delta = pending.remove(id);
+            if (delta != null && delta != 0) {
+                drained.put(id, delta);
+            }
+        }
+        if (drained.isEmpty()) {
+            return false;
+        }
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        drained.forEach((id, delta) ->
+                ops.updateOne(Query.query(Criteria.where("_id").is(id)), new Update().inc("item_count", delta)));
+        try {
+            ops.execute();
+            return true;
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            drained.forEach((id, delta) -> pending.merge(id, delta, Long::sum));
+            logger.warn("Failed to flush {} {} item counts: {}", drained.size(), type.getSimpleName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Scheduled reconciliation, run by the node holding the lease.
+     */
+    @Scheduled(initialDelayString = "${app.item-counts.reconcile-interval-ms:3600000}",
+               fixedDelayString = "${app.item-counts.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        try {
+            if (!jobLeaseService.tryAcquire(RECONCILE_JOB_NAME, RECONCILE_LEASE)) {
+                return;
+            }
+            try {
+                reconcile();
+            } finally {
+                jobLeaseService.release(RECONCILE_JOB_NAME);
+            }
+        } catch (Exception e) {
+            logger.warn("Item count reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recount active items per owner and per category and correct the stored
+     * counters that differ. Blocks for the settle delay when there is drift.
+     * @return number of user and category documents corrected
+     */
+    public int reconcile() {
+        flush();
+        int repairedCategories = reconcile("category", Category.class);
+        if (repairedCategories > 0) {
+            categoryTreeCache.invalidate();
+        }
+        int repaired = reconcile("owner", User.class) + repairedCategories;
+        if (repaired > 0) {
+            logger.info("Reconciled item counts: repaired {} documents", repaired);
+        }
+        return repaired;
+    }
+
+    private int reconcile(String referenceField, Class<?> type) {
+        Map<String, Long> actual = countActiveItemsBy(referenceField);
+
+        // Counters that look wrong, with the value read; the aggregation above may already be stale
+        Map<String, Number> suspects = new HashMap<>();
+        Query query = new Query();
+        query.fields().include("item_count");
+        try (Stream<Document> stored = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type))) {
+            Iterator<Document> it = stored.iterator();
+            while (it.hasNext()) {
+                Document doc = it.next();
+                String id = doc.get("_id").toString();
+                Number current = doc.get("item_count", Number.class);
+                if (current == null || current.longValue() != actual.getOrDefault(id, 0L)) {
+                    suspects.put(id, current);
+                }
+            }
+        }
+        if (suspects.isEmpty()) {
+            return 0;
+        }
+
+        // Recount each suspect on its own, after its counter was read
+        Map<String, Long> recounted = new HashMap<>();
+        for (String id : suspects.keySet()) {
+            Query active = Query.query(Criteria.where(referenceField + ".$id").is(DbRefUtils.refId(id))
+                    .and("is_active").is(true));
+            recounted.put(id, mongoTemplate.count(active, Item.class));
+        }
+
+        // Every node flushes the deltas it buffered before the recount within the settle delay,
+        // changing the counter, so an unchanged counter holds no delta the recount already saw
+        try {
+            Thread.sleep(settleDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        // This node's scheduled flush may share the thread this job runs on, so flush here
+        flush();
+
+        int repaired = 0;
+        BulkOperations ops = null;
+        int batch = 0;
+        for (Map.Entry<String, Number> suspect : suspects.entrySet()) {
+            String id = suspect.getKey();
+            Number current = suspect.getValue();
+            long expected = recounted.get(id);
+            if (current != null && current.longValue() == expected) {
+                continue;
+            }
+            if (ops == null) {
+                ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+            }
+            // Only if unchanged since read: a $inc flushed meanwhile must not be overwritten
+            ops.updateOne(Query.query(Criteria.where("_id").is(id)
+                            .and("item_count").is(current != null ? current.longValue() : null)),
+                    Update.update("item_count", expected));
+            if (++batch == BULK_CHUNK_SIZE) {
+                repaired += ops.execute().getModifiedCount();
+                ops = null;
+                batch = 0;
+            }
+        }
+        if (ops != null) {
+            repaired += ops.execute().getModifiedCount();
+        }
+        return repaired;
+    }
+
+    private Map<String, Long> countActiveItemsBy(String referenceField) {
+        // Grouping on the stored DBRef sub-document keeps the pipeline free of lookups
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("is_active").is(true)),
+                Aggregation.group(referenceField).count().as("count"));
+
+        Map<String, Long> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Item.class, Document.class)) {
+            String id = referencedId(row.get("_id"));
+            if (id != null) {
+                counts.merge(id, ((Number) row.get("count")).longValue(), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static String referencedId(Object ref) {
+        if (ref instanceof DBRef dbRef) {
+            return dbRef.getId() != null ? dbRef.getId().toString() : null;
+        }
+        if (ref instanceof Document doc && doc.get("$id") != null) {
+            return doc.get("$id").toString();
+        }
+        return null;
+    }
+}
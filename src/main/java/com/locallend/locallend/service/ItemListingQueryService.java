@@ -0,0 +1,234 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.enums.ItemStatus;
+import com.locallend.locallend.util.DbRefUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset-paged item listings.
+ *
+ * Pages are ordered by one sort key plus _id and addressed by an opaque
+ * cursor holding the last item's (sort value, id), so fetching a page costs
+ * the same at any depth and no count query is run. A capped total can be
+ * requested separately for clients that want an approximate result count.
+ */
+@Service
+public class ItemListingQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Counting stops here: a total equal to the cap means "at least this many"
+    public static final int TOTAL_ESTIMATE_CAP = 10_000;
+
+    private static final String CURSOR_SEPARATOR = "|";
+    private static final String NULL_VALUE = "~";
+
+    private final MongoTemplate mongoTemplate;
+
+    public ItemListingQueryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Sort keys supported by keyset paging, by item property name.
+     */
+    public enum SortKey {
+        NAME("name", "name", Item::getName),
+        CREATED_AT("createdAt", "created_at", Item::getCreatedAt),
+        AVERAGE_RATING("averageRating", "average_rating", Item::getAverageRating),
+        DEPOSIT("deposit", "deposit", Item::getDeposit);
+
+        private final String property;
+        private final String field;
+        private final Function<Item, Object> getter;
+
+        SortKey(String property, String field, Function<Item, Object> getter) {
+            this.property = property;
+            this.field = field;
+            this.getter = getter;
+        }
+
+        /**
+         * @param property Item property name, e.g. "createdAt"
+         * @return Matching sort key
+         * @throws IllegalArgumentException If the property cannot be used for keyset paging
+         */
+        public static SortKey fromProperty(String property) {
+            return Arrays.stream(values())
+                    .filter(key -> key.property.equals(property))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported sort for cursor paging: " + property));
+        }
+
+        private String format(Object value) {
+            return value instanceof LocalDateTime || value instanceof String ? value.toString()
+                    : Double.toString(((Number) value).doubleValue());
+        }
+
+        private Object parse(String raw) {
+            switch (this) {
+                case NAME:
+                    return raw;
+                case CREATED_AT:
+                    return LocalDateTime.parse(raw);
+                default:
+                    return Double.parseDouble(raw);
+            }
+        }
+    }
+
+    /**
+     * Active items with the given status.
+     * @param status Item status
+     * @param minRating Minimum average rating, or null for no minimum
+     */
+    public Result findActiveByStatus(ItemStatus status, Double minRating, SortKey sortKey, Sort.Direction direction,
+                                     String cursor, int size, boolean withTotal) {
+        Criteria filter = Criteria.where("is_active").is(true).and("status").is(status.name());
+        if (minRating != null) {
+            filter.and("average_rating").gte(minRating);
+        }
+        return find(filter, sortKey, direction, cursor, size, withTotal);
+    }
+
+    /**
+     * Active items of a category, newest first.
+     */
+    public Result findActiveByCategory(String categoryId, String cursor, int size, boolean withTotal) {
+        Criteria filter = Criteria.where("category.$id").is(DbRefUtils.refId(categoryId)).and("is_active").is(true);
+        return find(filter, SortKey.CREATED_AT, Sort.Direction.DESC, cursor, size, withTotal);
+    }
+
+    /**
+     * Active items of an owner, newest first.
+     */
+    public Result findActiveByOwner(String ownerId, String cursor, int size, boolean withTotal) {
+        Criteria filter = Criteria.where("owner.$id").is(DbRefUtils.refId(ownerId)).and("is_active").is(true);
+        return find(filter, SortKey.CREATED_AT, Sort.Direction.DESC, cursor, size, withTotal);
+    }
+
+    private Result find(Criteria filter, SortKey sortKey, Sort.Direction direction,
+                        String cursor, int size, boolean withTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Criteria criteria = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            Position after = decodeCursor(cursor, sortKey, direction);
+            criteria = new Criteria().andOperator(filter, after(sortKey.field, direction, after));
+        }
+
+        // One extra row tells whether another page exists
+        Query query = new Query(criteria)
+                .with(Sort.by(direction, sortKey.field, "_id"))
+                .limit(limit + 1);
+        List<Item> items = mongoTemplate.find(query, Item.class);
+
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            nextCursor = encodeCursor(items.get(limit - 1), sortKey, direction);
+        }
+
+        Long totalEstimate = null;
+        if (withTotal) {
+            totalEstimate = mongoTemplate.count(new Query(filter).limit(TOTAL_ESTIMATE_CAP), Item.class);
+        }
+        return new Result(items, nextCursor, totalEstimate);
+    }
+
+    /**
+     * Rows strictly after the cursor position in (field, _id) order. Mongo
+     * sorts null before any value, and range operators never match null, so
+     * null sort values are handled explicitly.
+     */
+    private static Criteria after(String field, Sort.Direction direction, Position after) {
+        boolean ascending = direction.isAscending();
+        Criteria sameValueLaterId = ascending
+                ? Criteria.where(field).is(after.value).and("_id").gt(after.id)
+                : Criteria.where(field).is(after.value).and("_id").lt(after.id);
+        if (after.value == null) {
+            return ascending
+                    ? new Criteria().orOperator(sameValueLaterId, Criteria.where(field).ne(null))
+                    : sameValueLaterId;
+        }
+        return ascending
+                ? new Criteria().orOperator(Criteria.where(field).gt(after.value), sameValueLaterId)
+                : new Criteria().orOperator(Criteria.where(field).lt(after.value), sameValueLaterId,
+                        Criteria.where(field).is(null));
+    }
+
+    private static String encodeCursor(Item last, SortKey sortKey, Sort.Direction direction) {
+        Object value = sortKey.getter.apply(last);
+        // The value goes last: it is the only part that may contain the separator
+        String raw = sortKey.name() + CURSOR_SEPARATOR + direction.name() + CURSOR_SEPARATOR + last.getId()
+                + CURSOR_SEPARATOR + (value == null ? NULL_VALUE : "=" + sortKey.format(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor, SortKey sortKey, Sort.Direction direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + CURSOR_SEPARATOR, 4);
+            if (parts.length != 4 || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (!sortKey.name().equals(parts[0]) || !direction.name().equals(parts[1])) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            Object value;
+            if (NULL_VALUE.equals(parts[3])) {
+                value = null;
+            } else if (parts[3].startsWith("=")) {
+                value = sortKey.parse(parts[3].substring(1));
+            } else {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Position(value, DbRefUtils.refId(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * One page of a listing.
+     */
+    public static final class Result {
+        private final List<Item> items;
+        private final String nextCursor;
+        private final Long totalEstimate;
+
+        private Result(List<Item> items, String nextCursor, Long totalEstimate) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.totalEstimate = totalEstimate;
+        }
+
+        public List<Item> getItems() { return items; }
+        public String getNextCursor() { return nextCursor; }
+        public Long getTotalEstimate() { return totalEstimate; }
+    }
+
+    private static final class Position {
+        private final Object value;
+        private final Object id;
+
+        private Position(Object value, Object id) {
+            this.value = value;
+            this.id = id;
+        }
+    }
+}
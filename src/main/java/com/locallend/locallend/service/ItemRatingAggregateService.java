@@ -0,0 +1,228 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.repository.RatingRepository;
+import com.locallend.locallend.repository.RatingRepository.RatingStatsAggregate;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the rating aggregates stored on item documents (rating_count,
+ * rating_sum, rating_histogram and average_rating).
+ *
+ * Rating changes are applied as atomic $inc updates on the item, so a write
+ * costs O(1) regardless of how many ratings the item has, and reading an
+ * item's statistics is a single projected lookup. The average is derived from
+ * the incremented totals and written with a filter on those totals: a
+ * concurrent change makes the write a no-op, and that change writes the
+ * average of its own, newer totals. Items without aggregates (saved before
+ * they were introduced) are rebuilt from their ratings.
+ */
+@Service
+public class ItemRatingAggregateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemRatingAggregateService.class);
+
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final RatingRepository ratingRepository;
+
+    public ItemRatingAggregateService(MongoTemplate mongoTemplate, RatingRepository ratingRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.ratingRepository = ratingRepository;
+    }
+
+    /**
+     * Account for a new item rating.
+     * @param itemId Item ID
+     * @param value Star value (1-5)
+     */
+    public void recordAdded(String itemId, int value) {
+        apply(itemId, new Update().inc("rating_count", 1).inc("rating_sum", value)
+                .inc("rating_histogram." + (value - 1), 1));
+    }
+
+    /**
+     * Account for an item rating whose star value changed.
+     * @param itemId Item ID
+     * @param previousValue Value before the update
+     * @param value New value
+     */
+    public void recordValueChanged(String itemId, int previousValue, int value) {
+        if (previousValue == value) {
+            return;
+        }
+        apply(itemId, new Update().inc("rating_sum", value - previousValue)
+                .inc("rating_histogram." + (previousValue - 1), -1)
+                .inc("rating_histogram." + (value - 1), 1));
+    }
+
+    /**
+     * Account for a deleted item rating.
+     * @param itemId Item ID
+     * @param value Star value of the deleted rating
+     */
+    public void recordRemoved(String itemId, int value) {
+        apply(itemId, new Update().inc("rating_count", -1).inc("rating_sum", -value)
+                .inc("rating_histogram." + (value - 1), -1));
+    }
+
+    /**
+     * Get an item's rating aggregates, building them from its ratings if missing.
+     * @param itemId Item ID
+     * @return Item holding only the aggregate fields, or null if the item does not exist
+     */
+    public Item getAggregates(String itemId) {
+        return getAggregates(List.of(itemId)).get(itemId);
+    }
+
+    /**
+     * Get the rating aggregates of several items in one query, building any
+     * that are missing from the items' ratings.
+     * @param itemIds Item IDs
+     * @return Items holding only the aggregate fields, by ID; items that do not exist are absent
+     */
+    public Map<String, Item> getAggregates(Collection<String> itemIds) {
+        Map<String, Item> aggregates = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return aggregates;
+        }
+        Query query = new Query(Criteria.where("_id").in(itemIds));
+        query.fields().include("rating_count").include("rating_sum")
+                .include("rating_histogram").include("average_rating");
+        List<String> missing = new ArrayList<>();
+        // Read raw documents: a mapped Item would hide missing fields behind its defaults
+        for (Document stored : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Item.class))) {
+            Item item = mongoTemplate.getConverter().read(Item.class, stored);
+            if (stored.containsKey("rating_count")) {
+                aggregates.put(item.getId(), item);
+            } else {
+                missing.add(item.getId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            rebuild(missing);
+            Query rebuilt = new Query(Criteria.where("_id").in(missing));
+            rebuilt.fields().include("rating_count").include("rating_sum")
+                    .include("rating_histogram").include("average_rating");
+            mongoTemplate.find(rebuilt, Item.class).forEach(item -> aggregates.put(item.getId(), item));
+        }
+        return aggregates;
+    }
+
+    /**
+     * Recompute the aggregates of the given items from their ratings.
+     * @param itemIds Item IDs
+     * @return number of items written
+     */
+    public int rebuild(Collection<String> itemIds) {
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        Map<String, Totals> totalsByItem = new HashMap<>();
+        for (String itemId : itemIds) {
+            totalsByItem.put(itemId, new Totals());
+        }
+
+        // Star counts per item from one aggregation: the ratings themselves are never loaded
+        for (RatingStatsAggregate stats : ratingRepository.calculateItemRatingStats(itemIds)) {
+            Totals totals = totalsByItem.get(stats.getId());
+            if (totals != null) {
+                totals.add(1, stats.getOneStarCount());
+                totals.add(2, stats.getTwoStarCount());
+                totals.add(3, stats.getThreeStarCount());
+                totals.add(4, stats.getFourStarCount());
+                totals.add(5, stats.getFiveStarCount());
+            }
+        }
+
+        BulkOperations ops = null;
+        int batch = 0;
+        for (Map.Entry<String, Totals> entry : totalsByItem.entrySet()) {
+            if (ops == null) {
+                ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Item.class);
+            }
+            ops.updateOne(Query.query(Criteria.where("_id").is(entry.getKey())), entry.getValue().toUpdate());
+            if (++batch == BULK_CHUNK_SIZE) {
+                ops.execute();
+                ops = null;
+                batch = 0;
+            }
+        }
+        if (ops != null) {
+            ops.execute();
+        }
+        logger.debug("Rebuilt rating aggregates for {} items", totalsByItem.size());
+        return totalsByItem.size();
+    }
+
+    private void apply(String itemId, Update increments) {
+        // Only items that already carry aggregates are incremented; $inc on a missing histogram would not create an array
+        Query query = new Query(Criteria.where("_id").is(itemId).and("rating_count").exists(true));
+        query.fields().include("rating_count").include("rating_sum");
+        Item updated = mongoTemplate.findAndModify(query, increments,
+                FindAndModifyOptions.options().returnNew(true), Item.class);
+        if (updated == null) {
+            // No aggregates yet: build them from the ratings, which already include this change
+            rebuild(List.of(itemId));
+            return;
+        }
+
+        Query unchanged = new Query(Criteria.where("_id").is(itemId)
+                .and("rating_count").is(updated.getRatingCount())
+                .and("rating_sum").is(updated.getRatingSum()));
+        mongoTemplate.updateFirst(unchanged,
+                Update.update("average_rating", average(updated.getRatingCount(), updated.getRatingSum())), Item.class);
+    }
+
+    private static double average(long count, long sum) {
+        return count > 0 ? (double) sum / count : 0.0;
+    }
+
+    /**
+     * Absolute aggregate values of one item, accumulated from grouped ratings.
+     */
+    private static class Totals {
+        private int count;
+        private long sum;
+        private final int[] histogram = new int[5];
+
+        void add(int value, Long ratings) {
+            if (ratings == null) {
+                return;
+            }
+            count += ratings.intValue();
+            sum += (long) value * ratings;
+            if (value >= 1 && value <= 5) {
+                histogram[value - 1] += ratings.intValue();
+            }
+        }
+
+        Update toUpdate() {
+            List<Integer> counts = new ArrayList<>(histogram.length);
+            for (int c : histogram) {
+                counts.add(c);
+            }
+            return new Update()
+                    .set("rating_count", count)
+                    .set("rating_sum", sum)
+                    .set("rating_histogram", counts)
+                    .set("average_rating", average(count, sum));
+        }
+    }
+}
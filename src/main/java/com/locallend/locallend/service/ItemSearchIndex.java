@@ -0,0 +1,345 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over active items' name and description.
+ *
+ * Search terms are tokenized the same way as documents, every query token is
+ * matched as a prefix against the term dictionary, a document must match all
+ * query tokens, and hits are ranked with BM25 (name tokens count double).
+ * The index is built at startup and kept current by ItemService on every
+ * mutation, so searches only touch Mongo to hydrate the requested page.
+ *
+ * The index lives in each JVM and only sees the mutations made through that
+ * node's ItemService. With several nodes, changes made elsewhere show up
+ * after the next periodic rebuild (see ItemSearchIndexInitializer). Until
+ * then, search may return stale or missing results for those items. Inactive
+ * hits are dropped when the page is hydrated.
+ */
+@Component
+public class ItemSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    // BM25 tuning constants
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_BOOST = 2;
+
+    // Upper bound on dictionary terms a single query prefix may expand to; the most frequent terms are kept
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment current = new Segment();
+
+    // Mutations seen while a rebuild is streaming; replayed onto the new segment (null value = removal)
+    private Map<String, Item> pendingDuringRebuild;
+
+    private volatile boolean ready = false;
+
+    /**
+     * Whether the initial build has completed. Until then callers should fall
+     * back to the database query.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replace the whole index with the given items. The new segment is built
+     * without holding the lock, so searches and item writes are not blocked
+     * while the source cursor is read.
+     * @param items Items to index (typically a Mongo cursor stream)
+     * @return number of indexed items
+     */
+    public int rebuild(Stream<Item> items) {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        try {
+            items.forEach(fresh::add);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, Item> change : pendingDuringRebuild.entrySet()) {
+                fresh.remove(change.getKey());
+                if (change.getValue() != null) {
+                    fresh.add(change.getValue());
+                }
+            }
+            pendingDuringRebuild = null;
+            current = fresh;
+            ready = true;
+            return fresh.documents.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index or re-index an item. Inactive items are removed from the index.
+     * @param item Item as persisted
+     */
+    public void index(Item item) {
+        if (item == null || item.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            current.remove(item.getId());
+            current.add(item);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.put(item.getId(), item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an item from the index.
+     * @param itemId Item ID
+     */
+    public void remove(String itemId) {
+        if (itemId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            current.remove(itemId);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.put(itemId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search the index.
+     * @param query Free-text query
+     * @return Matching item IDs ordered by descending relevance
+     */
+    public List<String> search(String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Segment segment = current;
+            int docCount = segment.documents.size();
+            if (docCount == 0) {
+                return Collections.emptyList();
+            }
+            double avgLength = (double) segment.totalLength / docCount;
+
+            Map<String, Double> scores = null;
+            for (String token : queryTokens) {
+                Map<String, Double> tokenScores = segment.score(token, docCount, avgLength);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Every query token must match (AND semantics)
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<String, Double> e : scores.entrySet()) {
+                        e.setValue(e.getValue() + tokenScores.get(e.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<String, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> {
+                int cmp = Double.compare(b.getValue(), a.getValue());
+                return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+            });
+            List<String> ids = new ArrayList<>(ranked.size());
+            for (Map.Entry<String, Double> e : ranked) {
+                ids.add(e.getKey());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split text into lower-case alphanumeric tokens.
+     * @param text Text to tokenize
+     * @return Tokens in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Postings, per-document term maps and length statistics. Not thread-safe;
+     * guarded by the enclosing index's lock once published.
+     */
+    private static class Segment {
+        // term -> (itemId -> weighted term frequency)
+        private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+        // itemId -> (term -> weighted term frequency), kept to remove stale postings on update
+        private final Map<String, Map<String, Integer>> documents = new HashMap<>();
+        // itemId -> weighted document length
+        private final Map<String, Integer> documentLengths = new HashMap<>();
+        private long totalLength = 0;
+
+        void add(Item item) {
+            if (item.getId() == null || !item.isActive()) {
+                return;
+            }
+            Map<String, Integer> terms = new HashMap<>();
+            for (String token : tokenize(item.getName())) {
+                terms.merge(token, NAME_BOOST, Integer::sum);
+            }
+            for (String token : tokenize(item.getDescription())) {
+                terms.merge(token, 1, Integer::sum);
+            }
+            if (terms.isEmpty()) {
+                return;
+            }
+
+            int length = 0;
+            for (Map.Entry<String, Integer> e : terms.entrySet()) {
+                postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(item.getId(), e.getValue());
+                length += e.getValue();
+            }
+            documents.put(item.getId(), terms);
+            documentLengths.put(item.getId(), length);
+            totalLength += length;
+        }
+
+        void remove(String itemId) {
+            Map<String, Integer> terms = documents.remove(itemId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                Map<String, Integer> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(itemId);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            Integer length = documentLengths.remove(itemId);
+            if (length != null) {
+                totalLength -= length;
+            }
+        }
+
+        Map<String, Double> score(String token, int docCount, double avgLength) {
+            Map<String, Double> tokenScores = new HashMap<>();
+            for (Map<String, Integer> docs : expand(token)) {
+                double idf = Math.log(1.0 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<String, Integer> posting : docs.entrySet()) {
+                    int tf = posting.getValue();
+                    int length = documentLengths.get(posting.getKey());
+                    double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+                    tokenScores.merge(posting.getKey(), idf * norm, Double::sum);
+                }
+            }
+            return tokenScores;
+        }
+
+        /**
+         * Postings of the dictionary terms starting with the token. Short
+         * prefixes can match far more terms than are worth scoring; then the
+         * exact term and the terms in the most documents are kept.
+         */
+        private List<Map<String, Integer>> expand(String token) {
+            NavigableMap<String, Map<String, Integer>> matches =
+                    postings.subMap(token, true, token + Character.MAX_VALUE, false);
+            if (matches.size() <= MAX_PREFIX_EXPANSIONS) {
+                return new ArrayList<>(matches.values());
+            }
+
+            // Min-heap on document frequency holding the best expansions seen so far
+            PriorityQueue<Map<String, Integer>> top = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS,
+                    Comparator.comparingInt(Map::size));
+            Map<String, Integer> exact = matches.get(token);
+            for (Map<String, Integer> docs : matches.values()) {
+                if (docs == exact) {
+                    continue;
+                }
+                if (top.size() < MAX_PREFIX_EXPANSIONS - (exact != null ? 1 : 0)) {
+                    top.add(docs);
+                } else if (docs.size() > top.peek().size()) {
+                    top.poll();
+                    top.add(docs);
+                }
+            }
+            List<Map<String, Integer>> expanded = new ArrayList<>(top);
+            if (exact != null) {
+                expanded.add(exact);
+            }
+            logger.info("Prefix '{}' matches {} terms; scoring the {} most frequent",
+                    token, matches.size(), expanded.size());
+            return expanded;
+        }
+    }
+}
@@ -3,8 +3,10 @@ package com.locallend.locallend.service;
 import com.locallend.locallend.dto.CreateItemRequest;
 import com.locallend.locallend.dto.ItemDTO;
 import com.locallend.locallend.dto.UpdateItemRequest;
+import com.locallend.locallend.dto.response.CursorPageDto;
 import com.locallend.locallend.exception.ItemNotFoundException;
 import com.locallend.locallend.exception.UnauthorizedItemAccessException;
+import com.locallend.locallend.model.Booking;
 import com.locallend.locallend.model.Category;
 import com.locallend.locallend.model.Item;
 import com.locallend.locallend.model.User;
@@ -12,6 +14,7 @@ import com.locallend.locallend.model.enums.ItemStatus;
 import com.locallend.locallend.repository.CategoryRepository;
 import com.locallend.locallend.repository.ItemRepository;
 import com.locallend.locallend.repository.UserRepository;
+import com.locallend.locallend.util.DbRefUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -19,11 +22,24 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @Transactional
@@ -31,17 +47,39 @@ public class ItemService {
 
     private static final Logger logger = LoggerFactory.getLogger(ItemService.class);
 
+    public static final double MAX_NEARBY_RADIUS_KM = 50.0;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final ImageService imageService;
+    private final ImageDeletionOutbox imageDeletionOutbox;
+    private final ItemSearchIndex itemSearchIndex;
+    private final MongoTemplate mongoTemplate;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+    private final ItemCountService itemCountService;
+    private final NearbyItemQueryService nearbyItemQueryService;
+    private final ItemListingQueryService itemListingQueryService;
+    private final BookingSnapshotService bookingSnapshotService;
 
     public ItemService(ItemRepository itemRepository, UserRepository userRepository, 
-                      CategoryRepository categoryRepository, ImageService imageService) {
+                      CategoryRepository categoryRepository, ImageDeletionOutbox imageDeletionOutbox,
+                      ItemSearchIndex itemSearchIndex, MongoTemplate mongoTemplate,
+                      BookingAvailabilityIndex bookingAvailabilityIndex,
+                      ItemCountService itemCountService,
+                      NearbyItemQueryService nearbyItemQueryService,
+                      ItemListingQueryService itemListingQueryService,
+                      BookingSnapshotService bookingSnapshotService) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
-        this.imageService = imageService;
+        this.imageDeletionOutbox = imageDeletionOutbox;
+        this.itemSearchIndex = itemSearchIndex;
+        this.mongoTemplate = mongoTemplate;
+        this.bookingAvailabilityIndex = bookingAvailabilityIndex;
+        this.itemCountService = itemCountService;
+        this.nearbyItemQueryService = nearbyItemQueryService;
+        this.itemListingQueryService = itemListingQueryService;
+        this.bookingSnapshotService = bookingSnapshotService;
     }
 
     public ItemDTO createItem(CreateItemRequest request, String ownerId) {
@@ -61,11 +99,12 @@ public class ItemService {
         }
         item.setOwner(owner);
         item.setCategory(category);
+        item.setLocation(owner.getLocation());
 
         Item saved = itemRepository.save(item);
-        // increment owner's item count (denormalized)
-        owner.setItemCount(owner.getItemCount() + 1);
-        userRepository.save(owner);
+        itemSearchIndex.index(saved);
+        // increment owner's and category's item counts (denormalized)
+        adjustItemCounts(saved, 1);
 
         return toItemDTO(saved);
     }
@@ -73,50 +112,58 @@ public class ItemService {
     @Transactional(readOnly = true)
     public ItemDTO getItemById(String itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
-        return toItemDTO(item);
+        ItemDTO dto = toItemDTO(item);
+        // "Booked until" comes from the cached booking calendar, not from the bookings themselves
+        BookingAvailabilityIndex.ActiveSummary bookings = bookingAvailabilityIndex.getActiveSummary(itemId);
+        dto.setActiveBookingCount(bookings.getActiveCount());
+        dto.setBookedUntil(bookings.getBookedUntil());
+        return dto;
     }
 
     public ItemDTO updateItem(String itemId, UpdateItemRequest request, String currentUserId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
         checkOwner(item, currentUserId);
 
-        if (request.getName() != null) item.setName(request.getName());
-        if (request.getDescription() != null) item.setDescription(request.getDescription());
-        if (request.getCondition() != null) item.setCondition(com.locallend.locallend.model.enums.ItemCondition.fromString(request.getCondition()));
-        if (request.getDeposit() != null) item.setDeposit(request.getDeposit());
+        String previousName = item.getName();
+        String previousImage = Booking.firstImage(item);
+        Update update = new Update();
+        if (request.getName() != null) update.set("name", request.getName());
+        if (request.getDescription() != null) update.set("description", request.getDescription());
+        if (request.getCondition() != null) update.set("condition", com.locallend.locallend.model.enums.ItemCondition.fromString(request.getCondition()).name());
+        if (request.getDeposit() != null) update.set("deposit", request.getDeposit());
         
-        // Handle image updates - delete removed images from Cloudinary
+        // Handle image updates - images removed from the item are deleted from Cloudinary later
+        List<String> removedImages = List.of();
         if (request.getImages() != null) {
             List<String> oldImages = item.getImages();
-            List<String> newImages = request.getImages();
+            Set<String> newImages = new HashSet<>(request.getImages());
             
             // Find images that were removed (in old but not in new)
             if (oldImages != null && !oldImages.isEmpty()) {
-                List<String> removedImages = oldImages.stream()
+                removedImages = oldImages.stream()
                     .filter(oldUrl -> !newImages.contains(oldUrl))
                     .collect(java.util.stream.Collectors.toList());
-                
-                // Delete removed images from Cloudinary
-                if (!removedImages.isEmpty()) {
-                    logger.info("Deleting {} removed images from Cloudinary for item {}", 
-                               removedImages.size(), itemId);
-                    try {
-                        int deletedCount = imageService.deleteMultipleImages(removedImages);
-                        logger.info("Successfully deleted {} out of {} images from Cloudinary", 
-                                   deletedCount, removedImages.size());
-                    } catch (Exception e) {
-                        logger.warn("Failed to delete some images from Cloudinary: {}", e.getMessage());
-                        // Continue with update even if image deletion fails
-                    }
-                }
             }
             
-            item.setImages(newImages);
+            update.set("images", request.getImages());
         }
         
-        if (request.getIsAvailable() != null) item.setActive(request.getIsAvailable());
+        boolean activeChanged = request.getIsAvailable() != null
+                && changeActive(itemId, request.getIsAvailable()) != null;
 
-        Item updated = itemRepository.save(item);
+        Item updated = modifyItem(Criteria.where("_id").is(itemId), update);
+        if (updated == null) {
+            throw new ItemNotFoundException(itemId);
+        }
+        itemSearchIndex.index(updated);
+        if (activeChanged) {
+            adjustItemCounts(updated, updated.isActive() ? 1 : -1);
+        }
+        if (!Objects.equals(previousName, updated.getName())
+                || !Objects.equals(previousImage, Booking.firstImage(updated))) {
+            bookingSnapshotService.refreshItem(updated);
+        }
+        queueImageDeletion(itemId, removedImages);
         return toItemDTO(updated);
     }
 
@@ -124,33 +171,16 @@ public class ItemService {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
         checkOwner(item, currentUserId);
 
-        // Soft delete - only delete if it's currently active
-        if (item.isActive()) {
-            // Delete images from Cloudinary before soft-deleting the item
-            if (item.getImages() != null && !item.getImages().isEmpty()) {
-                logger.info("Deleting {} images from Cloudinary for item {}", 
-                           item.getImages().size(), itemId);
-                try {
-                    int deletedCount = imageService.deleteMultipleImages(item.getImages());
-                    logger.info("Successfully deleted {} out of {} images from Cloudinary", 
-                               deletedCount, item.getImages().size());
-                } catch (Exception e) {
-                    logger.error("Failed to delete images from Cloudinary for item {}: {}", 
-                                itemId, e.getMessage());
-                    // Continue with soft delete even if image deletion fails
-                    // Images can be cleaned up manually or via scheduled task
-                }
-            }
-            
-            item.setActive(false);
-            itemRepository.save(item);
-
-            // decrement owner's item count
-            User owner = item.getOwner();
-            if (owner != null && owner.getItemCount() > 0) {
-                owner.setItemCount(owner.getItemCount() - 1);
-                userRepository.save(owner);
-            }
+        // Soft delete - only if this call is the one that deactivates the item
+        Item deleted = changeActive(itemId, false);
+        if (deleted != null) {
+            itemSearchIndex.remove(itemId);
+
+            // Images are deleted from Cloudinary in the background once the item is gone
+            queueImageDeletion(itemId, deleted.getImages());
+
+            // decrement owner's and category's item counts
+            adjustItemCounts(deleted, -1);
         }
     }
 
@@ -159,17 +189,13 @@ public class ItemService {
         checkOwner(item, currentUserId);
 
         // Reactivate soft-deleted item
-        if (!item.isActive()) {
-            item.setActive(true);
-            Item saved = itemRepository.save(item);
-
-            // increment owner's item count
-            User owner = item.getOwner();
-            if (owner != null) {
-                owner.setItemCount(owner.getItemCount() + 1);
-                userRepository.save(owner);
-            }
-            
+        Item saved = changeActive(itemId, true);
+        if (saved != null) {
+            itemSearchIndex.index(saved);
+
+            // increment owner's and category's item counts
+            adjustItemCounts(saved, 1);
+
             return toItemDTO(saved);
         }
         return toItemDTO(item);
@@ -180,72 +206,317 @@ public class ItemService {
         checkOwner(item, currentUserId);
 
         // Toggle between AVAILABLE and UNAVAILABLE (don't change isActive - that's for soft delete)
+        ItemStatus target;
         if (item.getStatus() == ItemStatus.AVAILABLE) {
-            item.setStatus(ItemStatus.UNAVAILABLE);
+            target = ItemStatus.UNAVAILABLE;
         } else if (item.getStatus() == ItemStatus.UNAVAILABLE) {
-            item.setStatus(ItemStatus.AVAILABLE);
+            target = ItemStatus.AVAILABLE;
+        } else {
+            // Don't allow toggling if item is BORROWED
+            return toItemDTO(item);
+        }
+
+        // Conditional on the status we read, so a concurrent BORROWED is never overwritten
+        Item saved = modifyItem(Criteria.where("_id").is(itemId).and("status").is(item.getStatus().name()),
+                new Update().set("status", target.name()));
+        if (saved == null) {
+            Item current = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
+            return toItemDTO(current); // Status changed meanwhile; leave it as it is now
         }
-        // Don't allow toggling if item is BORROWED
-        
-        Item saved = itemRepository.save(item);
         return toItemDTO(saved);
     }
 
     public ItemDTO setAvailability(String itemId, boolean isAvailable, String currentUserId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
         checkOwner(item, currentUserId);
-        item.setActive(isAvailable);
-        Item saved = itemRepository.save(item);
+        Item saved = changeActive(itemId, isAvailable);
+        if (saved == null) {
+            return toItemDTO(item); // Already in the requested state
+        }
+        itemSearchIndex.index(saved);
+        adjustItemCounts(saved, saved.isActive() ? 1 : -1);
         return toItemDTO(saved);
     }
 
     @Transactional(readOnly = true)
-    public Page<ItemDTO> getAvailableItems(int page, int size, String sortBy, String sortDir) {
+    public Page<ItemDTO> getAvailableItems(int page, int size, String sortBy, String sortDir, Double minRating) {
         Sort.Direction dir = "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable p = PageRequest.of(page, size, Sort.by(dir, sortBy == null ? "name" : sortBy));
-        Page<Item> items = itemRepository.findByIsActiveTrueAndStatus("AVAILABLE", p);
-        List<ItemDTO> dtos = items.stream().map(this::toItemDTO).collect(Collectors.toList());
+        // Rating sorts and filters run on the stored average through the {is_active, status, average_rating, _id} index
+        Page<Item> items = minRating != null
+                ? itemRepository.findByIsActiveTrueAndStatusAndAverageRatingGreaterThanEqual("AVAILABLE", minRating, p)
+                : itemRepository.findByIsActiveTrueAndStatus("AVAILABLE", p);
+        List<ItemDTO> dtos = toItemDTOs(items.getContent());
         return new PageImpl<>(dtos, p, items.getTotalElements());
     }
 
     @Transactional(readOnly = true)
     public Page<ItemDTO> searchAvailableItems(String searchTerm, int page, int size) {
         Pageable p = PageRequest.of(page, size);
-        Page<Item> items = itemRepository.searchAvailableItems(searchTerm, p);
-        List<ItemDTO> dtos = items.stream().map(this::toItemDTO).collect(Collectors.toList());
-        return new PageImpl<>(dtos, p, items.getTotalElements());
+        if (!itemSearchIndex.isReady()) {
+            // Index not built yet (e.g. database was down at startup) - use the regex query
+            Page<Item> items = itemRepository.searchAvailableItems(searchTerm, p);
+            List<ItemDTO> dtos = toItemDTOs(items.getContent());
+            return new PageImpl<>(dtos, p, items.getTotalElements());
+        }
+
+        // Rank in memory, drop hits that are no longer active, then hydrate only the requested page by id
+        List<String> rankedIds = liveItemIds(itemSearchIndex.search(searchTerm));
+        int from = (int) Math.min(p.getOffset(), rankedIds.size());
+        int to = Math.min(from + p.getPageSize(), rankedIds.size());
+        List<String> pageIds = rankedIds.subList(from, to);
+
+        Map<String, Item> byId = new HashMap<>();
+        itemRepository.findAllById(pageIds).forEach(item -> byId.put(item.getId(), item));
+        List<Item> pageItems = new ArrayList<>(pageIds.size());
+        for (String id : pageIds) {
+            Item item = byId.get(id);
+            if (item != null && item.isActive()) {
+                pageItems.add(item);
+            }
+        }
+        return new PageImpl<>(toItemDTOs(pageItems), p, rankedIds.size());
+    }
+
+    /**
+     * The ranked ids that are still active items, in rank order. The search
+     * index only sees this node's writes, so hits deactivated or deleted
+     * through another node are removed from it here; reading just the ids of
+     * the hits keeps the page and the total consistent.
+     */
+    private List<String> liveItemIds(List<String> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return rankedIds;
+        }
+        Query query = new Query(Criteria.where("_id").in(rankedIds).and("is_active").is(true));
+        query.fields().include("_id");
+        Set<String> live = new HashSet<>();
+        for (Item item : mongoTemplate.find(query, Item.class)) {
+            live.add(item.getId());
+        }
+        if (live.size() == rankedIds.size()) {
+            return rankedIds;
+        }
+        List<String> filtered = new ArrayList<>(live.size());
+        for (String id : rankedIds) {
+            if (live.contains(id)) {
+                filtered.add(id);
+            } else {
+                itemSearchIndex.remove(id);
+            }
+        }
+        return filtered;
     }
 
     @Transactional(readOnly = true)
     public Page<ItemDTO> getAvailableItemsByCategory(String categoryId, int page, int size) {
-        Category cat = categoryRepository.findById(categoryId).orElseThrow(() -> new IllegalArgumentException("Category not found"));
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new IllegalArgumentException("Category not found");
+        }
         Pageable p = PageRequest.of(page, size);
-        Page<Item> items = itemRepository.findByIsActiveTrueAndCategory(cat, p);
-        List<ItemDTO> dtos = items.stream().map(this::toItemDTO).collect(Collectors.toList());
+        Page<Item> items = itemRepository.findActiveByCategoryId(DbRefUtils.refId(categoryId), p);
+        List<ItemDTO> dtos = toItemDTOs(items.getContent());
         return new PageImpl<>(dtos, p, items.getTotalElements());
     }
 
     @Transactional(readOnly = true)
     public Page<ItemDTO> getItemsByOwner(String ownerId, int page, int size) {
-        User owner = userRepository.findById(ownerId).orElseThrow(() -> new IllegalArgumentException("Owner not found"));
+        if (!userRepository.existsById(ownerId)) {
+            throw new IllegalArgumentException("Owner not found");
+        }
         Pageable p = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Item> items = itemRepository.findByOwnerAndIsActiveTrue(owner, p);
-        List<ItemDTO> dtos = items.stream().map(this::toItemDTO).collect(Collectors.toList());
+        Page<Item> items = itemRepository.findActiveByOwnerId(DbRefUtils.refId(ownerId), p);
+        List<ItemDTO> dtos = toItemDTOs(items.getContent());
         return new PageImpl<>(dtos, p, items.getTotalElements());
     }
 
+    /**
+     * Keyset-paged variant of {@link #getAvailableItems}: no offset skipping and no count query.
+     * @param sortBy Item property to sort by (name, createdAt, averageRating or deposit)
+     * @param sortDir "asc" or "desc"
+     * @param minRating Minimum average rating, or null for no minimum
+     * @param cursor Cursor from the previous page, or null/blank for the first page
+     * @param size Page size
+     * @param withTotal Whether to include a capped total estimate
+     * @throws IllegalArgumentException If the sort or cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ItemDTO> scrollAvailableItems(String sortBy, String sortDir, Double minRating,
+                                                       String cursor, int size, boolean withTotal) {
+        Sort.Direction dir = "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        ItemListingQueryService.SortKey sortKey =
+                ItemListingQueryService.SortKey.fromProperty(sortBy == null ? "name" : sortBy);
+        return toCursorPage(itemListingQueryService.findActiveByStatus(ItemStatus.AVAILABLE, minRating,
+                sortKey, dir, cursor, size, withTotal));
+    }
+
+    /**
+     * Keyset-paged variant of {@link #getAvailableItemsByCategory}, newest first.
+     * @throws IllegalArgumentException If the category does not exist or the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ItemDTO> scrollItemsByCategory(String categoryId, String cursor, int size, boolean withTotal) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new IllegalArgumentException("Category not found");
+        }
+        return toCursorPage(itemListingQueryService.findActiveByCategory(categoryId, cursor, size, withTotal));
+    }
+
+    /**
+     * Keyset-paged variant of {@link #getItemsByOwner}, newest first.
+     * @throws IllegalArgumentException If the owner does not exist or the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ItemDTO> scrollItemsByOwner(String ownerId, String cursor, int size, boolean withTotal) {
+        if (!userRepository.existsById(ownerId)) {
+            throw new IllegalArgumentException("Owner not found");
+        }
+        return toCursorPage(itemListingQueryService.findActiveByOwner(ownerId, cursor, size, withTotal));
+    }
+
+    /**
+     * Find active items near a point, nearest first.
+     * @param longitude Origin longitude
+     * @param latitude Origin latitude
+     * @param radiusKm Search radius in kilometers (up to {@value #MAX_NEARBY_RADIUS_KM})
+     * @param categoryId Category to filter by, or null for all
+     * @param status Item status to filter by
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Page size
+     * @return Page of items with their distance from the origin
+     * @throws IllegalArgumentException If the coordinates, radius or cursor are invalid
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ItemDTO> getNearbyItems(double longitude, double latitude, double radiusKm,
+                                                 String categoryId, ItemStatus status, String cursor, int size) {
+        if (longitude < -180.0 || longitude > 180.0 || latitude < -90.0 || latitude > 90.0) {
+            throw new IllegalArgumentException("Coordinates are out of range");
+        }
+        if (!(radiusKm > 0.0) || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + MAX_NEARBY_RADIUS_KM + " km");
+        }
+
+        NearbyItemQueryService.Result result = nearbyItemQueryService.findNearby(
+                new GeoJsonPoint(longitude, latitude), radiusKm * 1000.0, status, categoryId, cursor, size);
+        List<Item> items = new ArrayList<>(result.getHits().size());
+        for (NearbyItemQueryService.Hit hit : result.getHits()) {
+            items.add(hit.getItem());
+        }
+        List<ItemDTO> dtos = toItemDTOs(items);
+        for (int i = 0; i < dtos.size(); i++) {
+            dtos.get(i).setDistanceMeters(result.getHits().get(i).getDistanceMeters());
+        }
+        return new CursorPageDto<>(dtos, result.getNextCursor());
+    }
+
+    /**
+     * Copy an owner's location onto all of their items.
+     * @param ownerId Owner user ID
+     * @param location Owner's new location
+     */
+    public void syncOwnerLocation(String ownerId, GeoJsonPoint location) {
+        Query query = new Query(Criteria.where("owner.$id").is(DbRefUtils.refId(ownerId)));
+        long updated = mongoTemplate.updateMulti(query, Update.update("location", location), Item.class)
+                .getModifiedCount();
+        logger.debug("Updated location of {} items of owner {}", updated, ownerId);
+    }
+
     // Helpers
+    private CursorPageDto<ItemDTO> toCursorPage(ItemListingQueryService.Result result) {
+        return new CursorPageDto<>(toItemDTOs(result.getItems()), result.getNextCursor(), result.getTotalEstimate());
+    }
+
+    /**
+     * Flip an item's is_active flag if it is not already in that state.
+     * @return The item as stored after the change, or null if it was already in that state
+     */
+    private Item changeActive(String itemId, boolean active) {
+        return modifyItem(Criteria.where("_id").is(itemId).and("is_active").is(!active),
+                new Update().set("is_active", active));
+    }
+
+    /**
+     * Apply a targeted update to an item and return it as stored afterwards.
+     * Only the fields in the update are written, so the rating aggregates and
+     * other fields maintained with $inc are never overwritten from a stale read.
+     * @return The updated item, or null if no item matched
+     */
+    private Item modifyItem(Criteria criteria, Update update) {
+        update.set("updated_at", LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Item.class);
+    }
+
+    private void adjustItemCounts(Item item, long delta) {
+        // Atomic $inc, coalesced per document; read the ids without resolving the references
+        itemCountService.adjustOwnerCount(DbRefUtils.idOf(item.getOwner(), User::getId), delta);
+        itemCountService.adjustCategoryCount(DbRefUtils.idOf(item.getCategory(), Category::getId), delta);
+    }
+
+    private void queueImageDeletion(String itemId, List<String> imageUrls) {
+        if (imageUrls == null || imageUrls.isEmpty()) {
+            return;
+        }
+        try {
+            imageDeletionOutbox.enqueue(itemId, imageUrls);
+        } catch (Exception e) {
+            // The item change is already saved; the images are left behind in Cloudinary
+            logger.error("Failed to queue {} images of item {} for deletion: {}",
+                        imageUrls.size(), itemId, e.getMessage());
+        }
+    }
+
     private void checkOwner(Item item, String currentUserId) {
-        if (item.getOwner() == null || !item.getOwner().getId().equals(currentUserId)) {
+        String ownerId = DbRefUtils.idOf(item.getOwner(), User::getId);
+        if (ownerId == null || !ownerId.equals(currentUserId)) {
             throw new UnauthorizedItemAccessException("User is not owner of the item");
         }
     }
 
     private ItemDTO toItemDTO(Item item) {
-        return mapItemToDto(item);
+        return toItemDTOs(List.of(item)).get(0);
+    }
+
+    /**
+     * Map a page of items, resolving the lazy owner/category references in bulk:
+     * one projected $in query per referenced collection instead of one lazy
+     * load per item.
+     */
+    private List<ItemDTO> toItemDTOs(List<Item> items) {
+        Set<String> ownerIds = new HashSet<>();
+        Set<String> categoryIds = new HashSet<>();
+        for (Item item : items) {
+            String ownerId = DbRefUtils.idOf(item.getOwner(), User::getId);
+            String categoryId = DbRefUtils.idOf(item.getCategory(), Category::getId);
+            if (ownerId != null) ownerIds.add(ownerId);
+            if (categoryId != null) categoryIds.add(categoryId);
+        }
+
+        Map<String, String> ownerNames = loadNames(User.class, ownerIds, User::getId, User::getName);
+        Map<String, String> categoryNames = loadNames(Category.class, categoryIds, Category::getId, Category::getName);
+
+        List<ItemDTO> dtos = new ArrayList<>(items.size());
+        for (Item item : items) {
+            dtos.add(mapItemToDto(item, ownerNames, categoryNames));
+        }
+        return dtos;
+    }
+
+    private <T> Map<String, String> loadNames(Class<T> type, Set<String> ids,
+                                              Function<T, String> idGetter, Function<T, String> nameGetter) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("name");
+        Map<String, String> names = new HashMap<>();
+        for (T entity : mongoTemplate.find(query, type)) {
+            names.put(idGetter.apply(entity), nameGetter.apply(entity));
+        }
+        return names;
     }
 
-    private ItemDTO mapItemToDto(Item item) {
+    private ItemDTO mapItemToDto(Item item, Map<String, String> ownerNames, Map<String, String> categoryNames) {
         ItemDTO dto = new ItemDTO();
         dto.setId(item.getId());
         dto.setName(item.getName());
@@ -255,13 +526,15 @@ public class ItemService {
         dto.setDeposit(item.getDeposit());
         dto.setImages(item.getImages());
         dto.setAverageRating(item.getAverageRating());
-        if (item.getOwner() != null) {
-            dto.setOwnerId(item.getOwner().getId());
-            dto.setOwnerName(item.getOwner().getName());
+        String ownerId = DbRefUtils.idOf(item.getOwner(), User::getId);
+        if (ownerId != null) {
+            dto.setOwnerId(ownerId);
+            dto.setOwnerName(ownerNames.get(ownerId));
         }
-        if (item.getCategory() != null) {
-            dto.setCategoryId(item.getCategory().getId());
-            dto.setCategoryName(item.getCategory().getName());
+        String categoryId = DbRefUtils.idOf(item.getCategory(), Category::getId);
+        if (categoryId != null) {
+            dto.setCategoryId(categoryId);
+            dto.setCategoryName(categoryNames.get(categoryId));
         }
         dto.setCanBeBorrowed(item.canBeBorrowed());
         dto.setCreatedAt(item.getCreatedAt());
@@ -0,0 +1,73 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.JobLease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Mongo-backed leases for jobs that run on every application node but must
+ * only do their work on one node at a time.
+ *
+ * A lease is taken with one atomic upsert that only matches when the lease is
+ * free, expired or already ours; if another node holds it the upsert collides
+ * on the job name and the attempt fails. A node that dies simply lets its
+ * lease expire.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public JobLeaseService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Take or renew the lease on a job.
+     * @param jobName Job name
+     * @param duration How long the lease is held unless renewed or released
+     * @return true if this instance now holds the lease
+     */
+    public boolean tryAcquire(String jobName, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(Criteria.where("_id").is(jobName).orOperator(
+                Criteria.where("expires_at").lt(now),
+                Criteria.where("owner").is(instanceId)));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("expires_at", now.plus(duration));
+        try {
+            mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            logger.debug("Lease on {} is held by another instance", jobName);
+            return false;
+        }
+    }
+
+    /**
+     * Give up the lease early so another instance can take it.
+     * @param jobName Job name
+     */
+    public void release(String jobName) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(jobName).and("owner").is(instanceId)),
+                new Update().set("expires_at", LocalDateTime.now()),
+                JobLease.class);
+    }
+}
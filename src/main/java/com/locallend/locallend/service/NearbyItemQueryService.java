@@ -0,0 +1,218 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.enums.ItemStatus;
+import com.locallend.locallend.util.DbRefUtils;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds active items near a point, nearest first, using $geoNear on the
+ * {location (2dsphere), is_active, status} index of the items collection.
+ *
+ * Pages are addressed by an opaque (distance, id) cursor. $geoNear only orders
+ * by distance, and all items of one owner share the owner's location, so
+ * items at the same distance are ordered by id with a separate, narrow query
+ * on exactly that distance. Every query is bounded by the page size and never
+ * scans the rest of the search radius.
+ */
+@Service
+public class NearbyItemQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String CURSOR_SEPARATOR = "|";
+    private static final String DISTANCE_FIELD = "distance";
+
+    // Slack around a distance so rounding in the server's radius checks cannot drop a tie
+    private static final double DISTANCE_TOLERANCE_METERS = 1e-3;
+
+    private final MongoTemplate mongoTemplate;
+
+    public NearbyItemQueryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Find the next page of items near a point.
+     * @param near Search origin
+     * @param maxDistanceMeters Search radius in meters
+     * @param status Item status to match
+     * @param categoryId Category to match, or null for all
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Page size (clamped to 1..{@value #MAX_PAGE_SIZE})
+     * @return Items with their distances, and the cursor of the next page
+     * @throws IllegalArgumentException If the cursor is malformed
+     */
+    public Result findNearby(GeoJsonPoint near, double maxDistanceMeters, ItemStatus status, String categoryId,
+                             String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int wanted = limit + 1; // One extra hit tells whether another page exists
+
+        Document filter = new Document("is_active", true).append("status", status.name());
+        if (categoryId != null && !categoryId.isBlank()) {
+            filter.append("category.$id", DbRefUtils.refId(categoryId));
+        }
+
+        List<Hit> hits = new ArrayList<>(wanted);
+        double from = 0.0;
+        boolean afterCursor = false;
+        if (cursor != null && !cursor.isBlank()) {
+            Position after = decodeCursor(cursor);
+            // The rest of the items at the cursor's distance, then everything farther away
+            hits.addAll(findAtDistance(near, filter, after.distance, after.id, wanted));
+            from = after.distance;
+            afterCursor = true;
+        }
+
+        if (hits.size() < wanted) {
+            int remaining = wanted - hits.size();
+            List<Hit> window = findBeyond(near, filter, from, afterCursor, maxDistanceMeters, remaining);
+            if (window.size() < remaining) {
+                hits.addAll(window);
+            } else {
+                // Items at the window's farthest distance may continue past it: take them in id order
+                double edge = window.get(window.size() - 1).distance;
+                window.stream().filter(hit -> hit.distance < edge).forEach(hits::add);
+                hits.addAll(findAtDistance(near, filter, edge, null, wanted - hits.size()));
+            }
+        }
+
+        String nextCursor = null;
+        if (hits.size() > limit) {
+            hits = hits.subList(0, limit);
+            nextCursor = encodeCursor(hits.get(limit - 1));
+        }
+        return new Result(hits, nextCursor);
+    }
+
+    private List<Hit> findBeyond(GeoJsonPoint near, Document filter, double from, boolean exclusive,
+                                 double maxDistanceMeters, int limit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(geoNear(near, filter, Math.max(0.0, from - DISTANCE_TOLERANCE_METERS), maxDistanceMeters));
+        if (exclusive) {
+            stages.add(context -> new Document("$match",
+                    new Document(DISTANCE_FIELD, new Document("$gt", from))));
+        }
+        stages.add(Aggregation.limit(limit));
+
+        List<Hit> hits = run(stages);
+        hits.sort(Comparator.comparingDouble((Hit hit) -> hit.distance).thenComparing(hit -> hit.id));
+        return hits;
+    }
+
+    private List<Hit> findAtDistance(GeoJsonPoint near, Document filter, double distance, String afterId, int limit) {
+        Document query = new Document(filter);
+        if (afterId != null) {
+            query.append("_id", new Document("$gt", DbRefUtils.refId(afterId)));
+        }
+        List<AggregationOperation> stages = Arrays.asList(
+                geoNear(near, query, Math.max(0.0, distance - DISTANCE_TOLERANCE_METERS),
+                        distance + DISTANCE_TOLERANCE_METERS),
+                context -> new Document("$match", new Document(DISTANCE_FIELD, distance)),
+                context -> new Document("$sort", new Document("_id", 1)),
+                Aggregation.limit(limit));
+        return run(stages);
+    }
+
+    private static AggregationOperation geoNear(GeoJsonPoint near, Document query,
+                                                double minDistanceMeters, double maxDistanceMeters) {
+        Document stage = new Document("near", new Document("type", "Point")
+                        .append("coordinates", Arrays.asList(near.getX(), near.getY())))
+                .append("key", "location")
+                .append("distanceField", DISTANCE_FIELD)
+                .append("spherical", true)
+                .append("minDistance", minDistanceMeters)
+                .append("maxDistance", maxDistanceMeters)
+                .append("query", query);
+        return context -> new Document("$geoNear", stage);
+    }
+
+    private List<Hit> run(List<AggregationOperation> stages) {
+        List<Hit> hits = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                mongoTemplate.getCollectionName(Item.class), Document.class)) {
+            Item item = mongoTemplate.getConverter().read(Item.class, row);
+            hits.add(new Hit(item, row.get(DISTANCE_FIELD, Number.class).doubleValue()));
+        }
+        return hits;
+    }
+
+    private static String encodeCursor(Hit last) {
+        String raw = last.distance + CURSOR_SEPARATOR + last.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(CURSOR_SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            double distance = Double.parseDouble(raw.substring(0, separator));
+            if (!(distance >= 0.0) || Double.isInfinite(distance)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Position(distance, raw.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * An item found by a nearby search, with its distance from the origin.
+     */
+    public static final class Hit {
+        private final Item item;
+        private final String id;
+        private final double distance;
+
+        private Hit(Item item, double distance) {
+            this.item = item;
+            this.id = item.getId();
+            this.distance = distance;
+        }
+
+        public Item getItem() { return item; }
+        public double getDistanceMeters() { return distance; }
+    }
+
+    /**
+     * One page of a nearby search.
+     */
+    public static final class Result {
+        private final List<Hit> hits;
+        private final String nextCursor;
+
+        private Result(List<Hit> hits, String nextCursor) {
+            this.hits = hits;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Hit> getHits() { return hits; }
+        public String getNextCursor() { return nextCursor; }
+    }
+
+    private static final class Position {
+        private final double distance;
+        private final String id;
+
+        private Position(double distance, String id) {
+            this.distance = distance;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.event.BookingsMarkedOverdueEvent;
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.enums.BookingStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves ACTIVE bookings whose end date has passed to OVERDUE.
+ *
+ * Each chunk of overdue bookings is changed with one updateMulti whose filter
+ * repeats the {status: ACTIVE, end_date < now} condition, so a booking that is
+ * completed concurrently is never overwritten and no document is loaded or
+ * rewritten in full. Every run stamps updated_date with its own timestamp,
+ * which identifies exactly the bookings it changed; their IDs are published as
+ * a BookingsMarkedOverdueEvent and removed from the availability index.
+ *
+ * The scheduled sweep runs on every node but only does work on the node
+ * holding the job lease.
+ */
+@Service
+public class OverdueBookingSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueBookingSweeper.class);
+
+    static final String JOB_NAME = "overdue-booking-sweep";
+
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final JobLeaseService jobLeaseService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter markedCounter;
+    private final int chunkSize;
+
+    public OverdueBookingSweeper(MongoTemplate mongoTemplate,
+                                 BookingAvailabilityIndex availabilityIndex,
+                                 JobLeaseService jobLeaseService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${booking.overdue.chunk-size:1000}") int chunkSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.availabilityIndex = availabilityIndex;
+        this.jobLeaseService = jobLeaseService;
+        this.eventPublisher = eventPublisher;
+        this.markedCounter = meterRegistry.counter("bookings.overdue.marked");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Scheduled sweep, skipped on nodes that do not hold the lease.
+     */
+    @Scheduled(initialDelayString = "${booking.overdue.sweep-interval-ms:60000}",
+               fixedDelayString = "${booking.overdue.sweep-interval-ms:60000}")
+    public void scheduledSweep() {
+        try {
+            if (!jobLeaseService.tryAcquire(JOB_NAME, LEASE_DURATION)) {
+                return;
+            }
+            try {
+                sweep();
+            } finally {
+                jobLeaseService.release(JOB_NAME);
+            }
+        } catch (Exception e) {
+            logger.warn("Overdue booking sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mark every ACTIVE booking past its end date as OVERDUE.
+     * Safe to run concurrently with the scheduled sweep: each booking is
+     * changed, counted and reported by exactly one run.
+     * @return number of bookings marked overdue by this run
+     */
+    public int sweep() {
+        // Mongo keeps milliseconds, so the stamp must too for the read-back to match
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Criteria overdue = Criteria.where("status").is(BookingStatus.ACTIVE.name()).and("end_date").lt(now);
+
+        int total = 0;
+        while (true) {
+            Query candidates = new Query(overdue)
+                    .with(Sort.by(Sort.Direction.ASC, "end_date"))
+                    .limit(chunkSize);
+            candidates.fields().include("_id");
+            List<String> ids = mongoTemplate.find(candidates, Booking.class).stream()
+                    .map(Booking::getId)
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            long modified = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(ids).andOperator(overdue)),
+                    new Update().set("status", BookingStatus.OVERDUE.name()).set("updated_date", now),
+                    Booking.class).getModifiedCount();
+            if (modified > 0) {
+                total += (int) modified;
+                markedCounter.increment(modified);
+                publish(ids, now);
+            }
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            logger.info("Marked {} bookings as overdue", total);
+        }
+        return total;
+    }
+
+    private void publish(List<String> candidateIds, LocalDateTime stamp) {
+        // Read back the bookings this run changed; others may have been completed in between
+        Query changed = new Query(Criteria.where("_id").in(candidateIds)
+                .and("status").is(BookingStatus.OVERDUE.name())
+                .and("updated_date").is(stamp));
+        changed.fields().include("_id").include("item_id");
+        List<Booking> marked = mongoTemplate.find(changed, Booking.class);
+        if (marked.isEmpty()) {
+            return;
+        }
+
+        for (Booking booking : marked) {
+            availabilityIndex.remove(booking.getItemId(), booking.getId());
+        }
+        eventPublisher.publishEvent(new BookingsMarkedOverdueEvent(
+                marked.stream().map(Booking::getId).collect(Collectors.toList())));
+    }
+}
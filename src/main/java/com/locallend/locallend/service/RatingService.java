@@ -7,18 +7,25 @@ import com.locallend.locallend.model.Item;
 import com.locallend.locallend.model.Booking;
 import com.locallend.locallend.model.enums.BookingStatus;
 import com.locallend.locallend.repository.RatingRepository;
+import com.locallend.locallend.repository.RatingRepository.RatingStatsAggregate;
 import com.locallend.locallend.repository.UserRepository;
 import com.locallend.locallend.repository.ItemRepository;
 import com.locallend.locallend.repository.BookingRepository;
-import com.locallend.locallend.util.TrustScoreCalculator;
 import com.locallend.locallend.exception.ResourceNotFoundException;
 import com.locallend.locallend.exception.ValidationException;
 import com.locallend.locallend.exception.RatingNotFoundException;
 
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.time.LocalDateTime;
 
@@ -55,18 +62,27 @@ public class RatingService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
-    private final TrustScoreCalculator trustScoreCalculator;
+    private final TrustScoreStatsService trustScoreStatsService;
+    private final TrustScoreWriter trustScoreWriter;
+    private final ItemRatingAggregateService itemRatingAggregateService;
+    private final MongoTemplate mongoTemplate;
     
     public RatingService(RatingRepository ratingRepository,
                         UserRepository userRepository,
                         ItemRepository itemRepository,
                         BookingRepository bookingRepository,
-                        TrustScoreCalculator trustScoreCalculator) {
+                        TrustScoreStatsService trustScoreStatsService,
+                        TrustScoreWriter trustScoreWriter,
+                        ItemRatingAggregateService itemRatingAggregateService,
+                        MongoTemplate mongoTemplate) {
         this.ratingRepository = ratingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
         this.bookingRepository = bookingRepository;
-        this.trustScoreCalculator = trustScoreCalculator;
+        this.trustScoreStatsService = trustScoreStatsService;
+        this.trustScoreWriter = trustScoreWriter;
+        this.itemRatingAggregateService = itemRatingAggregateService;
+        this.mongoTemplate = mongoTemplate;
     }
     
     /**
@@ -115,8 +131,8 @@ public class RatingService {
         // Save rating
         Rating savedRating = ratingRepository.save(newRating);
         
-        // Update derived metrics asynchronously
-        updateItemAverageRating(itemId);
+        // Update derived metrics
+        recordItemAggregatesChange(itemId, () -> itemRatingAggregateService.recordAdded(itemId, ratingValue));
         
         logger.info("Successfully created item rating with ID: {}", savedRating.getId());
         return savedRating;
@@ -176,6 +192,7 @@ public class RatingService {
         Rating savedRating = ratingRepository.save(newRating);
         
         // Update user trust score
+        recordTrustStatsChange(ratedUserId, () -> trustScoreStatsService.recordAdded(savedRating));
         updateUserTrustScore(ratedUserId);
         
         // Mark booking as rated (Issue #26)
@@ -217,6 +234,7 @@ public class RatingService {
         }
         
         // Update rating
+        int previousValue = existingRating.getRatingValue();
         existingRating.setRatingValue(newRatingValue);
         existingRating.setComment(sanitizeComment(newComment));
         
@@ -224,10 +242,14 @@ public class RatingService {
         Rating updatedRating = ratingRepository.save(existingRating);
         
         // Update derived metrics
-        if (existingRating.getRatingType().affectsItemQuality()) {
-            updateItemAverageRating(existingRating.getItemId());
+        if (existingRating.getRatingType().affectsItemQuality() && existingRating.getItemId() != null) {
+            String itemId = existingRating.getItemId();
+            recordItemAggregatesChange(itemId,
+                    () -> itemRatingAggregateService.recordValueChanged(itemId, previousValue, newRatingValue));
         }
         if (existingRating.getRatingType().affectsTrustScore()) {
+            recordTrustStatsChange(existingRating.getRateeId(),
+                    () -> trustScoreStatsService.recordValueChanged(updatedRating, previousValue));
             updateUserTrustScore(existingRating.getRateeId());
         }
         
@@ -291,27 +313,16 @@ public class RatingService {
      */
     @Transactional(readOnly = true)
     public Double getItemAverageRating(String itemId) {
-        logger.debug("Calculating average rating for item: {}", itemId);
-        
-        List<Rating> ratings = ratingRepository.findByItemId(itemId);
-        
-        if (ratings.isEmpty()) {
-            return 0.0;
-        }
-        
-        double average = ratings.stream()
-                .mapToDouble(Rating::getRatingValue)
-                .average()
-                .orElse(0.0);
+        logger.debug("Fetching average rating for item: {}", itemId);
         
-        return Math.round(average * 10.0) / 10.0; // Round to 1 decimal place
+        return getItemRatingStatistics(itemId).getAverageRating(); // Rounded to 1 decimal place
     }
     
     /**
      * Get trust score for a specific user.
      * 
      * @param userId ID of the user
-     * @return Trust score calculated using TrustScoreCalculator
+     * @return Trust score calculated from the user's TrustScoreStats
      */
     @Transactional(readOnly = true)
     public Double getUserTrustScore(String userId) {
@@ -320,10 +331,8 @@ public class RatingService {
         // Verify user exists
         getUserById(userId);
         
-        // Get all user ratings (not item ratings)
-        List<Rating> userRatings = ratingRepository.findUserRatingsForTrustScore(userId);
-        
-        return trustScoreCalculator.calculateTrustScore(userRatings);
+        // Derived from the accumulated statistics of the user ratings (not item ratings)
+        return trustScoreStatsService.calculateTrustScore(userId);
     }
     
     /**
@@ -336,9 +345,26 @@ public class RatingService {
     public RatingStatistics getItemRatingStatistics(String itemId) {
         logger.debug("Fetching rating statistics for item: {}", itemId);
         
-        List<Rating> ratings = ratingRepository.findByItemId(itemId);
+        // Read from the aggregates stored on the item instead of loading its ratings
+        return toRatingStatistics(itemRatingAggregateService.getAggregates(itemId));
+    }
+    
+    /**
+     * Get rating statistics for several items in one query, e.g. for list views.
+     * 
+     * @param itemIds IDs of the items
+     * @return RatingStatistics by item ID (empty statistics for unknown items)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, RatingStatistics> getItemRatingStatistics(Collection<String> itemIds) {
+        logger.debug("Fetching rating statistics for {} items", itemIds.size());
         
-        return calculateRatingStatistics(ratings);
+        Map<String, Item> aggregates = itemRatingAggregateService.getAggregates(itemIds);
+        Map<String, RatingStatistics> statistics = new LinkedHashMap<>();
+        for (String itemId : itemIds) {
+            statistics.put(itemId, toRatingStatistics(aggregates.get(itemId)));
+        }
+        return statistics;
     }
     
     /**
@@ -351,9 +377,30 @@ public class RatingService {
     public RatingStatistics getUserRatingStatistics(String userId) {
         logger.debug("Fetching rating statistics for user: {}", userId);
         
-        List<Rating> ratings = ratingRepository.findByRateeIdOrderByCreatedDateDesc(userId);
+        return getUserRatingStatistics(List.of(userId)).get(userId);
+    }
+    
+    /**
+     * Get rating statistics for several users with a single aggregation, e.g. for list views.
+     * 
+     * @param userIds IDs of the users
+     * @return RatingStatistics by user ID (empty statistics for users without ratings)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, RatingStatistics> getUserRatingStatistics(Collection<String> userIds) {
+        logger.debug("Fetching rating statistics for {} users", userIds.size());
         
-        return calculateRatingStatistics(ratings);
+        Map<String, RatingStatistics> statistics = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            statistics.put(userId, RatingStatistics.empty());
+        }
+        if (!userIds.isEmpty()) {
+            // Average, count and star distribution are computed by one $group in the database
+            for (RatingStatsAggregate aggregate : ratingRepository.calculateRateeRatingStats(userIds)) {
+                statistics.put(aggregate.getId(), toRatingStatistics(aggregate));
+            }
+        }
+        return statistics;
     }
     
     /**
@@ -390,9 +437,11 @@ public class RatingService {
         
         // Update derived metrics
         if (rating.getRatingType().affectsItemQuality() && rating.getItemId() != null) {
-            updateItemAverageRating(rating.getItemId());
+            recordItemAggregatesChange(rating.getItemId(),
+                    () -> itemRatingAggregateService.recordRemoved(rating.getItemId(), rating.getRatingValue()));
         }
         if (rating.getRatingType().affectsTrustScore()) {
+            recordTrustStatsChange(rating.getRateeId(), () -> trustScoreStatsService.recordRemoved(rating));
             updateUserTrustScore(rating.getRateeId());
         }
         
@@ -450,55 +499,66 @@ public class RatingService {
         return LocalDateTime.now().isAfter(cutoff);
     }
     
-    private void updateUserTrustScore(String userId) {
+    private void recordTrustStatsChange(String userId, Runnable change) {
         try {
-            Double trustScore = getUserTrustScore(userId);
-            
-            // Update user entity with new trust score
-            User user = getUserById(userId);
-            user.setTrustScore(trustScore);
-            userRepository.save(user);
-            
-            logger.debug("Updated trust score for user {}: {}", userId, trustScore);
+            change.run();
         } catch (Exception e) {
-            logger.error("Error updating trust score for user {}: {}", userId, e.getMessage());
+            logger.error("Error updating trust score statistics for user {}: {}", userId, e.getMessage());
+            try {
+                // Force a rebuild from the ratings rather than keep statistics that missed a change
+                trustScoreStatsService.invalidate(userId);
+            } catch (Exception ignored) {
+                // Nothing more to do; the next successful write will surface the problem
+            }
         }
     }
     
-    private void updateItemAverageRating(String itemId) {
+    private void updateUserTrustScore(String userId) {
+        // Written shortly after with a targeted $set, coalesced with other ratings of the same user
+        trustScoreWriter.markDirty(userId);
+    }
+    
+    private void recordItemAggregatesChange(String itemId, Runnable change) {
         try {
-            Double averageRating = getItemAverageRating(itemId);
-            
-            // Update item entity with new average rating if it has that field
-            // Note: Our Item entity may not have averageRating field yet
-            // This is a placeholder for future enhancement
-            logger.debug("Calculated average rating for item {}: {}", itemId, averageRating);
+            change.run();
         } catch (Exception e) {
-            logger.error("Error calculating average rating for item {}: {}", itemId, e.getMessage());
+            logger.error("Error updating rating aggregates for item {}: {}", itemId, e.getMessage());
+            try {
+                // Recount from the ratings rather than keep aggregates that missed a change
+                itemRatingAggregateService.rebuild(List.of(itemId));
+            } catch (Exception ignored) {
+                // Nothing more to do; the aggregates stay stale until the item's next rebuild
+            }
         }
     }
     
-    private RatingStatistics calculateRatingStatistics(List<Rating> ratings) {
-        if (ratings.isEmpty()) {
-            return new RatingStatistics(0, 0.0, new int[]{0, 0, 0, 0, 0});
+    private RatingStatistics toRatingStatistics(Item aggregates) {
+        if (aggregates == null || aggregates.getRatingCount() == 0) {
+            return RatingStatistics.empty();
         }
         
-        int totalRatings = ratings.size();
-        double averageRating = ratings.stream()
-                .mapToDouble(Rating::getRatingValue)
-                .average()
-                .orElse(0.0);
-        
         int[] ratingDistribution = new int[5]; // Index 0 = 1-star, Index 4 = 5-star
-        
-        ratings.forEach(rating -> {
-            int ratingValue = rating.getRatingValue();
-            if (ratingValue >= 1 && ratingValue <= 5) {
-                ratingDistribution[ratingValue - 1]++;
-            }
-        });
-        
-        return new RatingStatistics(totalRatings, averageRating, ratingDistribution);
+        List<Integer> histogram = aggregates.getRatingHistogram();
+        for (int i = 0; histogram != null && i < Math.min(histogram.size(), ratingDistribution.length); i++) {
+            ratingDistribution[i] = histogram.get(i) != null ? histogram.get(i) : 0;
+        }
+        return new RatingStatistics(aggregates.getRatingCount(), aggregates.getAverageRating(), ratingDistribution);
+    }
+    
+    private RatingStatistics toRatingStatistics(RatingStatsAggregate aggregate) {
+        int[] ratingDistribution = {
+            countOf(aggregate.getOneStarCount()),
+            countOf(aggregate.getTwoStarCount()),
+            countOf(aggregate.getThreeStarCount()),
+            countOf(aggregate.getFourStarCount()),
+            countOf(aggregate.getFiveStarCount())
+        };
+        double averageRating = aggregate.getAverageRating() != null ? aggregate.getAverageRating() : 0.0;
+        return new RatingStatistics(countOf(aggregate.getTotalRatings()), averageRating, ratingDistribution);
+    }
+    
+    private static int countOf(Long count) {
+        return count != null ? count.intValue() : 0;
     }
     
     /**
@@ -515,6 +575,10 @@ public class RatingService {
             this.ratingDistribution = ratingDistribution.clone();
         }
         
+        static RatingStatistics empty() {
+            return new RatingStatistics(0, 0.0, new int[]{0, 0, 0, 0, 0});
+        }
+        
         // Getters
         public int getTotalRatings() { return totalRatings; }
         public double getAverageRating() { return averageRating; }
@@ -565,13 +629,16 @@ public class RatingService {
     private void markBookingAsRated(String bookingId) {
         if (bookingId == null || bookingId.trim().isEmpty()) return;
         try {
-            Booking booking = bookingRepository.findById(bookingId).orElse(null);
-            if (booking != null) {
-                booking.setIsRated(true);
-                bookingRepository.save(booking);
+            // Targeted $set on a completed, not yet rated booking; no other booking field is written
+            Query query = new Query(Criteria.where("_id").is(bookingId)
+                    .and("status").is(BookingStatus.COMPLETED.name())
+                    .and("is_rated").ne(true));
+            if (mongoTemplate.updateFirst(query, Update.update("is_rated", true), Booking.class)
+                    .getMatchedCount() == 0) {
+                logger.warn("Booking {} was not marked as rated: not completed or already rated", bookingId);
             }
         } catch (Exception e) {
             logger.error("Error marking booking as rated: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,290 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.JobCheckpoint;
+import com.locallend.locallend.model.Rating;
+import com.locallend.locallend.model.RatingType;
+import com.locallend.locallend.model.TrustScoreStats;
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.util.TrustScoreCalculator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes every user's stored trust score.
+ *
+ * Rating writes keep trust scores current, but part of the score depends on
+ * the current date (the longevity bonus), so the stored score of a user who is
+ * no longer rated drifts from what the calculator would return today. This job
+ * streams users in _id order through one cursor. For each chunk it groups the
+ * users' trust-relevant ratings with a single aggregation, computes the scores
+ * on a fork-join pool and writes the changed ones in one unordered bulk.
+ *
+ * A write only applies if last_trust_score_update is still the value read from
+ * the cursor, so a score written by TrustScoreWriter in the meantime is never
+ * overwritten with an older one. After each chunk the last user _id is
+ * checkpointed, and a run that was interrupted resumes from there. The
+ * scheduled run only does work on the node holding the job lease, and stops
+ * (to be resumed by the next run) if it loses the lease.
+ */
+@Service
+public class TrustScoreRecomputeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrustScoreRecomputeJob.class);
+
+    static final String JOB_NAME = "trust-score-recompute";
+
+    // Renewed after every chunk, so it only has to outlast one chunk
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(10);
+
+    private static final List<String> TRUST_RATING_TYPE_NAMES = TrustScoreStatsService.TRUST_RATING_TYPES.stream()
+            .map(RatingType::name)
+            .toList();
+
+    private final MongoTemplate mongoTemplate;
+    private final TrustScoreStatsService trustScoreStatsService;
+    private final TrustScoreCalculator trustScoreCalculator;
+    private final JobLeaseService jobLeaseService;
+    private final Counter usersCounter;
+    private final Counter updatedCounter;
+    private final AtomicLong lastUsersPerSecond = new AtomicLong();
+    private final int chunkSize;
+    private final int parallelism;
+
+    public TrustScoreRecomputeJob(MongoTemplate mongoTemplate,
+                                  TrustScoreStatsService trustScoreStatsService,
+                                  TrustScoreCalculator trustScoreCalculator,
+                                  JobLeaseService jobLeaseService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.trust-score.recompute.chunk-size:1000}") int chunkSize,
+                                  @Value("${app.trust-score.recompute.parallelism:0}") int parallelism) {
+        this.mongoTemplate = mongoTemplate;
+        this.trustScoreStatsService = trustScoreStatsService;
+        this.trustScoreCalculator = trustScoreCalculator;
+        this.jobLeaseService = jobLeaseService;
+        this.usersCounter = meterRegistry.counter("trust.score.recompute.users");
+        this.updatedCounter = meterRegistry.counter("trust.score.recompute.updated");
+        meterRegistry.gauge("trust.score.recompute.users.per.second", lastUsersPerSecond);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Scheduled run, skipped on nodes that do not hold the lease.
+     */
+    @Scheduled(cron = "${app.trust-score.recompute.cron:0 30 3 * * *}")
+    public void scheduledRecompute() {
+        try {
+            if (!jobLeaseService.tryAcquire(JOB_NAME, LEASE_DURATION)) {
+                return;
+            }
+            try {
+                recompute(() -> jobLeaseService.tryAcquire(JOB_NAME, LEASE_DURATION));
+            } finally {
+                jobLeaseService.release(JOB_NAME);
+            }
+        } catch (Exception e) {
+            logger.warn("Trust score recompute failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the trust score of every user, resuming an interrupted run.
+     * @return number of users processed by this call
+     */
+    public long recompute() {
+        return recompute(() -> true);
+    }
+
+    private long recompute(BooleanSupplier mayContinue) {
+        JobCheckpoint checkpoint = mongoTemplate.findById(JOB_NAME, JobCheckpoint.class);
+        boolean resume = checkpoint != null && checkpoint.isInProgress();
+        String afterId = resume ? checkpoint.getLastId() : null;
+        long processedBefore = resume ? checkpoint.getProcessed() : 0;
+        long updatedBefore = resume ? checkpoint.getUpdated() : 0;
+        if (resume) {
+            logger.info("Resuming trust score recompute started at {} after {} users",
+                    checkpoint.getRunStartedAt(), processedBefore);
+        } else {
+            startRun();
+        }
+
+        Query query = new Query(afterId != null ? Criteria.where("_id").gt(afterId) : new Criteria())
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(chunkSize);
+        query.fields().include("trust_score").include("total_ratings_received").include("last_trust_score_update");
+
+        long start = System.nanoTime();
+        long processed = 0;
+        long updated = 0;
+        boolean finished = true;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            Iterator<User> it = users.iterator();
+            while (it.hasNext()) {
+                List<User> chunk = new ArrayList<>(chunkSize);
+                while (it.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(it.next());
+                }
+                updated += processChunk(chunk, pool);
+                processed += chunk.size();
+                usersCounter.increment(chunk.size());
+                saveCheckpoint(chunk.get(chunk.size() - 1).getId(), processedBefore + processed, updatedBefore + updated);
+
+                if (it.hasNext() && !mayContinue.getAsBoolean()) {
+                    finished = false;
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        long usersPerSecond = Math.round(processed / seconds);
+        lastUsersPerSecond.set(usersPerSecond);
+        if (finished) {
+            completeRun();
+            logger.info("Recomputed trust scores of {} users ({} changed) in {} ms, {} users/s",
+                    processedBefore + processed, updatedBefore + updated, Math.round(seconds * 1000), usersPerSecond);
+        } else {
+            logger.info("Trust score recompute paused after {} users, {} users/s", processedBefore + processed,
+                    usersPerSecond);
+        }
+        return processed;
+    }
+
+    /**
+     * Recompute and write the scores of one chunk of users.
+     * @return number of users whose score was written
+     */
+    private long processChunk(List<User> chunk, ForkJoinPool pool) {
+        Map<String, List<Rating>> ratingsByUser = trustRatings(chunk.stream().map(User::getId).toList());
+
+        List<Recomputed> changed = pool.submit(() -> chunk.parallelStream()
+                .map(user -> rescore(user, ratingsByUser.getOrDefault(user.getId(), List.of())))
+                .filter(Objects::nonNull)
+                .toList()).join();
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (Recomputed result : changed) {
+            // Only if TrustScoreWriter has not written a fresher score since the user was read
+            ops.updateOne(
+                    new Query(Criteria.where("_id").is(result.user.getId())
+                            .and("last_trust_score_update").is(result.user.getLastTrustScoreUpdate())),
+                    new Update()
+                            .set("trust_score", result.trustScore)
+                            .set("total_ratings_received", result.ratingCount)
+                            .set("last_trust_score_update", now));
+        }
+        long modified = ops.execute().getModifiedCount();
+        updatedCounter.increment(modified);
+        return modified;
+    }
+
+    /**
+     * New score of a user, or null if the stored one is still current.
+     */
+    private Recomputed rescore(User user, List<Rating> ratings) {
+        TrustScoreStats stats = trustScoreStatsService.fromRatings(user.getId(), ratings);
+        Double trustScore = trustScoreCalculator.calculateTrustScore(stats);
+        int ratingCount = (int) stats.getRatingCount();
+        if (Objects.equals(trustScore, user.getTrustScore())
+                && Objects.equals(ratingCount, user.getTotalRatingsReceived())) {
+            return null;
+        }
+        return new Recomputed(user, trustScore, ratingCount);
+    }
+
+    /**
+     * The trust-relevant ratings of the given users, grouped by ratee in a
+     * single aggregation that carries only the fields the score reads. The
+     * pipeline uses the stored field names, so it runs untyped.
+     */
+    private Map<String, List<Rating>> trustRatings(List<String> userIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("ratee_id").in(userIds).and("rating_type").in(TRUST_RATING_TYPE_NAMES)),
+                Aggregation.group("ratee_id").push(new Document("rating_value", "$rating_value")
+                        .append("created_date", "$created_date")
+                        .append("is_verified", "$is_verified")).as("ratings"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        Map<String, List<Rating>> ratingsByUser = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Rating.class), Document.class)) {
+            List<Rating> ratings = new ArrayList<>();
+            for (Document rating : row.getList("ratings", Document.class)) {
+                ratings.add(mongoTemplate.getConverter().read(Rating.class, rating));
+            }
+            ratingsByUser.put(String.valueOf(row.get("_id")), ratings);
+        }
+        return ratingsByUser;
+    }
+
+    private void startRun() {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(JOB_NAME)), new Update()
+                .set("run_started_at", now)
+                .unset("last_id")
+                .set("processed", 0L)
+                .set("updated", 0L)
+                .unset("completed_at")
+                .set("updated_date", now), JobCheckpoint.class);
+    }
+
+    private void saveCheckpoint(String lastId, long processed, long updated) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(JOB_NAME)), new Update()
+                .set("last_id", lastId)
+                .set("processed", processed)
+                .set("updated", updated)
+                .set("updated_date", LocalDateTime.now()), JobCheckpoint.class);
+    }
+
+    private void completeRun() {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(JOB_NAME)), new Update()
+                .set("completed_at", now)
+                .set("updated_date", now), JobCheckpoint.class);
+    }
+
+    private static final class Recomputed {
+        private final User user;
+        private final Double trustScore;
+        private final int ratingCount;
+
+        private Recomputed(User user, Double trustScore, int ratingCount) {
+            this.user = user;
+            this.trustScore = trustScore;
+            this.ratingCount = ratingCount;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Rating;
+import com.locallend.locallend.model.RatingType;
+import com.locallend.locallend.model.TrustScoreStats;
+import com.locallend.locallend.repository.RatingRepository;
+import com.locallend.locallend.repository.TrustScoreStatsRepository;
+import com.locallend.locallend.util.TrustScoreCalculator;
+import com.mongodb.client.result.UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains the per-user {@link TrustScoreStats} documents.
+ *
+ * Rating changes are applied as atomic $inc updates, so a write costs O(1)
+ * regardless of how many ratings the user has. A user's document is built
+ * from their ratings when it does not exist yet (users rated before the
+ * statistics were introduced), and rebuilt when removing a rating leaves the
+ * decayed recency sums too small to subtract from reliably.
+ *
+ * Neither may lose a concurrent $inc. A missing document is created with an
+ * insert; if another writer created it first, the change is applied to theirs
+ * as a $inc. A rebuild replaces the document only if its version (bumped by
+ * every $inc) still matches the one read before the ratings, and retries
+ * otherwise.
+ */
+@Service
+public class TrustScoreStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrustScoreStatsService.class);
+
+    // Below this fraction of the removed weight the remaining recency sum is dominated by rounding error
+    private static final double RECENCY_PRECISION_FLOOR = 1e-9;
+
+    private static final int MAX_REBUILD_ATTEMPTS = 5;
+
+    static final List<RatingType> TRUST_RATING_TYPES = Arrays.stream(RatingType.values())
+            .filter(RatingType::affectsTrustScore)
+            .toList();
+
+    private final TrustScoreStatsRepository statsRepository;
+    private final RatingRepository ratingRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TrustScoreCalculator trustScoreCalculator;
+
+    public TrustScoreStatsService(TrustScoreStatsRepository statsRepository,
+                                  RatingRepository ratingRepository,
+                                  MongoTemplate mongoTemplate,
+                                  TrustScoreCalculator trustScoreCalculator) {
+        this.statsRepository = statsRepository;
+        this.ratingRepository = ratingRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.trustScoreCalculator = trustScoreCalculator;
+    }
+
+    /**
+     * Get a user's statistics, building them from their ratings on first use.
+     * @param userId User ID
+     * @return Statistics document
+     */
+    public TrustScoreStats getStats(String userId) {
+        return statsRepository.findById(userId).orElseGet(() -> rebuild(userId));
+    }
+
+    /**
+     * Trust score derived from the user's statistics.
+     * @param userId User ID
+     * @return Trust score between 0.0 and 5.0
+     */
+    public Double calculateTrustScore(String userId) {
+        return trustScoreCalculator.calculateTrustScore(getStats(userId));
+    }
+
+    /**
+     * Account for a newly saved rating.
+     * @param rating Saved rating
+     */
+    public void recordAdded(Rating rating) {
+        if (!affectsTrustScore(rating)) {
+            return;
+        }
+        Update update = new Delta().add(rating, rating.getRatingValue(), 1).toUpdate();
+        if (rating.getCreatedDate() != null) {
+            update.min("oldest_rating_date", rating.getCreatedDate());
+        }
+        applyOrRebuild(rating.getRateeId(), update);
+    }
+
+    /**
+     * Account for a rating whose star value changed.
+     * @param rating Rating with the new value
+     * @param previousValue Value before the update
+     */
+    public void recordValueChanged(Rating rating, int previousValue) {
+        if (!affectsTrustScore(rating) || rating.getRatingValue() == previousValue) {
+            return;
+        }
+        Delta delta = new Delta()
+                .add(rating, previousValue, -1)
+                .add(rating, rating.getRatingValue(), 1);
+        applyOrRebuild(rating.getRateeId(), delta.toUpdate());
+    }
+
+    /**
+     * Account for a deleted rating.
+     * @param rating Rating as it was before deletion
+     */
+    public void recordRemoved(Rating rating) {
+        if (!affectsTrustScore(rating)) {
+            return;
+        }
+        String userId = rating.getRateeId();
+        Query query = new Query(Criteria.where("_id").is(userId));
+        Update removal = new Delta().add(rating, rating.getRatingValue(), -1).toUpdate();
+        TrustScoreStats stats = mongoTemplate.findAndModify(query, removal,
+                FindAndModifyOptions.options().returnNew(true), TrustScoreStats.class);
+        if (stats == null) {
+            // No statistics yet: build them from the ratings, which no longer include this one
+            if (create(userId) != null) {
+                return;
+            }
+            stats = mongoTemplate.findAndModify(query, removal,
+                    FindAndModifyOptions.options().returnNew(true), TrustScoreStats.class);
+            if (stats == null) {
+                return; // Invalidated meanwhile; rebuilt from the ratings on next use
+            }
+        }
+
+        double removedWeight = trustScoreCalculator.recencyWeight(rating.getCreatedDate());
+        if (stats.getRatingCount() > 0 && stats.getRecencyWeightSum() < removedWeight * RECENCY_PRECISION_FLOOR) {
+            rebuild(userId);
+            return;
+        }
+
+        // Removing the oldest rating moves the longevity anchor to the next oldest one
+        if (stats.getOldestRatingDate() != null && rating.getCreatedDate() != null
+                && !rating.getCreatedDate().isAfter(stats.getOldestRatingDate())) {
+            LocalDateTime oldest = ratingRepository
+                    .findFirstByRateeIdAndRatingTypeInOrderByCreatedDateAsc(userId, TRUST_RATING_TYPES)
+                    .map(Rating::getCreatedDate)
+                    .orElse(null);
+            mongoTemplate.updateFirst(query, new Update().set("oldest_rating_date", oldest), TrustScoreStats.class);
+        }
+    }
+
+    /**
+     * Recompute a user's statistics from all of their trust-relevant ratings.
+     * The document is replaced only if no $inc landed on it while the ratings
+     * were read; otherwise the rebuild is retried, up to
+     * {@value #MAX_REBUILD_ATTEMPTS} times, after which the document is left
+     * as it is.
+     * @param userId User ID
+     * @return Rebuilt statistics document, or the current one if every attempt lost a race
+     */
+    public TrustScoreStats rebuild(String userId) {
+        Query byId = new Query(Criteria.where("_id").is(userId));
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            TrustScoreStats current = mongoTemplate.findOne(byId, TrustScoreStats.class);
+            if (current == null) {
+                TrustScoreStats created = create(userId);
+                if (created != null) {
+                    return created;
+                }
+                continue;
+            }
+
+            TrustScoreStats stats = fromRatings(userId, ratingRepository.findUserRatingsForTrustScore(userId));
+            stats.setVersion(current.getVersion() + 1);
+            // Documents written before versions existed have no version field
+            Criteria unchanged = current.getVersion() == 0
+                    ? Criteria.where("version").in(0L, null)
+                    : Criteria.where("version").is(current.getVersion());
+            if (mongoTemplate.replace(new Query(Criteria.where("_id").is(userId).andOperator(unchanged)), stats)
+                    .getMatchedCount() > 0) {
+                logger.debug("Rebuilt trust score statistics for user {} from {} ratings",
+                        userId, stats.getRatingCount());
+                return stats;
+            }
+        }
+        logger.warn("Gave up rebuilding trust score statistics for user {} after {} concurrent changes",
+                userId, MAX_REBUILD_ATTEMPTS);
+        return statsRepository.findById(userId).orElse(null);
+    }
+
+    /**
+     * Build a user's statistics from their ratings and insert them.
+     * @return Inserted document, or null if another writer created one first
+     */
+    private TrustScoreStats create(String userId) {
+        TrustScoreStats stats = fromRatings(userId, ratingRepository.findUserRatingsForTrustScore(userId));
+        try {
+            TrustScoreStats inserted = mongoTemplate.insert(stats);
+            logger.debug("Built trust score statistics for user {} from {} ratings", userId, stats.getRatingCount());
+            return inserted;
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Statistics of a user's trust-relevant ratings, without saving them.
+     * Safe to call concurrently.
+     * @param userId User ID
+     * @param ratings Trust-relevant ratings of the user (value, creation date and verification are read)
+     * @return Unsaved statistics document
+     */
+    public TrustScoreStats fromRatings(String userId, Collection<Rating> ratings) {
+        Delta totals = new Delta();
+        LocalDateTime oldest = null;
+        for (Rating rating : ratings) {
+            totals.add(rating, rating.getRatingValue(), 1);
+            if (oldest == null || rating.getCreatedDate().isBefore(oldest)) {
+                oldest = rating.getCreatedDate();
+            }
+        }
+        TrustScoreStats stats = totals.toStats(userId);
+        stats.setOldestRatingDate(oldest);
+        return stats;
+    }
+
+    /**
+     * Discard a user's statistics so they are rebuilt from the ratings on next use.
+     * @param userId User ID
+     */
+    public void invalidate(String userId) {
+        statsRepository.deleteById(userId);
+    }
+
+    private void applyOrRebuild(String userId, Update update) {
+        Query query = new Query(Criteria.where("_id").is(userId));
+        UpdateResult result = mongoTemplate.updateFirst(query, update, TrustScoreStats.class);
+        if (result.getMatchedCount() == 0 && create(userId) == null) {
+            // Another writer created the statistics first: apply this change to theirs.
+            // Otherwise the new document is built from the ratings, which already include it
+            mongoTemplate.updateFirst(query, update, TrustScoreStats.class);
+        }
+    }
+
+    private boolean affectsTrustScore(Rating rating) {
+        return rating != null && rating.getRateeId() != null && rating.getRatingValue() != null
+                && rating.getRatingType() != null && rating.getRatingType().affectsTrustScore();
+    }
+
+    /**
+     * Changes to the statistics produced by one or more rating adds/removals,
+     * emitted as a single $inc update or, for a rebuild, as absolute totals.
+     */
+    private class Delta {
+        private long count;
+        private long sum;
+        private long sumSquares;
+        private long verifiedCount;
+        private long verifiedSum;
+        private double recencyWeightedSum;
+        private double recencyWeightSum;
+        private final long[] histogram = new long[5];
+
+        Delta add(Rating rating, int value, int sign) {
+            double weight = trustScoreCalculator.recencyWeight(rating.getCreatedDate());
+            count += sign;
+            sum += (long) sign * value;
+            sumSquares += (long) sign * value * value;
+            recencyWeightedSum += sign * value * weight;
+            recencyWeightSum += sign * weight;
+            if (value >= 1 && value <= 5) {
+                histogram[value - 1] += sign;
+            }
+            if (Boolean.TRUE.equals(rating.getIsVerified())) {
+                verifiedCount += sign;
+                verifiedSum += (long) sign * value;
+            }
+            return this;
+        }
+
+        Update toUpdate() {
+            Update update = new Update()
+                    .inc("rating_count", count)
+                    .inc("rating_sum", sum)
+                    .inc("rating_sum_squares", sumSquares)
+                    .inc("verified_count", verifiedCount)
+                    .inc("verified_sum", verifiedSum)
+                    .inc("recency_weighted_sum", recencyWeightedSum)
+                    .inc("recency_weight_sum", recencyWeightSum)
+                    .inc("version", 1)
+                    .set("updated_date", LocalDateTime.now());
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] != 0) {
+                    update.inc("histogram." + i, histogram[i]);
+                }
+            }
+            return update;
+        }
+
+        TrustScoreStats toStats(String userId) {
+            TrustScoreStats stats = new TrustScoreStats(userId);
+            stats.setRatingCount(count);
+            stats.setRatingSum(sum);
+            stats.setRatingSumSquares(sumSquares);
+            stats.setVerifiedCount(verifiedCount);
+            stats.setVerifiedSum(verifiedSum);
+            stats.setRecencyWeightedSum(recencyWeightedSum);
+            stats.setRecencyWeightSum(recencyWeightSum);
+            List<Long> counts = new ArrayList<>(histogram.length);
+            for (long c : histogram) {
+                counts.add(c);
+            }
+            stats.setHistogram(counts);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.TrustScoreStats;
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.util.TrustScoreCalculator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes users' derived trust score fields (trust_score,
+ * last_trust_score_update and total_ratings_received) with targeted $set
+ * updates instead of saving the whole user document.
+ *
+ * Rating writes only mark the ratee as dirty. Dirty users are flushed on a
+ * short fixed delay: each is recomputed once from their TrustScoreStats and
+ * all of them are written in one unordered bulk, so several ratings for the
+ * same user within the window cost a single recomputation and update.
+ */
+@Service
+public class TrustScoreWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrustScoreWriter.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final TrustScoreStatsService trustScoreStatsService;
+    private final TrustScoreCalculator trustScoreCalculator;
+
+    private final Set<String> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    public TrustScoreWriter(MongoTemplate mongoTemplate,
+                            TrustScoreStatsService trustScoreStatsService,
+                            TrustScoreCalculator trustScoreCalculator) {
+        this.mongoTemplate = mongoTemplate;
+        this.trustScoreStatsService = trustScoreStatsService;
+        this.trustScoreCalculator = trustScoreCalculator;
+    }
+
+    /**
+     * Schedule a user's trust score to be recomputed and written with the next flush.
+     * @param userId User ID (ignored if null)
+     */
+    public void markDirty(String userId) {
+        if (userId != null) {
+            dirtyUsers.add(userId);
+        }
+    }
+
+    /**
+     * Recompute and write the trust score of every dirty user.
+     */
+    @Scheduled(fixedDelayString = "${app.trust-score.write-window-ms:250}")
+    @PreDestroy
+    public void flush() {
+        if (dirtyUsers.isEmpty()) {
+            return;
+        }
+        List<String> userIds = new ArrayList<>();
+        for (String userId : dirtyUsers) {
+            // remove() before reading the stats: a rating arriving afterwards re-marks the user
+            if (dirtyUsers.remove(userId)) {
+                userIds.add(userId);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        List<String> written = new ArrayList<>();
+        for (String userId : userIds) {
+            try {
+                TrustScoreStats stats = trustScoreStatsService.getStats(userId);
+                Update update = new Update()
+                        .set("trust_score", trustScoreCalculator.calculateTrustScore(stats))
+                        .set("last_trust_score_update", now)
+                        .set("total_ratings_received", (int) stats.getRatingCount());
+                ops.updateOne(Query.query(Criteria.where("_id").is(userId)), update);
+                written.add(userId);
+            } catch (Exception e) {
+                logger.error("Error computing trust score for user {}: {}", userId, e.getMessage());
+            }
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+
+        try {
+            ops.execute();
+            logger.debug("Updated trust scores of {} users", written.size());
+        } catch (Exception e) {
+            // Retry with the next flush
+            dirtyUsers.addAll(written);
+            logger.warn("Failed to write trust scores of {} users: {}", written.size(), e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package com.locallend.locallend.service;
 
+import com.locallend.locallend.dto.response.UserPublicDto;
 import com.locallend.locallend.model.User;
 import com.locallend.locallend.repository.UserRepository;
+import com.locallend.locallend.util.SearchTerms;
+import com.locallend.locallend.util.UserMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Read-heavy query service for user search and retrieval operations.
@@ -16,10 +25,14 @@ import java.util.Optional;
 @Service
 public class UserQueryService {
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final UserMapper userMapper;
 
     @Autowired
-    public UserQueryService(UserRepository userRepository) {
+    public UserQueryService(UserRepository userRepository, MongoTemplate mongoTemplate, UserMapper userMapper) {
         this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.userMapper = userMapper;
     }
 
     /**
@@ -65,20 +78,44 @@ public class UserQueryService {
 
     /**
      * Search active users by name or username with pagination.
-     * @param term Search term (case-insensitive regex)
+     * Every word of the term must be a prefix of the username or of a word of
+     * the name (case- and accent-insensitive). Matching, paging and projection
+     * run in the database, so only the public fields of one page are loaded.
+     * The {search_terms, is_active} index bounds the scan to the matches of
+     * the first term's prefix range; the server orders those by username with
+     * a top-k sort that holds no more documents than end at the requested page.
+     * @param term Search term
      * @param page Page number (0-indexed)
      * @param size Page size
-     * @return Page of matching users
+     * @return Page of matching users, ordered by username
      */
-    public Page<User> searchActiveUsers(String term, int page, int size) {
-        List<User> results = userRepository.searchActiveUsersByNameOrUsername(term);
-        Pageable pageable = PageRequest.of(page, size);
-        
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), results.size());
-        
-        List<User> pageContent = results.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, results.size());
+    public Page<UserPublicDto> searchActiveUsers(String term, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("username"));
+        List<String> terms = SearchTerms.tokenize(term);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        // Terms are letters and digits only, so the anchored patterns need no escaping
+        List<Pattern> prefixes = terms.stream()
+                .map(t -> Pattern.compile("^" + t))
+                .collect(Collectors.toList());
+        Criteria criteria = Criteria.where("search_terms").all(prefixes).and("is_active").is(true);
+
+        Query query = new Query(criteria).with(pageable);
+        query.fields()
+                .include("username")
+                .include("name")
+                .include("profile_image_url")
+                .include("trust_score")
+                .include("item_count")
+                .include("created_date");
+        List<UserPublicDto> content = mongoTemplate.find(query, User.class).stream()
+                .map(userMapper::toUserPublicDto)
+                .collect(Collectors.toList());
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(new Query(criteria), User.class));
     }
 
     /**
@@ -4,8 +4,10 @@ import com.locallend.locallend.dto.request.UserRegistrationDto;
 import com.locallend.locallend.exception.BusinessException;
 import com.locallend.locallend.model.User;
 import com.locallend.locallend.repository.UserRepository;
+import com.locallend.locallend.security.PrincipalCache;
 import com.locallend.locallend.service.dto.UserStatsDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,11 +23,19 @@ import java.util.Optional;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordService passwordService;
+    private final PrincipalCache principalCache;
+    private final ItemService itemService;
+    private final BookingSnapshotService bookingSnapshotService;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordService passwordService) {
+    public UserService(UserRepository userRepository, PasswordService passwordService,
+                       PrincipalCache principalCache, ItemService itemService,
+                       BookingSnapshotService bookingSnapshotService) {
         this.userRepository = userRepository;
         this.passwordService = passwordService;
+        this.principalCache = principalCache;
+        this.itemService = itemService;
+        this.bookingSnapshotService = bookingSnapshotService;
     }
 
     /**
@@ -81,7 +91,8 @@ public class UserService {
     }
 
     /**
-     * Update user profile information.
+     * Update user profile information. A changed name is copied onto the
+     * user's bookings.
      * @param userId User ID
      * @param name New name (optional)
      * @param phoneNumber New phone number (optional)
@@ -93,6 +104,7 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException("User not found"));
 
+        boolean nameChanged = name != null && !name.isBlank() && !name.equals(user.getName());
         if (name != null && !name.isBlank()) {
             user.setName(name);
         }
@@ -103,7 +115,35 @@ public class UserService {
             user.setProfileImageUrl(profileImageUrl);
         }
 
-        return userRepository.save(user);
+        // Targeted $set; item_count and the trust score fields are maintained elsewhere
+        if (!userRepository.updateProfile(user)) {
+            throw new BusinessException("User not found");
+        }
+        principalCache.invalidate(user);
+        if (nameChanged) {
+            bookingSnapshotService.refreshUser(user);
+        }
+        return user;
+    }
+
+    /**
+     * Update a user's location and copy it onto the items they own, which are
+     * searched by location directly.
+     * @param userId User ID
+     * @param longitude Longitude (-180 to 180)
+     * @param latitude Latitude (-90 to 90)
+     * @throws BusinessException if coordinates are out of range or user not found
+     */
+    public void updateLocation(String userId, double longitude, double latitude) {
+        if (longitude < -180.0 || longitude > 180.0 || latitude < -90.0 || latitude > 90.0) {
+            throw new BusinessException("Location coordinates are out of range");
+        }
+
+        GeoJsonPoint location = new GeoJsonPoint(longitude, latitude);
+        if (!userRepository.updateLocation(userId, location)) {
+            throw new BusinessException("User not found");
+        }
+        itemService.syncOwnerLocation(userId, location);
     }
 
     /**
@@ -117,11 +157,10 @@ public class UserService {
             throw new BusinessException("Trust score must be between 0.0 and 5.0");
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException("User not found"));
-        
-        user.setTrustScore(newTrustScore);
-        userRepository.save(user);
+        // Targeted $set; the rest of the user document is not read or rewritten
+        if (!userRepository.updateTrustScore(userId, newTrustScore)) {
+            throw new BusinessException("User not found");
+        }
     }
 
     /**
@@ -134,8 +173,10 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException("User not found"));
         
-        user.setIsActive(active);
-        userRepository.save(user);
+        if (!userRepository.updateActive(userId, active)) {
+            throw new BusinessException("User not found");
+        }
+        principalCache.invalidate(user);
     }
 
     /**
@@ -43,18 +43,11 @@ public class BookingMapper {
         dto.setIsRated(booking.getIsRated());
         dto.setDurationDays(booking.getDurationDays());
 
-        if (booking.getItem() != null) {
-            dto.setItemName(booking.getItem().getName());
-            if (booking.getItem().getImages() != null && !booking.getItem().getImages().isEmpty()) {
-                dto.setItemImageUrl(booking.getItem().getImages().get(0));
-            }
-        }
-        if (booking.getBorrower() != null) {
-            dto.setBorrowerName(booking.getBorrower().getName());
-        }
-        if (booking.getOwner() != null) {
-            dto.setOwnerName(booking.getOwner().getName());
-        }
+        // Names come from the booking's own snapshot: the lazy references are never resolved here
+        dto.setItemName(booking.getItemName());
+        dto.setItemImageUrl(booking.getItemImageUrl());
+        dto.setBorrowerName(booking.getBorrowerName());
+        dto.setOwnerName(booking.getOwnerName());
 
         dto.setStatusDescription(booking.getStatus() != null ? booking.getStatus().getDescription() : null);
         dto.setTimeAgo(calculateTimeAgo(booking.getCreatedDate()));
@@ -88,9 +81,9 @@ public class BookingMapper {
         dto.setDepositAmount(booking.getDepositAmount());
         dto.setCreatedDate(booking.getCreatedDate());
         dto.setDurationDays(booking.getDurationDays());
-        if (booking.getItem() != null) dto.setItemName(booking.getItem().getName());
-        if (booking.getBorrower() != null) dto.setBorrowerName(booking.getBorrower().getName());
-        if (booking.getOwner() != null) dto.setOwnerName(booking.getOwner().getName());
+        dto.setItemName(booking.getItemName());
+        dto.setBorrowerName(booking.getBorrowerName());
+        dto.setOwnerName(booking.getOwnerName());
         dto.setStatusDescription(booking.getStatus() != null ? booking.getStatus().getDescription() : null);
         dto.setTimeAgo(calculateTimeAgo(booking.getCreatedDate()));
         dto.setIsOverdue(booking.isOverdue());
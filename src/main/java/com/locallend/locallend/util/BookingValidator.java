@@ -6,11 +6,10 @@ import com.locallend.locallend.model.Booking;
 import com.locallend.locallend.model.Item;
 import com.locallend.locallend.model.User;
 import com.locallend.locallend.model.enums.ItemStatus;
-import com.locallend.locallend.repository.BookingRepository;
+import com.locallend.locallend.service.BookingAvailabilityIndex;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * Validator for booking business rules and constraints.
@@ -18,8 +17,8 @@ import java.util.List;
 @Component
 public class BookingValidator {
 
-    private static final int DEFAULT_MIN_RENTAL_DAYS = 1;
-    private static final int DEFAULT_MAX_RENTAL_DAYS = 90;
+    public static final int DEFAULT_MIN_RENTAL_DAYS = 1;
+    public static final int DEFAULT_MAX_RENTAL_DAYS = 90;
 
     /**
      * Validate that an item is available for booking.
@@ -78,15 +77,23 @@ public class BookingValidator {
      * Validate no conflicting bookings exist for the item in the date range.
      */
     public void validateNoConflicts(String itemId, LocalDateTime startDate, LocalDateTime endDate,
-                                    BookingRepository repository) {
+                                    BookingAvailabilityIndex availabilityIndex) {
+        validateNoConflicts(itemId, startDate, endDate, null, availabilityIndex);
+    }
+
+    /**
+     * Validate no conflicting bookings exist for the item in the date range,
+     * ignoring the booking being transitioned.
+     */
+    public void validateNoConflicts(String itemId, LocalDateTime startDate, LocalDateTime endDate,
+                                    String excludeBookingId, BookingAvailabilityIndex availabilityIndex) {
         if (itemId == null) {
             throw new IllegalArgumentException("Item ID cannot be null");
         }
 
-        List<Booking> conflicts = repository.findConflictingBookings(itemId, startDate, endDate);
-        
-        if (!conflicts.isEmpty()) {
-            Booking conflict = conflicts.get(0);
+        IntervalTree.Interval conflict = availabilityIndex.findConflict(itemId, startDate, endDate, excludeBookingId);
+
+        if (conflict != null) {
             throw new BookingConflictException(
                 "Item already booked for selected dates. Conflict with booking " + conflict.getId(),
                 itemId,
@@ -135,16 +142,7 @@ public class BookingValidator {
      */
     private boolean canTransitionTo(com.locallend.locallend.model.enums.BookingStatus current,
                                    com.locallend.locallend.model.enums.BookingStatus target) {
-        return switch (current) {
-            case PENDING -> target == com.locallend.locallend.model.enums.BookingStatus.CONFIRMED 
-                         || target == com.locallend.locallend.model.enums.BookingStatus.CANCELLED
-                         || target == com.locallend.locallend.model.enums.BookingStatus.REJECTED;
-            case CONFIRMED -> target == com.locallend.locallend.model.enums.BookingStatus.ACTIVE 
-                           || target == com.locallend.locallend.model.enums.BookingStatus.CANCELLED;
-            case ACTIVE -> target == com.locallend.locallend.model.enums.BookingStatus.COMPLETED 
-                        || target == com.locallend.locallend.model.enums.BookingStatus.OVERDUE;
-            case COMPLETED, CANCELLED, REJECTED, OVERDUE -> false;
-        };
+        return current != null && current.canTransitionTo(target);
     }
 
     /**
@@ -157,18 +155,18 @@ public class BookingValidator {
 
         switch (requiredRole.toUpperCase()) {
             case "BORROWER":
-                if (booking.getBorrower() == null || !userId.equals(booking.getBorrower().getId())) {
+                if (!userId.equals(booking.getBorrowerId())) {
                     throw new IllegalArgumentException("Only the borrower can perform this action");
                 }
                 break;
             case "OWNER":
-                if (booking.getOwner() == null || !userId.equals(booking.getOwner().getId())) {
+                if (!userId.equals(booking.getOwnerId())) {
                     throw new IllegalArgumentException("Only the owner can perform this action");
                 }
                 break;
             case "EITHER":
-                boolean isBorrower = booking.getBorrower() != null && userId.equals(booking.getBorrower().getId());
-                boolean isOwner = booking.getOwner() != null && userId.equals(booking.getOwner().getId());
+                boolean isBorrower = userId.equals(booking.getBorrowerId());
+                boolean isOwner = userId.equals(booking.getOwnerId());
                 if (!isBorrower && !isOwner) {
                     throw new IllegalArgumentException("Only the borrower or owner can perform this action");
                 }
@@ -0,0 +1,48 @@
+package com.locallend.locallend.util;
+
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import java.util.function.Function;
+
+/**
+ * Helpers for working with {@code @DBRef(lazy = true)} references without
+ * triggering the extra round trip that resolving the proxy costs.
+ */
+public class DbRefUtils {
+
+    private DbRefUtils() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Get the id of a referenced document. For an unresolved lazy proxy the id
+     * is read from the stored DBRef, so no query is issued.
+     * @param ref Referenced entity or lazy proxy (may be null)
+     * @param idGetter Id accessor used for already materialized entities
+     * @return Referenced id, or null if there is no reference
+     */
+    public static <T> String idOf(T ref, Function<T, String> idGetter) {
+        if (ref == null) {
+            return null;
+        }
+        if (ref instanceof LazyLoadingProxy proxy) {
+            DBRef dbRef = proxy.toDBRef();
+            return dbRef != null && dbRef.getId() != null ? dbRef.getId().toString() : null;
+        }
+        return idGetter.apply(ref);
+    }
+
+    /**
+     * Id as stored in a DBRef: ObjectId-shaped ids are stored as ObjectIds.
+     * Use it to filter on a reference's $id, e.g. "owner.$id", which is not
+     * converted by the query mapper, and on _id in raw documents and
+     * aggregation stages, which bypass the mapper altogether.
+     * @param id Referenced id
+     * @return ObjectId for a valid ObjectId hex string, otherwise the id itself
+     */
+    public static Object refId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
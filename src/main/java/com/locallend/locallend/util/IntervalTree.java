@@ -0,0 +1,265 @@
+package com.locallend.locallend.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AVL-balanced interval tree of closed [start, end] date ranges keyed by an id.
+ * Each node carries the maximum end date of its subtree, so finding the
+ * earliest interval that overlaps a query range is O(log n).
+ * Not thread-safe; callers synchronize externally.
+ */
+public class IntervalTree {
+
+    private Node root;
+    private final Map<String, Node> byId = new HashMap<>();
+
+    /**
+     * Insert an interval, replacing any existing interval with the same id.
+     */
+    public void put(String id, LocalDateTime start, LocalDateTime end) {
+        if (id == null || start == null || end == null) {
+            throw new IllegalArgumentException("Interval id, start and end are required");
+        }
+        remove(id);
+        Node node = new Node(id, start, end);
+        root = insert(root, node);
+        byId.put(id, node);
+    }
+
+    /**
+     * Remove the interval with the given id.
+     * @return true if an interval was removed
+     */
+    public boolean remove(String id) {
+        Node node = byId.remove(id);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node.start, node.id);
+        return true;
+    }
+
+    public boolean contains(String id) {
+        return byId.containsKey(id);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // Height of the tree, for checking balance in tests
+    int height() {
+        return height(root);
+    }
+
+    /**
+     * Find the earliest-starting interval overlapping [start, end] (closed bounds).
+     * @return Overlapping interval, or null if the range is free
+     */
+    public Interval findFirstOverlap(LocalDateTime start, LocalDateTime end) {
+        Node x = root;
+        while (x != null) {
+            if (x.left != null && !x.left.maxEnd.isBefore(start)) {
+                // If nothing in the left subtree overlaps, nothing to the right can either
+                x = x.left;
+            } else {
+                if (overlaps(x, start, end)) {
+                    return x.toInterval();
+                }
+                if (x.start.isAfter(end)) {
+                    return null;
+                }
+                x = x.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find every interval overlapping [start, end], ordered by start.
+     */
+    public List<Interval> findAllOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<Interval> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    /**
+     * Find the earliest start at or after {@code from} for which
+     * [start, start + length] overlaps no interval. Candidate starts advance
+     * one {@code step} past the end of each blocking interval.
+     */
+    public LocalDateTime findNextFreeStart(LocalDateTime from, Duration length, Duration step) {
+        LocalDateTime candidate = from;
+        Interval blocking;
+        while ((blocking = findFirstOverlap(candidate, candidate.plus(length))) != null) {
+            candidate = blocking.getEnd().plus(step);
+        }
+        return candidate;
+    }
+
+    private static boolean overlaps(Node node, LocalDateTime start, LocalDateTime end) {
+        return !node.start.isAfter(end) && !node.end.isBefore(start);
+    }
+
+    private void collect(Node node, LocalDateTime start, LocalDateTime end, List<Interval> out) {
+        if (node == null || node.maxEnd.isBefore(start)) {
+            return;
+        }
+        collect(node.left, start, end, out);
+        if (node.start.isAfter(end)) {
+            return;
+        }
+        if (overlaps(node, start, end)) {
+            out.add(node.toInterval());
+        }
+        collect(node.right, start, end, out);
+    }
+
+    // ===== AVL maintenance =====
+
+    private static int compare(LocalDateTime start, String id, Node node) {
+        int cmp = start.compareTo(node.start);
+        return cmp != 0 ? cmp : id.compareTo(node.id);
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, LocalDateTime start, String id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime max = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(max)) max = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd.isAfter(max)) max = node.right.maxEnd;
+        node.maxEnd = max;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static final class Node {
+        private final String id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(String id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+        private Interval toInterval() {
+            return new Interval(id, start, end);
+        }
+    }
+
+    /**
+     * Immutable view of a stored interval.
+     */
+    public static class Interval {
+        private final String id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        public Interval(String id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getId() { return id; }
+        public LocalDateTime getStart() { return start; }
+        public LocalDateTime getEnd() { return end; }
+    }
+}
@@ -0,0 +1,67 @@
+package com.locallend.locallend.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalization of free text into search terms: accents are stripped,
+ * letters and digits are lower-cased, and anything else separates terms.
+ * Stored terms and query terms go through the same normalization, so a query
+ * term can be matched as an anchored (index-friendly) prefix.
+ */
+public final class SearchTerms {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchTerms() {
+    }
+
+    /**
+     * Split text into normalized terms.
+     * @param text Text to normalize (may be null)
+     * @return Terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (term.length() > 0) {
+            terms.add(term.toString());
+        }
+        return terms;
+    }
+
+    /**
+     * Search terms for a user: the username as a whole (separators dropped),
+     * its parts, and every word of the display name.
+     * @param username Username (may be null)
+     * @param name Display name (may be null)
+     * @return Distinct terms
+     */
+    public static List<String> forUser(String username, String name) {
+        Set<String> terms = new LinkedHashSet<>();
+        List<String> usernameParts = tokenize(username);
+        if (!usernameParts.isEmpty()) {
+            terms.add(String.join("", usernameParts));
+        }
+        terms.addAll(usernameParts);
+        terms.addAll(tokenize(name));
+        return new ArrayList<>(terms);
+    }
+}
@@ -1,12 +1,14 @@
 package com.locallend.locallend.util;
 
 import com.locallend.locallend.model.Rating;
+import com.locallend.locallend.model.TrustScoreStats;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.DoubleSummaryStatistics;
 
 /**
  * Utility class for calculating user trust scores in the LocalLend platform.
@@ -34,6 +36,10 @@ public class TrustScoreCalculator {
     private static final int MIN_RATINGS_FOR_FULL_TRUST = 10; // Minimum ratings for maximum volume score
     private static final int DAYS_FOR_RECENT_BONUS = 30;      // Days to consider for recency bonus
     private static final double EXCELLENT_THRESHOLD = 4.5;    // Threshold for excellent ratings
+    private static final long SECONDS_PER_DAY = 86_400L;
+    
+    // New users start with neutral 5.0 trust score (Issue #29 default)
+    private static final TrustScoreBreakdown NEUTRAL_BREAKDOWN = new TrustScoreBreakdown(5.0, 5.0, 5.0, 5.0, 5.0, 5.0);
     
     /**
      * Calculate trust score for a user based on their ratings.
@@ -43,209 +49,225 @@ public class TrustScoreCalculator {
      * @return Trust score between 0.0 and 5.0
      */
     public Double calculateTrustScore(List<Rating> ratings) {
-        if (ratings == null || ratings.isEmpty()) {
-            return 5.0; // New users start with neutral 5.0 trust score (Issue #29 default)
-        }
-        
-        // Calculate individual components
-        double baseScore = calculateBaseScore(ratings);
-        double volumeScore = calculateVolumeScore(ratings);
-        double recencyScore = calculateRecencyScore(ratings);
-        double consistencyScore = calculateConsistencyScore(ratings);
-        double verificationScore = calculateVerificationScore(ratings);
-        
-        // Combine scores with weights
-        double trustScore = (baseScore * BASE_WEIGHT) +
-                          (volumeScore * VOLUME_WEIGHT) +
-                          (recencyScore * RECENCY_WEIGHT) +
-                          (consistencyScore * CONSISTENCY_WEIGHT) +
-                          (verificationScore * VERIFICATION_WEIGHT);
-        
-        // Apply any bonuses or penalties
-        trustScore = applyBonusesAndPenalties(trustScore, ratings);
-        
-        // Normalize to 0-5 scale and round to 1 decimal place
-        trustScore = Math.max(0.0, Math.min(5.0, trustScore));
-        return Math.round(trustScore * 10.0) / 10.0;
-    }
-    
-    /**
-     * Calculate base score from average rating.
-     * 
-     * @param ratings List of active ratings
-     * @return Base score (0.0 to 5.0)
-     */
-    private double calculateBaseScore(List<Rating> ratings) {
-        DoubleSummaryStatistics stats = ratings.stream()
-                .mapToDouble(Rating::getRatingValue)
-                .summaryStatistics();
-        
-        return stats.getAverage();
+        return calculateTrustScoreBreakdown(ratings).getFinalScore();
     }
     
     /**
-     * Calculate volume score based on number of ratings.
-     * More ratings generally indicate higher trustworthiness.
+     * Get detailed trust score breakdown for debugging/transparency.
+     * Computed in the same single pass as the score itself.
      * 
-     * @param ratings List of active ratings
-     * @return Volume score (0.0 to 5.0)
+     * @param ratings List of ratings
+     * @return TrustScoreBreakdown with component scores
      */
-    private double calculateVolumeScore(List<Rating> ratings) {
-        int ratingCount = ratings.size();
-        
-        if (ratingCount == 0) {
-            return 5.0; // Neutral for no ratings
+    public TrustScoreBreakdown calculateTrustScoreBreakdown(List<Rating> ratings) {
+        if (ratings == null || ratings.isEmpty()) {
+            return NEUTRAL_BREAKDOWN;
         }
         
-        // Logarithmic scale - diminishing returns after MIN_RATINGS_FOR_FULL_TRUST
-        double score = Math.log(ratingCount + 1) / Math.log(MIN_RATINGS_FOR_FULL_TRUST + 1);
-        score = Math.min(1.0, score);
-        
-        // Scale to 0-5, but start from 4.0 to avoid penalizing too heavily
-        return 4.0 + score;
+        int count = ratings.size();
+        int[] values = new int[count];
+        long[] createdEpochSeconds = new long[count];
+        boolean[] verified = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            Rating rating = ratings.get(i);
+            values[i] = rating.getRatingValue();
+            createdEpochSeconds[i] = rating.getCreatedDate().toEpochSecond(ZoneOffset.UTC);
+            verified[i] = Boolean.TRUE.equals(rating.getIsVerified());
+        }
+        return calculateTrustScoreBreakdown(values, createdEpochSeconds, verified, count,
+                LocalDateTime.now().toEpochSecond(ZoneOffset.UTC));
     }
     
     /**
-     * Calculate recency score - recent ratings are weighted higher.
+     * Single-pass trust score kernel over column arrays of ratings.
+     * Performs no allocation apart from the returned breakdown, so callers that
+     * already hold ratings in primitive form (batch recomputes) can reuse arrays.
      * 
-     * @param ratings List of active ratings
-     * @return Recency score (0.0 to 5.0)
+     * @param values Rating values (1-5)
+     * @param createdEpochSeconds Creation times as UTC epoch seconds
+     * @param verified Whether each rating is verified
+     * @param count Number of ratings to read from the arrays
+     * @param nowEpochSecond Current time as UTC epoch seconds
+     * @return TrustScoreBreakdown whose final score equals the trust score
      */
-    private double calculateRecencyScore(List<Rating> ratings) {
-        LocalDateTime now = LocalDateTime.now();
-        
-        double weightedSum = 0.0;
-        double totalWeight = 0.0;
+    public TrustScoreBreakdown calculateTrustScoreBreakdown(int[] values, long[] createdEpochSeconds,
+                                                           boolean[] verified, int count, long nowEpochSecond) {
+        if (count <= 0) {
+            return NEUTRAL_BREAKDOWN;
+        }
         
-        for (Rating rating : ratings) {
-            long daysAgo = ChronoUnit.DAYS.between(rating.getCreatedDate(), now);
+        long sum = 0;
+        long sumSquares = 0;
+        long verifiedCount = 0;
+        long verifiedSum = 0;
+        long excellentCount = 0;
+        long lowCount = 0;
+        double recencyWeightedSum = 0.0;
+        double recencyWeightSum = 0.0;
+        long oldestEpochSecond = Long.MAX_VALUE;
+        
+        for (int i = 0; i < count; i++) {
+            int value = values[i];
+            long created = createdEpochSeconds[i];
             
-            // Calculate recency weight (higher for more recent ratings)
+            sum += value;
+            sumSquares += (long) value * value;
+            if (verified[i]) {
+                verifiedCount++;
+                verifiedSum += value;
+            }
+            if (value >= EXCELLENT_THRESHOLD) {
+                excellentCount++;
+            }
+            if (value <= 2) {
+                lowCount++;
+            }
+            
+            // Whole days elapsed, truncated like ChronoUnit.DAYS.between
+            long daysAgo = (nowEpochSecond - created) / SECONDS_PER_DAY;
             double recencyWeight = Math.exp(-daysAgo / (double) DAYS_FOR_RECENT_BONUS);
+            recencyWeightedSum += value * recencyWeight;
+            recencyWeightSum += recencyWeight;
             
-            weightedSum += rating.getRatingValue() * recencyWeight;
-            totalWeight += recencyWeight;
+            if (created < oldestEpochSecond) {
+                oldestEpochSecond = created;
+            }
         }
         
-        return totalWeight > 0 ? weightedSum / totalWeight : 5.0;
+        long daysSinceFirst = (nowEpochSecond - oldestEpochSecond) / SECONDS_PER_DAY;
+        return combine(count, sum, sumSquares, verifiedCount, verifiedSum,
+                recencyWeightedSum, recencyWeightSum, excellentCount, lowCount, daysSinceFirst);
     }
     
     /**
-     * Calculate consistency score - consistent ratings are better than volatile ones.
-     * Lower variance in ratings indicates more consistent service.
+     * Calculate trust score from a user's accumulated rating statistics.
+     * Uses the same component formulas as the list-based score; the only
+     * difference is that recency decays continuously rather than by whole days,
+     * since the forward-decayed sums cannot be truncated per rating. Each
+     * rating's weight then differs by a factor of at most e^(-1/30), which
+     * moves the recency component by at most 4 * tanh(1/120) (about 0.034) and
+     * the unrounded score by at most 0.007. The rounded score therefore equals
+     * the list-based score, or differs by 0.1 when it sits on a rounding boundary.
      * 
-     * @param ratings List of active ratings
-     * @return Consistency score (0.0 to 5.0)
+     * @param stats Sufficient statistics of the ratings received by the user
+     * @return Trust score between 0.0 and 5.0
      */
-    private double calculateConsistencyScore(List<Rating> ratings) {
-        if (ratings.size() < 2) {
-            return 5.0; // Single rating is perfectly consistent
-        }
-        
-        DoubleSummaryStatistics stats = ratings.stream()
-                .mapToDouble(Rating::getRatingValue)
-                .summaryStatistics();
-        
-        double average = stats.getAverage();
-        
-        // Calculate standard deviation
-        double variance = ratings.stream()
-                .mapToDouble(r -> Math.pow(r.getRatingValue() - average, 2))
-                .sum() / ratings.size();
-        
-        double stdDev = Math.sqrt(variance);
-        
-        // Convert standard deviation to consistency score
-        // Lower stdDev = higher consistency score
-        // Maximum possible stdDev is 2.0 (for 1-5 scale)
-        double consistencyRatio = 1.0 - (stdDev / 2.0);
-        
-        // Scale to average rating range to maintain score around average
-        return Math.max(0.0, average * consistencyRatio);
+    public Double calculateTrustScore(TrustScoreStats stats) {
+        return calculateTrustScoreBreakdown(stats).getFinalScore();
     }
     
     /**
-     * Calculate verification score based on verified ratings ratio.
-     * Verified ratings (from completed bookings) are more trustworthy.
+     * Trust score breakdown from a user's accumulated rating statistics.
      * 
-     * @param ratings List of active ratings
-     * @return Verification score (0.0 to 5.0)
+     * @param stats Sufficient statistics of the ratings received by the user
+     * @return TrustScoreBreakdown with component scores
      */
-    private double calculateVerificationScore(List<Rating> ratings) {
-        long verifiedRatings = ratings.stream()
-                .filter(Rating::getIsVerified)
-                .count();
-        
-        if (ratings.isEmpty()) {
-            return 5.0;
+    public TrustScoreBreakdown calculateTrustScoreBreakdown(TrustScoreStats stats) {
+        if (stats == null || stats.getRatingCount() <= 0) {
+            return NEUTRAL_BREAKDOWN;
         }
         
-        double verificationRatio = (double) verifiedRatings / ratings.size();
-        
-        // Calculate average of verified ratings
-        DoubleSummaryStatistics verifiedStats = ratings.stream()
-                .filter(Rating::getIsVerified)
-                .mapToDouble(Rating::getRatingValue)
-                .summaryStatistics();
-        
-        double verifiedAverage = verifiedStats.getCount() > 0 ? verifiedStats.getAverage() : 5.0;
-        
-        // Weight verified ratings more heavily
-        return verifiedAverage * (0.7 + 0.3 * verificationRatio);
+        // Rating values are whole stars, so 4.5+ means 5 stars
+        long daysSinceFirst = stats.getOldestRatingDate() != null
+                ? ChronoUnit.DAYS.between(stats.getOldestRatingDate(), LocalDateTime.now())
+                : 0;
+        return combine(stats.getRatingCount(), stats.getRatingSum(), stats.getRatingSumSquares(),
+                stats.getVerifiedCount(), stats.getVerifiedSum(),
+                stats.getRecencyWeightedSum(), stats.getRecencyWeightSum(),
+                stats.countFor(5), stats.countFor(1) + stats.countFor(2), daysSinceFirst);
     }
     
     /**
-     * Apply bonuses and penalties based on specific criteria.
+     * Forward-decay weight of a rating for the recency component.
+     * Weights are relative to {@link TrustScoreStats#RECENCY_EPOCH}; the ratio of
+     * weighted sums equals the exp(-daysAgo / DAYS_FOR_RECENT_BONUS) weighted
+     * average at any later point in time, so the sums never need to be aged.
      * 
-     * @param baseScore Current trust score
-     * @param ratings List of active ratings
-     * @return Adjusted trust score
+     * @param createdDate When the rating was created
+     * @return Recency weight
+     */
+    public double recencyWeight(LocalDateTime createdDate) {
+        double days = Duration.between(TrustScoreStats.RECENCY_EPOCH, createdDate).getSeconds() / (double) SECONDS_PER_DAY;
+        return Math.exp(days / DAYS_FOR_RECENT_BONUS);
+    }
+    
+    /**
+     * Combine sufficient statistics into component scores and the final score.
      */
-    private double applyBonusesAndPenalties(double baseScore, List<Rating> ratings) {
-        double adjustedScore = baseScore;
+    private TrustScoreBreakdown combine(long n, long sum, long sumSquares,
+                                        long verifiedCount, long verifiedSum,
+                                        double recencyWeightedSum, double recencyWeightSum,
+                                        long excellentCount, long lowCount, long daysSinceFirst) {
+        double average = (double) sum / n;
+        
+        // Base score: average rating
+        double baseScore = average;
+        
+        // Volume score: logarithmic, diminishing returns after MIN_RATINGS_FOR_FULL_TRUST,
+        // starting from 4.0 to avoid penalizing too heavily
+        double volume = Math.min(1.0, Math.log(n + 1) / Math.log(MIN_RATINGS_FOR_FULL_TRUST + 1));
+        double volumeScore = 4.0 + volume;
+        
+        // Recency score: recency-weighted average rating
+        double recencyScore = recencyWeightSum > 0 ? recencyWeightedSum / recencyWeightSum : 5.0;
+        
+        // Consistency score: lower standard deviation (max 2.0 on a 1-5 scale) keeps the score near the average
+        double consistencyScore;
+        if (n < 2) {
+            consistencyScore = 5.0; // Single rating is perfectly consistent
+        } else {
+            double variance = Math.max(0.0, (double) sumSquares / n - average * average);
+            double consistencyRatio = 1.0 - (Math.sqrt(variance) / 2.0);
+            consistencyScore = Math.max(0.0, average * consistencyRatio);
+        }
         
-        // Excellence bonus: if user has high percentage of excellent ratings (4.5+)
-        long excellentRatings = ratings.stream()
-                .filter(r -> r.getRatingValue() >= EXCELLENT_THRESHOLD)
-                .count();
+        // Verification score: verified ratings (from completed bookings) weigh more heavily
+        double verificationRatio = (double) verifiedCount / n;
+        double verifiedAverage = verifiedCount > 0 ? (double) verifiedSum / verifiedCount : 5.0;
+        double verificationScore = verifiedAverage * (0.7 + 0.3 * verificationRatio);
         
-        if (excellentRatings > 0) {
-            double excellenceRatio = (double) excellentRatings / ratings.size();
-            if (excellenceRatio >= 0.8) {
-                adjustedScore += 0.3; // Bonus for 80%+ excellent ratings
-            } else if (excellenceRatio >= 0.6) {
-                adjustedScore += 0.2; // Bonus for 60%+ excellent ratings
-            }
+        double trustScore = (baseScore * BASE_WEIGHT) +
+                          (volumeScore * VOLUME_WEIGHT) +
+                          (recencyScore * RECENCY_WEIGHT) +
+                          (consistencyScore * CONSISTENCY_WEIGHT) +
+                          (verificationScore * VERIFICATION_WEIGHT);
+        
+        // Excellence bonus: high percentage of excellent ratings (4.5+)
+        double excellenceRatio = (double) excellentCount / n;
+        if (excellenceRatio >= 0.8) {
+            trustScore += 0.3; // Bonus for 80%+ excellent ratings
+        } else if (excellenceRatio >= 0.6) {
+            trustScore += 0.2; // Bonus for 60%+ excellent ratings
         }
         
         // Penalty for having very low ratings
-        long lowRatings = ratings.stream()
-                .filter(r -> r.getRatingValue() <= 2)
-                .count();
-        
-        if (lowRatings > 0) {
-            double lowRatingRatio = (double) lowRatings / ratings.size();
-            if (lowRatingRatio >= 0.3) {
-                adjustedScore -= 0.5; // Penalty for 30%+ low ratings
-            } else if (lowRatingRatio >= 0.15) {
-                adjustedScore -= 0.3; // Penalty for 15%+ low ratings
-            }
+        double lowRatingRatio = (double) lowCount / n;
+        if (lowRatingRatio >= 0.3) {
+            trustScore -= 0.5; // Penalty for 30%+ low ratings
+        } else if (lowRatingRatio >= 0.15) {
+            trustScore -= 0.3; // Penalty for 15%+ low ratings
         }
         
-        // Longevity bonus: ratings spread over time indicate sustained good behavior
-        if (ratings.size() >= 5) {
-            LocalDateTime oldest = ratings.stream()
-                    .map(Rating::getCreatedDate)
-                    .min(LocalDateTime::compareTo)
-                    .orElse(LocalDateTime.now());
-            
-            long daysSinceFirst = ChronoUnit.DAYS.between(oldest, LocalDateTime.now());
-            if (daysSinceFirst >= 90) { // 3+ months of ratings
-                adjustedScore += 0.1; // Small longevity bonus
-            }
+        // Longevity bonus: 3+ months of ratings indicate sustained good behavior
+        if (n >= 5 && daysSinceFirst >= 90) {
+            trustScore += 0.1;
         }
         
-        return Math.max(0.0, Math.min(5.0, adjustedScore));
+        // Normalize to 0-5 scale and round to 1 decimal place
+        trustScore = Math.max(0.0, Math.min(5.0, trustScore));
+        
+        return new TrustScoreBreakdown(
+            round(trustScore),
+            round(baseScore),
+            round(volumeScore),
+            round(recencyScore),
+            round(consistencyScore),
+            round(verificationScore)
+        );
+    }
+    
+    private static double round(double score) {
+        return Math.round(score * 10.0) / 10.0;
     }
     
     /**
@@ -266,41 +288,6 @@ public class TrustScoreCalculator {
         }
     }
     
-    /**
-     * Get detailed trust score breakdown for debugging/transparency.
-     * 
-     * @param ratings List of ratings
-     * @return TrustScoreBreakdown with component scores
-     */
-    public TrustScoreBreakdown calculateTrustScoreBreakdown(List<Rating> ratings) {
-        if (ratings == null || ratings.isEmpty()) {
-            return new TrustScoreBreakdown(5.0, 5.0, 5.0, 5.0, 5.0, 5.0);
-        }
-        
-        double baseScore = calculateBaseScore(ratings);
-        double volumeScore = calculateVolumeScore(ratings);
-        double recencyScore = calculateRecencyScore(ratings);
-        double consistencyScore = calculateConsistencyScore(ratings);
-        double verificationScore = calculateVerificationScore(ratings);
-        
-        double finalScore = (baseScore * BASE_WEIGHT) +
-                          (volumeScore * VOLUME_WEIGHT) +
-                          (recencyScore * RECENCY_WEIGHT) +
-                          (consistencyScore * CONSISTENCY_WEIGHT) +
-                          (verificationScore * VERIFICATION_WEIGHT);
-        
-        finalScore = applyBonusesAndPenalties(finalScore, ratings);
-        
-        return new TrustScoreBreakdown(
-            Math.round(finalScore * 10.0) / 10.0,
-            Math.round(baseScore * 10.0) / 10.0,
-            Math.round(volumeScore * 10.0) / 10.0,
-            Math.round(recencyScore * 10.0) / 10.0,
-            Math.round(consistencyScore * 10.0) / 10.0,
-            Math.round(verificationScore * 10.0) / 10.0
-        );
-    }
-    
     /**
      * Inner class for detailed trust score breakdown.
      */
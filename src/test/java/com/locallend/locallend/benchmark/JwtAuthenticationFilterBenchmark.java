@@ -0,0 +1,119 @@
+package com.locallend.locallend.benchmark;
+
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.repository.UserRepository;
+import com.locallend.locallend.security.JwtAuthenticationFilter;
+import com.locallend.locallend.security.JwtTokenProvider;
+import com.locallend.locallend.security.MongoUserDetailsService;
+import com.locallend.locallend.security.PrincipalCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of JwtAuthenticationFilter for a request carrying a valid token,
+ * with and without the verified-token cache, plus the previous per-call
+ * key/parser construction for reference. The user repository is an in-memory
+ * stub, so only token handling and principal lookup are measured.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=JwtAuthenticationFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId("u1");
+        user.setUsername("bench");
+        user.setEmail("bench@example.com");
+        user.setPassword("irrelevant");
+        user.setIsActive(true);
+
+        MongoUserDetailsService userDetailsService = new MongoUserDetailsService(stubRepository(user));
+        JwtTokenProvider uncachedProvider = new JwtTokenProvider(SECRET, 3_600_000L, 0, 0);
+        JwtTokenProvider cachedProvider = new JwtTokenProvider(SECRET, 3_600_000L, 30_000L, 10_000);
+
+        uncachedFilter = new JwtAuthenticationFilter(uncachedProvider, userDetailsService,
+                new PrincipalCache(60_000L, 10_000, new SimpleMeterRegistry()));
+        cachedFilter = new JwtAuthenticationFilter(cachedProvider, userDetailsService,
+                new PrincipalCache(60_000L, 10_000, new SimpleMeterRegistry()));
+        token = uncachedProvider.generateToken(user.getUsername());
+    }
+
+    @Benchmark
+    public Object filterWithoutVerifiedTokenCache() throws Exception {
+        return runFilter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object filterWithVerifiedTokenCache() throws Exception {
+        return runFilter(cachedFilter);
+    }
+
+    @Benchmark
+    public String legacyValidateThenGetUsername() {
+        // Previous behaviour: key and parser rebuilt, token verified twice
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    private Object runFilter(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    private static UserRepository stubRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByUsernameOrEmail")) {
+                        return Optional.of(user);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,88 @@
+package com.locallend.locallend.benchmark;
+
+import com.locallend.locallend.model.Rating;
+import com.locallend.locallend.model.RatingType;
+import com.locallend.locallend.support.LegacyTrustScore;
+import com.locallend.locallend.util.TrustScoreCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trust score calculation cost by number of ratings received.
+ *
+ * Compares the single-pass kernel (from a rating list and from primitive
+ * columns) with the previous multi-pass stream implementation,
+ * {@link LegacyTrustScore}.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=TrustScoreCalculatorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrustScoreCalculatorBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    private int ratingCount;
+
+    private final TrustScoreCalculator calculator = new TrustScoreCalculator();
+    private List<Rating> ratings;
+    private int[] values;
+    private long[] createdEpochSeconds;
+    private boolean[] verified;
+    private long nowEpochSecond;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        ratings = new ArrayList<>(ratingCount);
+        values = new int[ratingCount];
+        createdEpochSeconds = new long[ratingCount];
+        verified = new boolean[ratingCount];
+        for (int i = 0; i < ratingCount; i++) {
+            Rating rating = new Rating("rater" + i, "ratee", RatingType.BORROWER_TO_OWNER, 1 + random.nextInt(5));
+            rating.setCreatedDate(now.minusMinutes(random.nextInt(60 * 24 * 365)));
+            rating.setIsVerified(random.nextBoolean());
+            ratings.add(rating);
+            values[i] = rating.getRatingValue();
+            createdEpochSeconds[i] = rating.getCreatedDate().toEpochSecond(ZoneOffset.UTC);
+            verified[i] = rating.getIsVerified();
+        }
+        nowEpochSecond = now.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @Benchmark
+    public TrustScoreCalculator.TrustScoreBreakdown kernelFromList() {
+        return calculator.calculateTrustScoreBreakdown(ratings);
+    }
+
+    @Benchmark
+    public TrustScoreCalculator.TrustScoreBreakdown kernelFromColumns() {
+        return calculator.calculateTrustScoreBreakdown(values, createdEpochSeconds, verified, ratingCount, nowEpochSecond);
+    }
+
+    @Benchmark
+    public double legacyScoreAndBreakdown() {
+        // The old code computed the score and the breakdown with separate full passes
+        return LegacyTrustScore.score(ratings) + LegacyTrustScore.score(ratings);
+    }
+}
@@ -0,0 +1,110 @@
+package com.locallend.locallend.monitoring;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.locallend.locallend.support.MongoQueryAssertions.assertMongoCommands;
+import static com.locallend.locallend.support.MongoQueryAssertions.countQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * MongoQueryTracker attribution and MongoQueryBudgetFilter reporting, driven
+ * by synthetic driver events on the request thread.
+ */
+class MongoQueryBudgetFilterTest {
+
+    private final MongoQueryTracker tracker = new MongoQueryTracker();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void countsCommandsAndReturnedDocumentsPerScope() {
+        MongoQueryStats stats = countQueries(() -> {
+            tracker.commandSucceeded(find(3, 2));
+            tracker.commandSucceeded(event("findAndModify", new BsonDocument("value", new BsonDocument()), 1));
+            tracker.commandSucceeded(event("hello", new BsonDocument(), 1));
+        });
+
+        assertEquals(2, stats.getCommands());
+        assertEquals(4, stats.getDocuments());
+        assertEquals(3, stats.getElapsedMillis());
+    }
+
+    @Test
+    void nestedScopesAllCountAndUnscopedCommandsAreIgnored() {
+        tracker.commandSucceeded(find(5, 1));
+
+        MongoQueryStats outer = countQueries(() -> {
+            tracker.commandSucceeded(find(1, 1));
+            assertMongoCommands(2, () -> {
+                tracker.commandSucceeded(find(1, 1));
+                tracker.commandSucceeded(find(1, 1));
+            });
+        });
+
+        assertEquals(3, outer.getCommands());
+    }
+
+    @Test
+    void reportsTotalsInHeadersAndCountsRequestsOverBudget() throws Exception {
+        MongoQueryBudgetFilter filter = new MongoQueryBudgetFilter(meterRegistry, 2, 1_000, true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items/42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/items/{id}");
+            for (int i = 0; i < 3; i++) {
+                tracker.commandSucceeded(find(1, 1));
+            }
+            res.getWriter().write("{}");
+            tracker.commandSucceeded(find(1, 1)); // After the body started: logged, not in the headers
+        });
+
+        assertEquals("3", response.getHeader(MongoQueryBudgetFilter.COMMANDS_HEADER));
+        assertEquals("3", response.getHeader(MongoQueryBudgetFilter.DOCUMENTS_HEADER));
+        assertEquals(1.0, meterRegistry.counter("mongo.query.budget.exceeded",
+                "endpoint", "GET /api/items/{id}").count());
+    }
+
+    @Test
+    void writesHeadersOfBodilessResponsesAndStaysQuietWithinBudget() throws Exception {
+        MongoQueryBudgetFilter filter = new MongoQueryBudgetFilter(meterRegistry, 2, 1_000, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/categories"), response, (req, res) -> {
+            tracker.commandSucceeded(find(0, 1));
+            ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        });
+
+        assertEquals("1", response.getHeader(MongoQueryBudgetFilter.COMMANDS_HEADER));
+        assertNull(meterRegistry.find("mongo.query.budget.exceeded").counter());
+    }
+
+    private static CommandSucceededEvent find(int documents, long millis) {
+        BsonArray batch = new BsonArray();
+        for (int i = 0; i < documents; i++) {
+            batch.add(new BsonDocument("_id", new BsonInt32(i)));
+        }
+        return event("find", new BsonDocument("cursor", new BsonDocument("firstBatch", batch)), millis);
+    }
+
+    private static CommandSucceededEvent event(String commandName, BsonDocument response, long millis) {
+        ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+        return new CommandSucceededEvent(null, 1, 1, connection, "locallend", commandName, response,
+                TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,139 @@
+package com.locallend.locallend.monitoring;
+
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.Category;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.Rating;
+import com.locallend.locallend.model.RatingType;
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.model.enums.BookingStatus;
+import com.locallend.locallend.model.enums.ItemCondition;
+import com.locallend.locallend.model.enums.ItemStatus;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seed data for the query plan audit. Plans explained against empty
+ * collections say little: with no documents every candidate plan ties, so the
+ * planner's choice between indexes, and whether a blocking sort wins, is only
+ * meaningful once the collections hold data with realistic selectivity.
+ *
+ * Values are spread the way production data is skewed: most items active and
+ * available, a few owners with many items, most bookings finished. The data is
+ * generated from a fixed seed, so every audit run explains the same plans.
+ */
+final class QueryPlanAuditFixture {
+
+    static final int USERS = 200;
+    static final int CATEGORIES = 30;
+    static final int ITEMS = 5_000;
+    static final int BOOKINGS = 5_000;
+    static final int RATINGS = 5_000;
+
+    private QueryPlanAuditFixture() {
+    }
+
+    /**
+     * Replace the contents of the audited collections with the seed data.
+     * Drops the collections, so only point this at a scratch database.
+     */
+    static void seed(MongoTemplate mongoTemplate) {
+        Random random = new Random(20240601L);
+        LocalDateTime now = LocalDateTime.now();
+        for (Class<?> type : List.of(User.class, Category.class, Item.class, Booking.class, Rating.class)) {
+            mongoTemplate.dropCollection(type);
+        }
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("user" + i, "User " + i, "user" + i + "@example.com", "x");
+            user.setIsActive(random.nextInt(10) != 0);
+            user.setCreatedDate(now.minusDays(random.nextInt(720)));
+            user.setTrustScore(Math.round(random.nextDouble() * 50) / 10.0);
+            user.setLocation(randomPoint(random));
+            users.add(user);
+        }
+        users = new ArrayList<>(mongoTemplate.insertAll(users));
+
+        List<Category> categories = new ArrayList<>(CATEGORIES);
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = new Category("Category " + i, "Seed category " + i,
+                    i < 5 ? null : "parent-" + (i % 5));
+            category.setActive(i % 7 != 0);
+            category.setCreatedAt(now.minusDays(i));
+            categories.add(category);
+        }
+        categories = new ArrayList<>(mongoTemplate.insertAll(categories));
+
+        List<Item> items = new ArrayList<>(ITEMS);
+        ItemCondition[] conditions = ItemCondition.values();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item("Item " + i, "Seed item " + i, conditions[random.nextInt(conditions.length)],
+                    random.nextInt(200));
+            // Square the index so a few owners hold most items
+            User owner = users.get((int) (Math.pow(random.nextDouble(), 2) * users.size()));
+            item.setOwner(owner);
+            item.setCategory(categories.get(random.nextInt(categories.size())));
+            item.setActive(random.nextInt(10) != 0);
+            item.setStatus(randomItemStatus(random));
+            item.setAverageRating(random.nextInt(51) / 10.0);
+            item.setLocation(owner.getLocation());
+            item.setCreatedAt(now.minusMinutes(random.nextInt(720 * 24 * 60)));
+            item.setUpdatedAt(item.getCreatedAt());
+            items.add(item);
+        }
+        items = new ArrayList<>(mongoTemplate.insertAll(items));
+
+        List<Booking> bookings = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Item item = items.get(random.nextInt(items.size()));
+            User borrower = users.get(random.nextInt(users.size()));
+            LocalDateTime start = now.plusDays(random.nextInt(400) - 300);
+            Booking booking = new Booking(item, borrower, item.getOwner(), start, start.plusDays(1 + random.nextInt(14)));
+            booking.setStatus(randomBookingStatus(random));
+            booking.setCreatedDate(start.minusDays(1 + random.nextInt(30)));
+            bookings.add(booking);
+        }
+        bookings = new ArrayList<>(mongoTemplate.insertAll(bookings));
+
+        List<Rating> ratings = new ArrayList<>(RATINGS);
+        RatingType[] types = RatingType.values();
+        for (int i = 0; i < RATINGS; i++) {
+            Booking booking = bookings.get(random.nextInt(bookings.size()));
+            Rating rating = new Rating(booking.getBorrowerId(), booking.getOwnerId(),
+                    types[random.nextInt(types.length)], 1 + random.nextInt(5));
+            rating.setItemId(booking.getItemId());
+            rating.setBookingId(booking.getId());
+            rating.setIsVerified(random.nextBoolean());
+            rating.setCreatedDate(booking.getEndDate());
+            ratings.add(rating);
+        }
+        mongoTemplate.insertAll(ratings);
+    }
+
+    private static GeoJsonPoint randomPoint(Random random) {
+        // Around a single city, like a local lending community
+        return new GeoJsonPoint(-0.5 + random.nextDouble(), 51.0 + random.nextDouble());
+    }
+
+    private static ItemStatus randomItemStatus(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 70) {
+            return ItemStatus.AVAILABLE;
+        }
+        return roll < 85 ? ItemStatus.BORROWED : ItemStatus.values()[random.nextInt(ItemStatus.values().length)];
+    }
+
+    private static BookingStatus randomBookingStatus(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 60) {
+            return BookingStatus.COMPLETED;
+        }
+        return roll < 70 ? BookingStatus.ACTIVE : BookingStatus.values()[random.nextInt(BookingStatus.values().length)];
+    }
+}
@@ -0,0 +1,97 @@
+package com.locallend.locallend.monitoring;
+
+import com.locallend.locallend.model.enums.BookingStatus;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plan inspection, sample arguments and command recording of
+ * QueryPlanAuditor; the audit against a database is RepositoryQueryPlanTest.
+ */
+class QueryPlanAuditorTest {
+
+    @Test
+    void indexScansPassAndRejectedPlansAreIgnored() {
+        Document explain = new Document("queryPlanner", new Document()
+                .append("winningPlan", stage("FETCH", stage("IXSCAN", null)))
+                .append("rejectedPlans", List.of(stage("SORT", stage("COLLSCAN", null)))));
+
+        assertEquals(List.of(), QueryPlanAuditor.problems(explain));
+    }
+
+    @Test
+    void reportsCollectionScansAndBlockingSortsInAggregationCursors() {
+        Document cursorStage = new Document("$cursor", new Document("queryPlanner",
+                new Document("winningPlan", stage("SORT", stage("COLLSCAN", null)))));
+        Document explain = new Document("stages", List.of(cursorStage, new Document("$group", new Document())));
+
+        assertEquals(List.of("collection scan", "in-memory sort"), QueryPlanAuditor.problems(explain));
+    }
+
+    @Test
+    void readsSlotBasedEnginePlans() {
+        Document explain = new Document("queryPlanner", new Document("winningPlan", new Document()
+                .append("queryPlan", stage("SORT_MERGE", stage("IXSCAN", null)))
+                .append("slotBasedPlan", new Document("stages", "[1] COLLSCAN SORT"))));
+
+        assertEquals(List.of(), QueryPlanAuditor.problems(explain));
+    }
+
+    @Test
+    void samplesQueryParameters() throws NoSuchMethodException {
+        assertEquals(BookingStatus.values()[0], QueryPlanAuditor.sampleValue(BookingStatus.class, BookingStatus.class));
+        assertTrue(((Sort) QueryPlanAuditor.sampleValue(Sort.class, Sort.class)).isUnsorted());
+
+        var method = Samples.class.getDeclaredMethod("find", Collection.class, Runnable.class);
+        Object statuses = QueryPlanAuditor.sampleValue(Collection.class, method.getGenericParameterTypes()[0]);
+        assertEquals(List.of(BookingStatus.values()[0]), statuses);
+        assertNull(QueryPlanAuditor.sampleValue(Runnable.class, Runnable.class));
+    }
+
+    @Test
+    void recordsTheCommandsOfTheCurrentThreadOnly() {
+        MongoQueryTracker tracker = new MongoQueryTracker();
+        tracker.commandStarted(started("find", "items"));
+
+        List<BsonDocument> commands;
+        try (MongoQueryTracker.Recording recording = MongoQueryTracker.record()) {
+            tracker.commandStarted(started("find", "bookings"));
+            tracker.commandStarted(started("hello", "admin"));
+            commands = recording.getCommands();
+        }
+        tracker.commandStarted(started("find", "ratings"));
+
+        assertEquals(1, commands.size());
+        assertEquals("bookings", commands.get(0).getString("find").getValue());
+    }
+
+    private static Document stage(String name, Document input) {
+        Document stage = new Document("stage", name);
+        return input != null ? stage.append("inputStage", input) : stage;
+    }
+
+    private static CommandStartedEvent started(String commandName, String collection) {
+        ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+        return new CommandStartedEvent(null, 1, 1, connection, "locallend", commandName,
+                new BsonDocument(commandName, new BsonString(collection)));
+    }
+
+    private interface Samples {
+        void find(Collection<BookingStatus> statuses, Runnable notSupported);
+    }
+}
@@ -0,0 +1,49 @@
+package com.locallend.locallend.monitoring;
+
+import com.locallend.locallend.config.MongoIndexInitializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails the build when a repository query runs without a supporting index.
+ * The collections are seeded first (see QueryPlanAuditFixture), so plans are
+ * chosen against data rather than empty collections. Needs a MongoDB it may
+ * drop collections in, so it only runs in the query-plan-audit Maven profile:
+ *
+ * <pre>
+ * mvn -Pquery-plan-audit test -Dtest=RepositoryQueryPlanTest
+ * </pre>
+ */
+@SpringBootTest(properties = "spring.data.mongodb.uri="
+        + "${QUERY_PLAN_AUDIT_MONGODB_URI:mongodb://localhost:27017/locallend_query_plan_audit}")
+@EnabledIfSystemProperty(named = "queryPlanAudit", matches = "true")
+class RepositoryQueryPlanTest {
+
+    @Autowired
+    private ListableBeanFactory beanFactory;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    @Test
+    void everyRepositoryQueryRunsOnAnIndex() {
+        QueryPlanAuditFixture.seed(mongoTemplate);
+        assertEquals(0, mongoIndexInitializer.ensureIndexes(), "indexes that could not be created");
+
+        QueryPlanAuditor.Report report = new QueryPlanAuditor(beanFactory, mongoTemplate).audit();
+
+        assertFalse(report.hasViolations(), report.toString());
+        assertTrue(report.getAudited() > 0, report.toString());
+    }
+}
@@ -0,0 +1,203 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.enums.BookingStatus;
+import com.locallend.locallend.model.enums.ItemStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contention behaviour of BookingStateMachine against a real MongoDB, where
+ * the atomicity of each conditional update comes from the server rather than
+ * from a stand-in (see BookingStateMachineTest). Needs a MongoDB it may write
+ * bookings and items to, so it only runs in the mongo-contention Maven profile:
+ *
+ * <pre>
+ * mvn -Pmongo-contention test -Dtest=BookingStateMachineMongoTest
+ * </pre>
+ */
+@SpringBootTest(properties = "spring.data.mongodb.uri="
+        + "${MONGO_CONTENTION_MONGODB_URI:mongodb://localhost:27017/locallend_contention_test}")
+@EnabledIfSystemProperty(named = "mongoContention", matches = "true")
+class BookingStateMachineMongoTest {
+
+    private static final String OWNER_ID = "owner-1";
+    private static final String BORROWER_ID = "borrower-1";
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private BookingStateMachine stateMachine;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        stateMachine = new BookingStateMachine(mongoTemplate);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void competingTransitionsFromPendingFormOneValidChain() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Item item = insertItem(ItemStatus.AVAILABLE);
+            String bookingId = insertBooking(item, BookingStatus.PENDING);
+
+            AtomicInteger confirmed = new AtomicInteger();
+            AtomicInteger cancelled = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            List<Throwable> errors = race(i -> {
+                switch (i % 3) {
+                    case 0:
+                        stateMachine.confirm(bookingId, OWNER_ID, "ok");
+                        confirmed.incrementAndGet();
+                        break;
+                    case 1:
+                        stateMachine.reject(bookingId, OWNER_ID, "no");
+                        rejected.incrementAndGet();
+                        break;
+                    default:
+                        stateMachine.cancel(bookingId, BORROWER_ID, "changed my mind");
+                        cancelled.incrementAndGet();
+                }
+            });
+
+            // Either one transition from PENDING applied, or confirm followed by cancel
+            assertTrue(confirmed.get() <= 1 && rejected.get() <= 1 && cancelled.get() <= 1,
+                    confirmed + " confirmed, " + rejected + " rejected, " + cancelled + " cancelled");
+            assertTrue(rejected.get() + confirmed.get() <= 1, "both confirmed and rejected");
+            BookingStatus status = bookingStatus(bookingId);
+            if (cancelled.get() == 1) {
+                assertEquals(BookingStatus.CANCELLED, status);
+                assertEquals(0, rejected.get());
+            } else {
+                assertEquals(1, confirmed.get() + rejected.get());
+                assertEquals(confirmed.get() == 1 ? BookingStatus.CONFIRMED : BookingStatus.REJECTED, status);
+            }
+            assertEquals(THREADS - confirmed.get() - rejected.get() - cancelled.get(), errors.size());
+            for (Throwable error : errors) {
+                assertInstanceOf(IllegalStateException.class, error);
+            }
+        }
+    }
+
+    @Test
+    void lifecycleTransitionsAndItemStatusApplyOncePerBooking() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Item item = insertItem(ItemStatus.AVAILABLE);
+            String bookingId = insertBooking(item, BookingStatus.CONFIRMED);
+            AtomicInteger activations = new AtomicInteger();
+            AtomicInteger itemChanges = new AtomicInteger();
+
+            race(i -> {
+                Booking activated = stateMachine.activate(bookingId, BORROWER_ID);
+                activations.incrementAndGet();
+                if (stateMachine.markItemBorrowed(activated.getItemId())) {
+                    itemChanges.incrementAndGet();
+                }
+            });
+            assertEquals(1, activations.get());
+            assertEquals(BookingStatus.ACTIVE, bookingStatus(bookingId));
+            assertEquals(ItemStatus.BORROWED, mongoTemplate.findById(item.getId(), Item.class).getStatus());
+
+            AtomicInteger completions = new AtomicInteger();
+            race(i -> {
+                Booking completed = stateMachine.complete(bookingId, BORROWER_ID);
+                completions.incrementAndGet();
+                if (stateMachine.markItemReturned(completed.getItemId())) {
+                    itemChanges.incrementAndGet();
+                }
+            });
+            assertEquals(1, completions.get());
+            assertEquals(BookingStatus.COMPLETED, bookingStatus(bookingId));
+            assertEquals(ItemStatus.AVAILABLE, mongoTemplate.findById(item.getId(), Item.class).getStatus());
+            assertEquals(2, itemChanges.get());
+        }
+    }
+
+    private Item insertItem(ItemStatus status) {
+        Item item = new Item();
+        item.setName("Contention test item");
+        item.setStatus(status);
+        return mongoTemplate.insert(item);
+    }
+
+    private String insertBooking(Item item, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItemId(item.getId());
+        booking.setOwnerId(OWNER_ID);
+        booking.setBorrowerId(BORROWER_ID);
+        booking.setStatus(status);
+        return mongoTemplate.insert(booking).getId();
+    }
+
+    private BookingStatus bookingStatus(String bookingId) {
+        return mongoTemplate.findOne(new Query(Criteria.where("_id").is(bookingId)), Booking.class).getStatus();
+    }
+
+    /**
+     * Run the attempt on every thread at once.
+     * @return The runtime exceptions of the attempts that failed
+     */
+    private List<Throwable> race(Attempt attempt) throws InterruptedException, ExecutionException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            Callable<Void> task = () -> {
+                start.await();
+                attempt.run(index);
+                return null;
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+
+        List<Throwable> errors = new ArrayList<>();
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof RuntimeException)) {
+                    throw e;
+                }
+                errors.add(e.getCause());
+            }
+        }
+        return errors;
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        void run(int index);
+    }
+}
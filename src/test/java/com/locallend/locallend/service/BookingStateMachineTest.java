@@ -0,0 +1,313 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.exception.BookingNotFoundException;
+import com.locallend.locallend.model.Booking;
+import com.locallend.locallend.model.Item;
+import com.locallend.locallend.model.enums.BookingStatus;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contention behaviour of BookingStateMachine. A single booking and item are
+ * hammered from many threads against a stand-in for MongoTemplate that
+ * applies each conditional update atomically, the way the server does for a
+ * single document: the applied transitions must form one valid chain with
+ * each transition applied at most once, and every losing attempt must be
+ * rejected with the error of the status it found.
+ *
+ * The atomicity comes from the stand-in's lock, not from a server, so this
+ * verifies that every transition is sent as one conditional update with the
+ * right filter and that the state machine handles losing a race correctly.
+ * Real server-side contention is covered by BookingStateMachineMongoTest,
+ * which runs the same races against a MongoDB.
+ */
+class BookingStateMachineTest {
+
+    private static final String BOOKING_ID = "booking-1";
+    private static final String ITEM_ID = "item-1";
+    private static final String OWNER_ID = "owner-1";
+    private static final String BORROWER_ID = "borrower-1";
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 50;
+
+    private AtomicDocumentStore store;
+    private BookingStateMachine stateMachine;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        store = new AtomicDocumentStore();
+        stateMachine = new BookingStateMachine(store.template);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void competingTransitionsFromPendingFormOneValidChain() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            store.reset(BookingStatus.PENDING, "AVAILABLE");
+
+            List<Outcome> outcomes = race(i -> {
+                switch (i % 3) {
+                    case 0:
+                        return stateMachine.confirm(BOOKING_ID, OWNER_ID, "ok");
+                    case 1:
+                        return stateMachine.reject(BOOKING_ID, OWNER_ID, "no");
+                    default:
+                        return stateMachine.cancel(BOOKING_ID, BORROWER_ID, "changed my mind");
+                }
+            });
+
+            // Only confirm -> cancel may both apply; every applied transition must start from the status before it
+            List<BookingStatus> history = store.history();
+            assertEquals(successes(outcomes).size(), history.size());
+            assertTrue(history.size() == 1 || history.equals(List.of(BookingStatus.CONFIRMED, BookingStatus.CANCELLED)),
+                    "Unexpected transitions: " + history);
+            BookingStatus previous = BookingStatus.PENDING;
+            for (BookingStatus next : history) {
+                assertTrue(previous.canTransitionTo(next), previous + " -> " + next);
+                previous = next;
+            }
+            assertEquals(previous, store.bookingStatus());
+            for (Outcome outcome : outcomes) {
+                if (outcome.error != null) {
+                    assertInstanceOf(IllegalStateException.class, outcome.error);
+                }
+            }
+        }
+    }
+
+    @Test
+    void lifecycleTransitionsAndItemStatusApplyOncePerBooking() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            store.reset(BookingStatus.CONFIRMED, "AVAILABLE");
+            AtomicInteger itemChanges = new AtomicInteger();
+
+            List<Outcome> activations = race(i -> {
+                Booking activated = stateMachine.activate(BOOKING_ID, BORROWER_ID);
+                if (stateMachine.markItemBorrowed(activated.getItemId())) {
+                    itemChanges.incrementAndGet();
+                }
+                return activated;
+            });
+            assertEquals(1, successes(activations).size());
+            assertEquals(List.of(BookingStatus.ACTIVE), store.history());
+            assertEquals(BookingStatus.ACTIVE, store.bookingStatus());
+            assertEquals("BORROWED", store.itemStatus());
+
+            List<Outcome> completions = race(i -> {
+                Booking completed = stateMachine.complete(BOOKING_ID, BORROWER_ID);
+                if (stateMachine.markItemReturned(completed.getItemId())) {
+                    itemChanges.incrementAndGet();
+                }
+                return completed;
+            });
+            assertEquals(1, successes(completions).size());
+            assertEquals(BookingStatus.COMPLETED, store.bookingStatus());
+            assertEquals("AVAILABLE", store.itemStatus());
+            assertEquals(2, itemChanges.get());
+        }
+    }
+
+    @Test
+    void completesOverdueBookings() {
+        store.reset(BookingStatus.OVERDUE, "BORROWED");
+
+        assertEquals(BookingStatus.COMPLETED, stateMachine.complete(BOOKING_ID, BORROWER_ID).getStatus());
+    }
+
+    @Test
+    void rejectsWrongActorAndMissingBooking() {
+        store.reset(BookingStatus.PENDING, "AVAILABLE");
+
+        assertThrows(IllegalArgumentException.class, () -> stateMachine.confirm(BOOKING_ID, BORROWER_ID, null));
+        assertThrows(IllegalArgumentException.class, () -> stateMachine.cancel(BOOKING_ID, OWNER_ID, null));
+        assertThrows(BookingNotFoundException.class, () -> stateMachine.confirm("missing", OWNER_ID, null));
+        assertEquals(BookingStatus.PENDING, store.bookingStatus());
+    }
+
+    private List<Outcome> race(Attempt attempt) throws InterruptedException, ExecutionException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Booking>> futures = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            Callable<Booking> task = () -> {
+                start.await();
+                return attempt.run(index);
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+
+        List<Outcome> outcomes = new ArrayList<>(THREADS);
+        for (Future<Booking> future : futures) {
+            try {
+                outcomes.add(new Outcome(future.get(), null));
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof RuntimeException)) {
+                    throw e;
+                }
+                outcomes.add(new Outcome(null, e.getCause()));
+            }
+        }
+        return outcomes;
+    }
+
+    private static List<Booking> successes(List<Outcome> outcomes) {
+        List<Booking> bookings = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.booking != null) {
+                bookings.add(outcome.booking);
+            }
+        }
+        return bookings;
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        Booking run(int index);
+    }
+
+    private static final class Outcome {
+        private final Booking booking;
+        private final Throwable error;
+
+        private Outcome(Booking booking, Throwable error) {
+            this.booking = booking;
+            this.error = error;
+        }
+    }
+
+    /**
+     * One booking and one item document. Filters are matched and $set updates
+     * applied under a single lock, like the server's per-document atomicity.
+     */
+    private static final class AtomicDocumentStore {
+        private final MongoTemplate template = mock(MongoTemplate.class);
+        private final Map<String, Object> booking = new HashMap<>();
+        private final Map<String, Object> item = new HashMap<>();
+        private final List<BookingStatus> history = new ArrayList<>();
+
+        AtomicDocumentStore() {
+            when(template.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                    eq(Booking.class))).thenAnswer(invocation -> {
+                Query query = invocation.getArgument(0);
+                Update update = invocation.getArgument(1);
+                synchronized (this) {
+                    if (!matches(booking, query.getQueryObject())) {
+                        return null;
+                    }
+                    apply(booking, update);
+                    history.add(BookingStatus.valueOf((String) booking.get("status")));
+                    return toBooking();
+                }
+            });
+            when(template.findOne(any(Query.class), eq(Booking.class))).thenAnswer(invocation -> {
+                Query query = invocation.getArgument(0);
+                synchronized (this) {
+                    return BOOKING_ID.equals(query.getQueryObject().get("_id")) ? toBooking() : null;
+                }
+            });
+            when(template.updateFirst(any(Query.class), any(Update.class), eq(Item.class))).thenAnswer(invocation -> {
+                Query query = invocation.getArgument(0);
+                Update update = invocation.getArgument(1);
+                synchronized (this) {
+                    if (!matches(item, query.getQueryObject())) {
+                        return UpdateResult.acknowledged(0, 0L, null);
+                    }
+                    apply(item, update);
+                    return UpdateResult.acknowledged(1, 1L, null);
+                }
+            });
+        }
+
+        synchronized void reset(BookingStatus status, String itemStatus) {
+            booking.clear();
+            booking.put("_id", BOOKING_ID);
+            booking.put("item_id", ITEM_ID);
+            booking.put("owner_id", OWNER_ID);
+            booking.put("borrower_id", BORROWER_ID);
+            booking.put("status", status.name());
+            history.clear();
+            item.clear();
+            item.put("_id", ITEM_ID);
+            item.put("is_active", true);
+            item.put("status", itemStatus);
+        }
+
+        synchronized BookingStatus bookingStatus() {
+            return BookingStatus.valueOf((String) booking.get("status"));
+        }
+
+        synchronized List<BookingStatus> history() {
+            return new ArrayList<>(history);
+        }
+
+        synchronized String itemStatus() {
+            return (String) item.get("status");
+        }
+
+        private static boolean matches(Map<String, Object> document, Document filter) {
+            for (Map.Entry<String, Object> condition : filter.entrySet()) {
+                Object actual = document.get(condition.getKey());
+                Object expected = condition.getValue();
+                if (expected instanceof Document && ((Document) expected).containsKey("$in")) {
+                    if (!((List<?>) ((Document) expected).get("$in")).contains(actual)) {
+                        return false;
+                    }
+                } else if (expected == null ? actual != null : !expected.equals(actual)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void apply(Map<String, Object> document, Update update) {
+            Document set = (Document) update.getUpdateObject().get("$set");
+            document.putAll(set);
+        }
+
+        private Booking toBooking() {
+            Booking result = new Booking();
+            result.setId((String) booking.get("_id"));
+            result.setItemId((String) booking.get("item_id"));
+            result.setOwnerId((String) booking.get("owner_id"));
+            result.setBorrowerId((String) booking.get("borrower_id"));
+            result.setStatus(BookingStatus.valueOf((String) booking.get("status")));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tokenization, BM25 ranking and incremental maintenance of ItemSearchIndex.
+ */
+class ItemSearchIndexTest {
+
+    private final ItemSearchIndex index = new ItemSearchIndex();
+
+    @Test
+    void tokenizesOnNonAlphanumericsAndLowerCases() {
+        assertEquals(List.of("cordless", "drill", "18v", "makita"),
+                ItemSearchIndex.tokenize("  Cordless DRILL (18V) - makita!"));
+        assertEquals(List.of("café", "crème"), ItemSearchIndex.tokenize("Café-Crème"));
+        assertEquals(List.of(), ItemSearchIndex.tokenize("  --  "));
+        assertEquals(List.of(), ItemSearchIndex.tokenize(null));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatchesAndRequiresEveryToken() {
+        index.rebuild(Stream.of(
+                item("desc", "Toolbox", "Comes with a drill bit set", true),
+                item("name", "Cordless drill", "Battery and charger included", true),
+                item("other", "Ladder", "Aluminium, three metres", true)));
+
+        assertTrue(index.isReady());
+        assertEquals(List.of("name", "desc"), index.search("drill"));
+        assertEquals(List.of("name"), index.search("cordless DRILL"));
+        assertEquals(List.of(), index.search("drill ladder"));
+        assertEquals(List.of(), index.search("!!"));
+    }
+
+    @Test
+    void shorterDocumentsRankFirstAndTiesBreakOnId() {
+        index.rebuild(Stream.of(
+                item("b", "Camping tent", null, true),
+                item("a", "Camping tent", null, true),
+                item("c", "Camping stove with gas canister", null, true)));
+
+        assertEquals(List.of("a", "b", "c"), index.search("camping"));
+        assertEquals(List.of("c"), index.search("camping stove"));
+    }
+
+    @Test
+    void matchesQueryTokensAsPrefixes() {
+        index.rebuild(Stream.of(
+                item("1", "Projector", null, true),
+                item("2", "Project notebook", null, true),
+                item("3", "Printer", null, true)));
+
+        assertEquals(List.of("1", "2"), index.search("proj").stream().sorted().toList());
+        assertEquals(List.of("1"), index.search("projector"));
+    }
+
+    @Test
+    void shortPrefixesKeepTheExactTermAndTheMostFrequentExpansions() {
+        List<Item> items = new ArrayList<>();
+        // 100 rare terms starting with "sa", each in one item
+        for (int i = 0; i < 100; i++) {
+            items.add(item("rare" + i, "Sa" + i + "x", null, true));
+        }
+        // A common term in three items, and the bare prefix itself in one
+        for (int i = 0; i < 3; i++) {
+            items.add(item("saw" + i, "Saw", null, true));
+        }
+        items.add(item("exact", "Sa", null, true));
+        index.rebuild(items.stream());
+
+        // 64 terms are scored: "sa", "saw" and 62 of the rare terms
+        List<String> hits = index.search("sa");
+        assertEquals(1 + 3 + 62, hits.size());
+        assertTrue(hits.containsAll(List.of("saw0", "saw1", "saw2", "exact")));
+    }
+
+    @Test
+    void reindexingAnItemReplacesItsOldTerms() {
+        index.rebuild(Stream.of(item("1", "Electric drill", null, true)));
+
+        index.index(item("1", "Hedge trimmer", null, true));
+
+        assertEquals(List.of(), index.search("drill"));
+        assertEquals(List.of("1"), index.search("trimmer"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removedAndInactiveItemsAreNotReturned() {
+        index.rebuild(Stream.of(
+                item("1", "Pressure washer", null, true),
+                item("2", "Pressure cooker", null, false)));
+        assertEquals(List.of("1"), index.search("pressure"));
+
+        index.index(item("1", "Pressure washer", null, false));
+        assertEquals(List.of(), index.search("pressure"));
+
+        index.index(item("2", "Pressure cooker", null, true));
+        index.remove("2");
+        assertEquals(List.of(), index.search("pressure"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void keepsMutationsMadeWhileARebuildStreams() {
+        index.rebuild(Stream.of(item("1", "Kayak", null, true)));
+
+        // The source is read lazily, so these writes land while the rebuild is in progress
+        Stream<Item> source = Stream.of(item("1", "Kayak", null, true), item("2", "Canoe", null, true))
+                .peek(item -> {
+                    if (item.getId().equals("2")) {
+                        index.remove("1");
+                        index.index(item("3", "Paddle board", null, true));
+                    }
+                });
+        assertEquals(2, index.rebuild(source));
+
+        assertEquals(List.of(), index.search("kayak"));
+        assertEquals(List.of("2"), index.search("canoe"));
+        assertEquals(List.of("3"), index.search("paddle"));
+        assertFalse(index.search("board").isEmpty());
+    }
+
+    private static Item item(String id, String name, String description, boolean active) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setActive(active);
+        return item;
+    }
+}
@@ -0,0 +1,173 @@
+package com.locallend.locallend.service;
+
+import com.locallend.locallend.model.JobCheckpoint;
+import com.locallend.locallend.model.Rating;
+import com.locallend.locallend.model.User;
+import com.locallend.locallend.repository.RatingRepository;
+import com.locallend.locallend.repository.TrustScoreStatsRepository;
+import com.locallend.locallend.util.TrustScoreCalculator;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * TrustScoreRecomputeJob against a mocked MongoTemplate: chunking, guarded
+ * writes of changed scores only, and checkpointing and resuming.
+ */
+class TrustScoreRecomputeJobTest {
+
+    private static final LocalDateTime LAST_UPDATE = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOps = mock(BulkOperations.class);
+    private final JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+    private final TrustScoreCalculator calculator = new TrustScoreCalculator();
+    private final List<Update> checkpoints = new ArrayList<>();
+
+    private TrustScoreRecomputeJob job;
+
+    @BeforeEach
+    void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(Rating.class)).thenReturn("ratings");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOps);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getModifiedCount()).thenReturn(1);
+        when(bulkOps.execute()).thenReturn(result);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(JobCheckpoint.class)))
+                .thenAnswer(invocation -> {
+                    checkpoints.add(invocation.getArgument(1));
+                    return null;
+                });
+
+        TrustScoreStatsService statsService = new TrustScoreStatsService(mock(TrustScoreStatsRepository.class),
+                mock(RatingRepository.class), mongoTemplate, calculator);
+        job = new TrustScoreRecomputeJob(mongoTemplate, statsService, calculator, jobLeaseService,
+                new SimpleMeterRegistry(), 2, 2);
+    }
+
+    @Test
+    void writesChangedScoresChunkByChunkAndCompletesTheRun() {
+        List<User> users = List.of(user("u1", 5.0, 0), user("u2", 5.0, 0), user("u3", 5.0, 0));
+        when(mongoTemplate.stream(any(Query.class), eq(User.class))).thenReturn(users.stream());
+        // u1 has two poor ratings; u2 and u3 have none, so their stored neutral score is current
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("ratings"), eq(Document.class)))
+                .thenReturn(results(new Document("_id", "u1").append("ratings", List.of(rating(2), rating(1)))))
+                .thenReturn(results());
+
+        assertEquals(3, job.recompute());
+
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOps, times(1)).updateOne(filter.capture(), update.capture());
+        assertEquals("u1", filter.getValue().getQueryObject().get("_id"));
+        assertEquals(LAST_UPDATE, filter.getValue().getQueryObject().get("last_trust_score_update"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertTrue((Double) set.get("trust_score") < 5.0);
+        assertEquals(2, set.get("total_ratings_received"));
+
+        // A new run was started, both chunks were checkpointed, then the run was completed
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(JobCheckpoint.class));
+        assertEquals(3, checkpoints.size());
+        assertEquals("u2", checkpointSet(0).get("last_id"));
+        assertEquals("u3", checkpointSet(1).get("last_id"));
+        assertEquals(3L, checkpointSet(1).get("processed"));
+        assertTrue(checkpointSet(2).containsKey("completed_at"));
+    }
+
+    @Test
+    void resumesAfterTheCheckpointedUser() {
+        JobCheckpoint checkpoint = new JobCheckpoint();
+        checkpoint.setRunStartedAt(LAST_UPDATE);
+        checkpoint.setLastId("u2");
+        checkpoint.setProcessed(2);
+        when(mongoTemplate.findById(TrustScoreRecomputeJob.JOB_NAME, JobCheckpoint.class)).thenReturn(checkpoint);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.stream(query.capture(), eq(User.class))).thenReturn(Stream.of(user("u3", 5.0, 0)));
+        when(mongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class))).thenReturn(results());
+
+        assertEquals(1, job.recompute());
+
+        assertEquals(new Document("$gt", "u2"), query.getValue().getQueryObject().get("_id"));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(JobCheckpoint.class));
+        assertEquals(3L, checkpointSet(0).get("processed"));
+        verify(bulkOps, never()).execute();
+    }
+
+    @Test
+    void scheduledRunStopsWithoutCompletingWhenTheLeaseIsLost() {
+        when(jobLeaseService.tryAcquire(eq(TrustScoreRecomputeJob.JOB_NAME), any())).thenReturn(true, false);
+        List<User> users = List.of(user("u1", 5.0, 0), user("u2", 5.0, 0), user("u3", 5.0, 0));
+        when(mongoTemplate.stream(any(Query.class), eq(User.class))).thenReturn(users.stream());
+        when(mongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class))).thenReturn(results());
+
+        job.scheduledRecompute();
+
+        assertEquals(1, checkpoints.size());
+        assertEquals("u2", checkpointSet(0).get("last_id"));
+        assertNull(checkpointSet(0).get("completed_at"));
+        verify(jobLeaseService, atLeastOnce()).release(TrustScoreRecomputeJob.JOB_NAME);
+    }
+
+    private Document checkpointSet(int index) {
+        return (Document) checkpoints.get(index).getUpdateObject().get("$set");
+    }
+
+    private static User user(String id, double trustScore, int totalRatings) {
+        User user = new User();
+        user.setId(id);
+        user.setTrustScore(trustScore);
+        user.setTotalRatingsReceived(totalRatings);
+        user.setLastTrustScoreUpdate(LAST_UPDATE);
+        return user;
+    }
+
+    private static Document rating(int value) {
+        Date created = Date.from(LAST_UPDATE.minusDays(10).atZone(ZoneId.systemDefault()).toInstant());
+        return new Document("rating_value", value).append("created_date", created).append("is_verified", true);
+    }
+
+    private static AggregationResults<Document> results(Document... rows) {
+        return new AggregationResults<>(List.of(rows), new Document());
+    }
+}
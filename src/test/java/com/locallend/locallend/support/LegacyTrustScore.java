@@ -0,0 +1,61 @@
+package com.locallend.locallend.support;
+
+import com.locallend.locallend.model.Rating;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * The multi-pass stream trust score that TrustScoreCalculator's single-pass
+ * kernel replaced. Kept as the reference implementation for
+ * TrustScoreCalculatorTest and TrustScoreCalculatorBenchmark.
+ */
+public final class LegacyTrustScore {
+
+    private LegacyTrustScore() {
+    }
+
+    public static double score(List<Rating> ratings) {
+        double average = ratings.stream().mapToDouble(Rating::getRatingValue).summaryStatistics().getAverage();
+        double volume = 4.0 + Math.min(1.0, Math.log(ratings.size() + 1) / Math.log(11));
+
+        LocalDateTime now = LocalDateTime.now();
+        double weightedSum = 0.0;
+        double totalWeight = 0.0;
+        for (Rating rating : ratings) {
+            double weight = Math.exp(-ChronoUnit.DAYS.between(rating.getCreatedDate(), now) / 30.0);
+            weightedSum += rating.getRatingValue() * weight;
+            totalWeight += weight;
+        }
+        double recency = totalWeight > 0 ? weightedSum / totalWeight : 5.0;
+
+        double consistency = 5.0;
+        if (ratings.size() >= 2) {
+            double mean = ratings.stream().mapToDouble(Rating::getRatingValue).summaryStatistics().getAverage();
+            double variance = ratings.stream()
+                    .mapToDouble(r -> Math.pow(r.getRatingValue() - mean, 2)).sum() / ratings.size();
+            consistency = Math.max(0.0, mean * (1.0 - Math.sqrt(variance) / 2.0));
+        }
+
+        long verifiedCount = ratings.stream().filter(Rating::getIsVerified).count();
+        double verifiedAverage = ratings.stream().filter(Rating::getIsVerified)
+                .mapToDouble(Rating::getRatingValue).average().orElse(5.0);
+        double verification = verifiedAverage * (0.7 + 0.3 * verifiedCount / ratings.size());
+
+        double score = average * 0.4 + volume * 0.2 + recency * 0.2 + consistency * 0.1 + verification * 0.1;
+
+        long excellent = ratings.stream().filter(r -> r.getRatingValue() >= 4.5).count();
+        long low = ratings.stream().filter(r -> r.getRatingValue() <= 2).count();
+        if ((double) excellent / ratings.size() >= 0.8) score += 0.3;
+        else if ((double) excellent / ratings.size() >= 0.6) score += 0.2;
+        if ((double) low / ratings.size() >= 0.3) score -= 0.5;
+        else if ((double) low / ratings.size() >= 0.15) score -= 0.3;
+        if (ratings.size() >= 5) {
+            LocalDateTime oldest = ratings.stream().map(Rating::getCreatedDate)
+                    .min(LocalDateTime::compareTo).orElse(now);
+            if (ChronoUnit.DAYS.between(oldest, now) >= 90) score += 0.1;
+        }
+        return Math.round(Math.max(0.0, Math.min(5.0, score)) * 10.0) / 10.0;
+    }
+}
@@ -0,0 +1,54 @@
+package com.locallend.locallend.support;
+
+import com.locallend.locallend.monitoring.MongoQueryBudgetFilter;
+import com.locallend.locallend.monitoring.MongoQueryStats;
+import com.locallend.locallend.monitoring.MongoQueryTracker;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+
+/**
+ * Assertions pinning the number of Mongo commands a piece of code or an
+ * endpoint issues, so that an added query (e.g. an N+1 over DBRefs) fails a
+ * test instead of going unnoticed.
+ *
+ * <pre>
+ * mockMvc.perform(get("/api/categories"))
+ *        .andExpect(status().isOk())
+ *        .andExpect(mongoCommands(1));
+ *
+ * assertMongoCommands(2, () -> bookingService.getBookingById(id));
+ * </pre>
+ */
+public final class MongoQueryAssertions {
+
+    private MongoQueryAssertions() {
+    }
+
+    /**
+     * Run an action and count the Mongo commands it issues on this thread.
+     * @return Commands, documents and time of the action
+     */
+    public static MongoQueryStats countQueries(Runnable action) {
+        try (MongoQueryTracker.Scope scope = MongoQueryTracker.open()) {
+            action.run();
+            return scope.getStats();
+        }
+    }
+
+    /**
+     * Assert that an action issues exactly the given number of Mongo commands.
+     */
+    public static void assertMongoCommands(long expected, Runnable action) {
+        MongoQueryStats stats = countQueries(action);
+        assertEquals(expected, stats.getCommands(), "Mongo commands issued (" + stats + ")");
+    }
+
+    /**
+     * MockMvc matcher on the command count reported by MongoQueryBudgetFilter.
+     */
+    public static ResultMatcher mongoCommands(long expected) {
+        return header().string(MongoQueryBudgetFilter.COMMANDS_HEADER, Long.toString(expected));
+    }
+}
@@ -0,0 +1,151 @@
+package com.locallend.locallend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Overlap queries, free-window search and AVL balance of IntervalTree.
+ */
+class IntervalTreeTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final Duration STEP = Duration.ofMinutes(1);
+
+    private final IntervalTree tree = new IntervalTree();
+
+    @Test
+    void overlapUsesClosedBounds() {
+        tree.put("a", day(1), day(3));
+
+        assertEquals("a", tree.findFirstOverlap(day(3), day(5)).getId());
+        assertEquals("a", tree.findFirstOverlap(day(0), day(1)).getId());
+        assertEquals("a", tree.findFirstOverlap(day(2), day(2)).getId());
+        assertNull(tree.findFirstOverlap(day(3).plusSeconds(1), day(5)));
+        assertNull(tree.findFirstOverlap(day(0), day(1).minusSeconds(1)));
+    }
+
+    @Test
+    void findsEarliestOverlapAndAllOverlapsInStartOrder() {
+        tree.put("late", day(10), day(12));
+        tree.put("long", day(2), day(20));
+        tree.put("early", day(1), day(3));
+        tree.put("outside", day(25), day(26));
+
+        assertEquals("early", tree.findFirstOverlap(day(2), day(11)).getId());
+        assertEquals("long", tree.findFirstOverlap(day(5), day(6)).getId());
+        assertEquals(List.of("early", "long", "late"), ids(tree.findAllOverlapping(day(2), day(11))));
+        assertEquals(List.of(), ids(tree.findAllOverlapping(day(21), day(24))));
+    }
+
+    @Test
+    void putReplacesAndRemoveDeletesById() {
+        tree.put("a", day(1), day(2));
+        tree.put("a", day(5), day(6));
+
+        assertEquals(1, tree.size());
+        assertNull(tree.findFirstOverlap(day(1), day(2)));
+        assertEquals("a", tree.findFirstOverlap(day(5), day(5)).getId());
+
+        assertTrue(tree.remove("a"));
+        assertFalse(tree.remove("a"));
+        assertFalse(tree.contains("a"));
+        assertEquals(0, tree.size());
+        assertNull(tree.findFirstOverlap(day(0), day(10)));
+    }
+
+    @Test
+    void nextFreeStartSkipsPastBackToBackBookings() {
+        tree.put("a", day(1), day(3));
+        tree.put("b", day(3).plus(STEP), day(5));
+        tree.put("c", day(8), day(9));
+
+        // Free before the first booking
+        assertEquals(day(0), tree.findNextFreeStart(day(0), Duration.ofHours(12), STEP));
+        // Starting inside a and b: the next start is one step after b, and two days fit before c
+        assertEquals(day(5).plus(STEP), tree.findNextFreeStart(day(2), Duration.ofDays(2), STEP));
+        // Four days do not fit before c, so the window moves past it
+        assertEquals(day(9).plus(STEP), tree.findNextFreeStart(day(2), Duration.ofDays(4), STEP));
+        assertEquals(day(2), new IntervalTree().findNextFreeStart(day(2), Duration.ofDays(4), STEP));
+    }
+
+    @Test
+    void staysBalancedUnderSortedInsertsAndDeletes() {
+        int n = 4096;
+        for (int i = 0; i < n; i++) {
+            tree.put("id" + i, T0.plusHours(i), T0.plusHours(i).plusMinutes(30));
+        }
+        assertTrue(tree.height() <= maxAvlHeight(n), "height " + tree.height());
+
+        for (int i = 0; i < n; i += 2) {
+            tree.remove("id" + i);
+        }
+        assertEquals(n / 2, tree.size());
+        assertTrue(tree.height() <= maxAvlHeight(n / 2), "height " + tree.height());
+        assertNull(tree.findFirstOverlap(T0.plusHours(2), T0.plusHours(2).plusMinutes(30)));
+        assertEquals("id3", tree.findFirstOverlap(T0.plusHours(2), T0.plusHours(3)).getId());
+    }
+
+    @Test
+    void matchesLinearScanOnRandomCalendars() {
+        Random random = new Random(42);
+        Map<String, LocalDateTime[]> reference = new LinkedHashMap<>();
+
+        for (int round = 0; round < 2000; round++) {
+            String id = "b" + random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                assertEquals(reference.remove(id) != null, tree.remove(id));
+            } else {
+                LocalDateTime start = T0.plusHours(random.nextInt(24 * 365));
+                LocalDateTime end = start.plusHours(1 + random.nextInt(24 * 10));
+                tree.put(id, start, end);
+                reference.put(id, new LocalDateTime[]{start, end});
+            }
+
+            LocalDateTime from = T0.plusHours(random.nextInt(24 * 365));
+            LocalDateTime to = from.plusHours(random.nextInt(24 * 5));
+            List<String> expected = reference.entrySet().stream()
+                    .filter(e -> !e.getValue()[0].isAfter(to) && !e.getValue()[1].isBefore(from))
+                    .sorted(Comparator.<Map.Entry<String, LocalDateTime[]>, LocalDateTime>comparing(e -> e.getValue()[0])
+                            .thenComparing(Map.Entry::getKey))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+
+            assertEquals(expected, ids(tree.findAllOverlapping(from, to)));
+            IntervalTree.Interval first = tree.findFirstOverlap(from, to);
+            assertEquals(expected.isEmpty() ? null : expected.get(0), first == null ? null : first.getId());
+        }
+        assertEquals(reference.size(), tree.size());
+        assertTrue(tree.height() <= maxAvlHeight(tree.size()), "height " + tree.height());
+    }
+
+    private static LocalDateTime day(int n) {
+        return T0.plusDays(n);
+    }
+
+    private static List<String> ids(List<IntervalTree.Interval> intervals) {
+        List<String> ids = new ArrayList<>();
+        for (IntervalTree.Interval interval : intervals) {
+            ids.add(interval.getId());
+        }
+        return ids;
+    }
+
+    // Upper bound on the height of an AVL tree with n nodes
+    private static int maxAvlHeight(int n) {
+        return (int) Math.ceil(1.45 * (Math.log(n + 2) / Math.log(2)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.locallend.locallend.util;
+
+import com.locallend.locallend.model.Rating;
+import com.locallend.locallend.model.RatingType;
+import com.locallend.locallend.repository.RatingRepository;
+import com.locallend.locallend.repository.TrustScoreStatsRepository;
+import com.locallend.locallend.service.TrustScoreStatsService;
+import com.locallend.locallend.support.LegacyTrustScore;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Equivalence of the single-pass and statistics-based trust scores with the
+ * multi-pass implementation they replaced, on randomized rating histories.
+ */
+class TrustScoreCalculatorTest {
+
+    private static final int TRIALS = 2000;
+
+    private final TrustScoreCalculator calculator = new TrustScoreCalculator();
+    private final TrustScoreStatsService statsService = new TrustScoreStatsService(
+            mock(TrustScoreStatsRepository.class), mock(RatingRepository.class), mock(MongoTemplate.class), calculator);
+
+    @Test
+    void listKernelMatchesLegacyExactly() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            List<Rating> ratings = randomRatings(random);
+            assertEquals(LegacyTrustScore.score(ratings), calculator.calculateTrustScore(ratings), 0.0,
+                    "trial " + trial);
+        }
+    }
+
+    @Test
+    void statisticsScoreMatchesLegacyWithinRounding() {
+        Random random = new Random(11);
+        int differing = 0;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            List<Rating> ratings = randomRatings(random);
+            double legacy = LegacyTrustScore.score(ratings);
+            double fromStats = calculator.calculateTrustScore(statsService.fromRatings("user", ratings));
+
+            // Continuous decay moves the unrounded score by at most 0.007, so at most one rounding step
+            assertEquals(legacy, fromStats, 0.1 + 1e-9, "trial " + trial);
+            if (legacy != fromStats) {
+                differing++;
+            }
+        }
+        // Only scores sitting on a rounding boundary may differ
+        assertTrue(differing < TRIALS / 10, differing + " of " + TRIALS + " scores differ");
+    }
+
+    @Test
+    void emptyHistoryIsNeutral() {
+        assertEquals(5.0, calculator.calculateTrustScore(List.of()), 0.0);
+        assertEquals(5.0, calculator.calculateTrustScore(statsService.fromRatings("user", List.of())), 0.0);
+    }
+
+    private static List<Rating> randomRatings(Random random) {
+        LocalDateTime now = LocalDateTime.now();
+        int count = 1 + random.nextInt(random.nextBoolean() ? 8 : 200);
+        int maxAgeDays = 1 + random.nextInt(400);
+        List<Rating> ratings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Rating rating = new Rating("rater" + i, "user", RatingType.BORROWER_TO_OWNER, 1 + random.nextInt(5));
+            // Whole minutes plus 30 seconds keep every rating clear of a day boundary while the test runs
+            rating.setCreatedDate(now.minusMinutes(random.nextInt(maxAgeDays * 24 * 60)).minusSeconds(30));
+            rating.setIsVerified(random.nextBoolean());
+            ratings.add(rating);
+        }
+        return ratings;
+    }
+}